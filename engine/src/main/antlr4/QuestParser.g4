@@ -8,9 +8,25 @@ options {
     package cn.easygd.quest.engine.core;
 }
 
+@members {
+    /**
+     * same as java , a parenthesized simple name followed by + or - is a binary expression and never a cast ,
+     * checked at the left edge of castExpr so that prediction does not need full context for it
+     */
+    private boolean castAllowed() {
+        return !(_input.LA(2) == IDENTIFIER && _input.LA(3) == RPAREN
+                && (_input.LA(4) == PLUS || _input.LA(4) == MINUS));
+    }
+}
+
 // Script top-level rule
 script: kindDeclaration module EOF;
 
+// Kind specific top-level rules (kind is sniffed from the header tokens first)
+serviceScript: kindDeclaration serviceModule EOF;
+prdScript: kindDeclaration prdModule EOF;
+entityScript: kindDeclaration entityModule EOF;
+
 // kind declaration rule
 kindDeclaration: AT KIND kindType SEMI;
 
@@ -108,16 +124,22 @@ forControl: expression SEMI expression SEMI expression #forControlExpr
 argumentList: expression (COMMA expression)*;
 
 // Expression hierarchy rule
+// alternatives are ordered from the highest to the lowest precedence , every binary tier keeps the binaryExpr label
 expression: primary #primaryExpr
           | methodInvokeExpression #methodInvokeExpr
+          | NEW classType LPAREN parameterList? RPAREN #newExpr
           | expression LBRACK expression RBRACK #arrayAccessExpr
           | expression postfix=(INC | DEC) #postfixExpr
           | prefix=(PLUS | MINUS | INC | DEC | NOT) expression #prefixExpr
-          | expression binaryOp expression #binaryExpr
-          | expression QUESTION expression COLON expression #ternaryExpr
-          | LPAREN type RPAREN expression #castExpr
-          | IDENTIFIER assignmentOperator expression #assignmentExpr
-          | NEW classType LPAREN parameterList? RPAREN #newExpr
+          | {castAllowed()}? LPAREN type RPAREN expression #castExpr
+          | expression bop=(MULT | DIV | MOD) expression #binaryExpr
+          | expression bop=(PLUS | MINUS) expression #binaryExpr
+          | expression bop=(LT | GT | LE | GE) expression #binaryExpr
+          | expression bop=(EQ | NEQ) expression #binaryExpr
+          | expression bop=AND expression #binaryExpr
+          | expression bop=OR expression #binaryExpr
+          | <assoc=right> expression QUESTION expression COLON expression #ternaryExpr
+          | <assoc=right> IDENTIFIER assignmentOperator expression #assignmentExpr
           ;
 
 // method invoke expression
@@ -139,12 +161,6 @@ literal: INTEGER
        | FALSE
        | NULL;
 
-// Binary operator rule
-binaryOp: MULT | DIV | MOD
-        | PLUS | MINUS
-        | LT | GT | LE | GE | EQ | NEQ
-        | AND | OR;
-
 newlines: NEWLINE+;
 
 usageLevel: PRIVATE | PUBLIC | PROTECTED;
@@ -0,0 +1,100 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.core.parser.QuestSyntaxError;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.core.parser.SyntaxErrorCollector;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * body of a process / function kept as a token range , parsed when the statements are first needed
+ *
+ * <p>
+ * only the char stream of the script and the range from the opening to the closing brace are kept. the range is
+ * parsed with the {@code block} rule on its own lexer / parser , not the pooled ones , so a body can be built while
+ * the thread is parsing another script. lines and columns of syntax errors are those of the whole script.
+ * </p>
+ *
+ * @author VD
+ */
+public class LazyStatementBody implements Supplier<List<CodeStatement>> {
+
+    /**
+     * script char stream
+     */
+    private final CharStream input;
+
+    /**
+     * opening brace index , inclusive
+     */
+    private final int startIndex;
+
+    /**
+     * closing brace index , inclusive
+     */
+    private final int stopIndex;
+
+    /**
+     * line of the opening brace
+     */
+    private final int line;
+
+    /**
+     * column of the opening brace
+     */
+    private final int charPositionInLine;
+
+    /**
+     * symbol pool of the run
+     */
+    private final SymbolPool symbolPool;
+
+    /**
+     * @param open       opening brace of the body
+     * @param close      closing brace of the body
+     * @param symbolPool symbol pool of the run
+     */
+    public LazyStatementBody(Token open, Token close, SymbolPool symbolPool) {
+        this.input = open.getInputStream();
+        this.startIndex = open.getStartIndex();
+        this.stopIndex = close.getStopIndex();
+        this.line = open.getLine();
+        this.charPositionInLine = open.getCharPositionInLine();
+        this.symbolPool = symbolPool;
+    }
+
+    /**
+     * parse the body and build its statements
+     *
+     * @return statements
+     * @throws IllegalStateException when the body has syntax errors
+     */
+    @Override
+    public List<CodeStatement> get() {
+        String sourceName = input.getSourceName();
+        QuestLexer lexer = new QuestLexer(CharStreams.fromString(input.getText(Interval.of(startIndex, stopIndex)),
+                sourceName));
+        lexer.setLine(line);
+        lexer.setCharPositionInLine(charPositionInLine);
+        QuestParser parser = new QuestParser(new CommonTokenStream(lexer));
+        SyntaxErrorCollector errorCollector = new SyntaxErrorCollector(sourceName);
+        errorCollector.attach(parser);
+
+        QuestParser.BlockContext block = QuestScriptParser.parse(parser, QuestParser::block);
+        if (errorCollector.hasErrors()) {
+            throw new IllegalStateException("body does not parse : " + errorCollector.getErrors().stream()
+                    .map(QuestSyntaxError::toString)
+                    .collect(Collectors.joining(" ; ")));
+        }
+        return new QuestStatementBuilder(symbolPool).buildStatementList(block.statement());
+    }
+}
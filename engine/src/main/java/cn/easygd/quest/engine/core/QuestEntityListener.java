@@ -0,0 +1,51 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.runtime.module.EntityModule;
+
+/**
+ * parse listener counterpart of {@link QuestEntityVisitor}
+ *
+ * @author VD
+ */
+public class QuestEntityListener extends QuestStatementListener<EntityModule> {
+
+    /**
+     * 模块
+     */
+    private EntityModule entityModule;
+
+    public QuestEntityListener() {
+        super();
+        reset();
+    }
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestEntityListener(SymbolPool symbolPool) {
+        super(symbolPool);
+        reset();
+    }
+
+    @Override
+    protected void reset() {
+        entityModule = new EntityModule();
+    }
+
+    @Override
+    public void exitEntityModule(QuestParser.EntityModuleContext ctx) {
+        entityModule.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+    }
+
+    /**
+     * 获取模块
+     *
+     * @return 模块
+     */
+    @Override
+    public EntityModule getModule() {
+        return entityModule;
+    }
+}
@@ -1,11 +1,45 @@
 package cn.easygd.quest.engine.core;
 
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
 import cn.easygd.quest.engine.runtime.module.EntityModule;
 
 /**
  * @author VD
  */
 public class QuestEntityVisitor extends QuestStatementVisitor<EntityModule> {
+
+    /**
+     * 模块
+     */
+    private final EntityModule entityModule = new EntityModule();
+
+    public QuestEntityVisitor() {
+        super();
+    }
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestEntityVisitor(SymbolPool symbolPool) {
+        super(symbolPool);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The default implementation returns the result of calling
+     * {@link #visitChildren} on {@code ctx}.</p>
+     *
+     * @param ctx
+     */
+    @Override
+    public Void visitEntityModule(QuestParser.EntityModuleContext ctx) {
+        visitChildren(ctx);
+        entityModule.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+        return null;
+    }
+
     /**
      * 获取模块
      *
@@ -13,6 +47,6 @@ public class QuestEntityVisitor extends QuestStatementVisitor<EntityModule> {
      */
     @Override
     public EntityModule getModule() {
-        return null;
+        return entityModule;
     }
 }
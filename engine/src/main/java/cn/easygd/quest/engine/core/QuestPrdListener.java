@@ -0,0 +1,51 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.runtime.module.PrdModule;
+
+/**
+ * parse listener counterpart of {@link QuestPrdVisitor}
+ *
+ * @author VD
+ */
+public class QuestPrdListener extends QuestStatementListener<PrdModule> {
+
+    /**
+     * 模块
+     */
+    private PrdModule prdModule;
+
+    public QuestPrdListener() {
+        super();
+        reset();
+    }
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestPrdListener(SymbolPool symbolPool) {
+        super(symbolPool);
+        reset();
+    }
+
+    @Override
+    protected void reset() {
+        prdModule = new PrdModule();
+    }
+
+    @Override
+    public void exitPrdModule(QuestParser.PrdModuleContext ctx) {
+        prdModule.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+    }
+
+    /**
+     * 获取模块
+     *
+     * @return 模块
+     */
+    @Override
+    public PrdModule getModule() {
+        return prdModule;
+    }
+}
@@ -1,5 +1,7 @@
 package cn.easygd.quest.engine.core;
 
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
 import cn.easygd.quest.engine.runtime.module.PrdModule;
 
 /**
@@ -7,6 +9,37 @@ import cn.easygd.quest.engine.runtime.module.PrdModule;
  */
 public class QuestPrdVisitor extends QuestStatementVisitor<PrdModule>{
 
+    /**
+     * 模块
+     */
+    private final PrdModule prdModule = new PrdModule();
+
+    public QuestPrdVisitor() {
+        super();
+    }
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestPrdVisitor(SymbolPool symbolPool) {
+        super(symbolPool);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The default implementation returns the result of calling
+     * {@link #visitChildren} on {@code ctx}.</p>
+     *
+     * @param ctx
+     */
+    @Override
+    public Void visitPrdModule(QuestParser.PrdModuleContext ctx) {
+        visitChildren(ctx);
+        prdModule.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+        return null;
+    }
+
     /**
      * 获取模块
      *
@@ -14,6 +47,6 @@ public class QuestPrdVisitor extends QuestStatementVisitor<PrdModule>{
      */
     @Override
     public PrdModule getModule() {
-        return null;
+        return prdModule;
     }
 }
@@ -0,0 +1,123 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.compact.CompactStatementTree;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+
+/**
+ * parse listener counterpart of {@link QuestServiceVisitor}
+ *
+ * @author VD
+ */
+public class QuestServiceListener extends QuestStatementListener<ServiceModule> {
+
+    /**
+     * keep statements array backed
+     */
+    private final boolean compact;
+
+    /**
+     * 模块
+     */
+    private ServiceModule serviceModule;
+
+    /**
+     * array backed storage of the statements , {@code null} when statements are kept as regular objects
+     */
+    private CompactStatementTree compactTree;
+
+    public QuestServiceListener() {
+        this(false);
+    }
+
+    /**
+     * @param compact keep processes / functions in a {@link CompactStatementTree} , the module then holds read only
+     *                views
+     */
+    public QuestServiceListener(boolean compact) {
+        super();
+        this.compact = compact;
+        reset();
+    }
+
+    /**
+     * @param compact    keep processes / functions in a {@link CompactStatementTree}
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestServiceListener(boolean compact, SymbolPool symbolPool) {
+        super(symbolPool);
+        this.compact = compact;
+        reset();
+    }
+
+    @Override
+    protected void reset() {
+        serviceModule = new ServiceModule();
+        compactTree = compact ? new CompactStatementTree() : null;
+    }
+
+    @Override
+    public void exitServiceModule(QuestParser.ServiceModuleContext ctx) {
+        if (compactTree != null) {
+            compactTree.trim();
+        }
+    }
+
+    @Override
+    public void exitBizModule(QuestParser.BizModuleContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        serviceModule.setBizModule(text(QuestParser.InputTxtContext.class));
+    }
+
+    @Override
+    public void exitProcessModule(QuestParser.ProcessModuleContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ProcessCodeStatement processCodeStatement = new ProcessCodeStatement();
+        processCodeStatement.setName(text(QuestParser.InputTxtContext.class));
+        processCodeStatement.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+        statements(processCodeStatement);
+        if (compactTree != null) {
+            processCodeStatement = compactTree.add(processCodeStatement);
+        }
+        serviceModule.putProcessStatement(processCodeStatement.getName(), processCodeStatement);
+    }
+
+    @Override
+    public void exitFunctionDefinition(QuestParser.FunctionDefinitionContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        FunctionCodeStatement functionCodeStatement = new FunctionCodeStatement();
+        functionCodeStatement.setReturnType(text(QuestParser.TypeContext.class));
+        // no usage level : keep the default
+        String usageLevel = text(QuestParser.UsageLevelContext.class);
+        if (usageLevel != null) {
+            functionCodeStatement.setUsageLevel(usageLevel);
+        }
+        functionCodeStatement.setName(text(QuestParser.InputTxtContext.class));
+        functionCodeStatement.setParameters(text(QuestParser.ParameterListContext.class));
+        functionCodeStatement.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+        statements(functionCodeStatement);
+        if (compactTree != null) {
+            functionCodeStatement = compactTree.add(functionCodeStatement);
+        }
+        serviceModule.putFunctionStatement(functionCodeStatement.getName(), functionCodeStatement);
+    }
+
+    /**
+     * 获取模块
+     *
+     * @return 模块
+     */
+    @Override
+    public ServiceModule getModule() {
+        return serviceModule;
+    }
+}
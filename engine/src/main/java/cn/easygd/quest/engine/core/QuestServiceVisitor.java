@@ -1,11 +1,16 @@
 package cn.easygd.quest.engine.core;
 
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
 import cn.easygd.quest.engine.runtime.module.ServiceModule;
-import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
 import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.compact.CompactStatementTree;
 import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
 import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
 
+import org.antlr.v4.runtime.tree.TerminalNode;
+
 import java.util.List;
 
 /**
@@ -18,8 +23,67 @@ public class QuestServiceVisitor extends QuestStatementVisitor<ServiceModule> {
      */
     private final ServiceModule serviceModule;
 
+    /**
+     * array backed storage of the statements , {@code null} when statements are kept as regular objects
+     */
+    private final CompactStatementTree compactTree;
+
+    /**
+     * keep bodies as token ranges , see {@link LazyStatementBody}
+     */
+    private final boolean lazy;
+
     public QuestServiceVisitor() {
+        this(false);
+    }
+
+    /**
+     * @param compact keep processes / functions in a {@link CompactStatementTree} , the module then holds read only
+     *                views
+     */
+    public QuestServiceVisitor(boolean compact) {
+        super();
         serviceModule = new ServiceModule();
+        compactTree = compact ? new CompactStatementTree() : null;
+        lazy = false;
+    }
+
+    /**
+     * @param compact    keep processes / functions in a {@link CompactStatementTree}
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestServiceVisitor(boolean compact, SymbolPool symbolPool) {
+        this(compact, false, symbolPool);
+    }
+
+    /**
+     * @param compact    keep processes / functions in a {@link CompactStatementTree}
+     * @param lazy       keep process / function bodies as token ranges and build their statements on first use , see
+     *                   {@link LazyStatementBody}. a compact tree needs the statements , compact wins
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestServiceVisitor(boolean compact, boolean lazy, SymbolPool symbolPool) {
+        super(symbolPool);
+        serviceModule = new ServiceModule();
+        compactTree = compact ? new CompactStatementTree() : null;
+        this.lazy = lazy && !compact;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The default implementation returns the result of calling
+     * {@link #visitChildren} on {@code ctx}.</p>
+     *
+     * @param ctx
+     */
+    @Override
+    public Void visitServiceModule(QuestParser.ServiceModuleContext ctx) {
+        visitChildren(ctx);
+        if (compactTree != null) {
+            compactTree.trim();
+        }
+        return null;
     }
 
     /**
@@ -47,17 +111,11 @@ public class QuestServiceVisitor extends QuestStatementVisitor<ServiceModule> {
      */
     @Override
     public Void visitProcessModule(QuestParser.ProcessModuleContext ctx) {
-        List<QuestParser.StatementContext> statement = ctx.statement();
-
-        ProcessCodeStatement processCodeStatement = new ProcessCodeStatement();
-
-        List<CodeStatement> codeStatements = parseCoreStatement(statement);
-
-        TokenCodeStatement inputName = getInputTxt(ctx.inputTxt());
-        String processName = inputName.getValue();
-        processCodeStatement.setName(processName);
-        processCodeStatement.addAll(codeStatements);
-        serviceModule.putProcessStatement(processName, processCodeStatement);
+        ProcessCodeStatement processCodeStatement = buildProcessStatement(ctx);
+        if (compactTree != null) {
+            processCodeStatement = compactTree.add(processCodeStatement);
+        }
+        serviceModule.putProcessStatement(processCodeStatement.getName(), processCodeStatement);
         return null;
     }
 
@@ -73,29 +131,81 @@ public class QuestServiceVisitor extends QuestStatementVisitor<ServiceModule> {
     public Void visitFunctionModule(QuestParser.FunctionModuleContext ctx) {
         List<QuestParser.FunctionDefinitionContext> contextList = ctx.functionDefinition();
         for (QuestParser.FunctionDefinitionContext context : contextList) {
-            FunctionCodeStatement functionCodeStatement = new FunctionCodeStatement();
-
-            // return type
-            String returnType = context.type().getText();
-            // usageLevel
-            String usageLevel = context.usageLevel().getText();
-            // function name
-            TokenCodeStatement inputName = getInputTxt(context.inputTxt());
-            String functionName = inputName.getValue();
-            // function parameter
-            String parameters = context.parameterList().getText();
-            // function content
-            List<CodeStatement> statementList = parseCoreStatement(context.statement());
-            functionCodeStatement.addAll(statementList);
-            functionCodeStatement.setName(functionName);
-            functionCodeStatement.setParameters(parameters);
-            functionCodeStatement.setUsageLevel(usageLevel);
-            functionCodeStatement.setReturnType(returnType);
-            serviceModule.putFunctionStatement(functionName,functionCodeStatement);
+            FunctionCodeStatement functionCodeStatement = buildFunctionStatement(context);
+            if (compactTree != null) {
+                functionCodeStatement = compactTree.add(functionCodeStatement);
+            }
+            serviceModule.putFunctionStatement(functionCodeStatement.getName(), functionCodeStatement);
         }
         return null;
     }
 
+    /**
+     * build process statement
+     *
+     * @param ctx process module context
+     * @return process statement
+     */
+    public ProcessCodeStatement buildProcessStatement(QuestParser.ProcessModuleContext ctx) {
+        List<QuestParser.StatementContext> statement = ctx.statement();
+
+        ProcessCodeStatement processCodeStatement = new ProcessCodeStatement();
+
+        TokenCodeStatement inputName = getInputTxt(ctx.inputTxt());
+        String processName = inputName.getValue();
+        processCodeStatement.setName(processName);
+        processCodeStatement.setFingerprint(FingerprintTokenFactory.fingerprint(ctx.getStart(), ctx.getStop()));
+        fillBody(processCodeStatement, ctx.LBRACE(), ctx.RBRACE(), statement);
+        return processCodeStatement;
+    }
+
+    /**
+     * build function statement
+     *
+     * @param context function definition context
+     * @return function statement
+     */
+    public FunctionCodeStatement buildFunctionStatement(QuestParser.FunctionDefinitionContext context) {
+        FunctionCodeStatement functionCodeStatement = new FunctionCodeStatement();
+
+        // return type
+        String returnType = symbolPool.intern(context.type().getText());
+        // usageLevel
+        String usageLevel = symbolPool.intern(context.usageLevel().getText());
+        // function name
+        TokenCodeStatement inputName = getInputTxt(context.inputTxt());
+        String functionName = inputName.getValue();
+        // function parameter
+        String parameters = symbolPool.intern(context.parameterList().getText());
+        // function content
+        fillBody(functionCodeStatement, context.LBRACE(), context.RBRACE(), context.statement());
+        functionCodeStatement.setName(functionName);
+        functionCodeStatement.setParameters(parameters);
+        functionCodeStatement.setUsageLevel(usageLevel);
+        functionCodeStatement.setReturnType(returnType);
+        functionCodeStatement.setFingerprint(FingerprintTokenFactory.fingerprint(context.getStart(), context.getStop()));
+        return functionCodeStatement;
+    }
+
+    /**
+     * add the statements of a body , deferred in lazy mode when both braces were parsed ( not conjured by error
+     * recovery )
+     *
+     * @param collect    process / function statement
+     * @param open       opening brace
+     * @param close      closing brace
+     * @param statements parsed statements , empty when the body tokens were skipped
+     */
+    private void fillBody(CollectCodeStatement collect, TerminalNode open, TerminalNode close,
+                          List<QuestParser.StatementContext> statements) {
+        if (lazy && open != null && close != null
+                && close.getSymbol().getStopIndex() > open.getSymbol().getStartIndex()) {
+            collect.defer(new LazyStatementBody(open.getSymbol(), close.getSymbol(), symbolPool));
+        } else {
+            collect.addAll(parseCoreStatement(statements));
+        }
+    }
+
     /**
      * 获取模块
      *
@@ -0,0 +1,441 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.RuleNode;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.*;
+
+/**
+ * code statement builder
+ *
+ * <p>
+ * the tree is built bottom up with an explicit work stack instead of nested visit calls , so the java stack depth
+ * does not grow with the nesting depth of the script. {@link #visit(ParseTree)} first builds the operand subtrees of a
+ * node ( expressions , blocks , statements , for controls , method invokes ) and then assembles the node itself with
+ * its visit method , which reads the finished operands through {@link #operand(ParseTree)}.
+ * </p>
+ *
+ * <p>
+ * the work stacks are reused , one instance serves a whole script. not thread safe. texts kept in statements go
+ * through the {@link SymbolPool} of the run. when the pool hash-conses , every finished expression is replaced by its
+ * canonical instance before its parent is assembled , so parents are always built from canonical children.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestStatementBuilder extends QuestParserBaseVisitor<CodeStatement> {
+
+    /**
+     * work stack marker : assemble the node on top of {@link #frames}
+     */
+    private static final Object ASSEMBLE = new Object();
+
+    /**
+     * work stack , subtrees to build and assemble markers
+     */
+    private final Deque<Object> work = new ArrayDeque<>();
+
+    /**
+     * nodes waiting for their operands
+     */
+    private final List<ParserRuleContext> frames = new ArrayList<>();
+
+    /**
+     * first operand index of the waiting nodes
+     */
+    private int[] frameBases = new int[64];
+
+    /**
+     * finished statements , the operands of the waiting nodes
+     */
+    private final List<CodeStatement> operands = new ArrayList<>();
+
+    /**
+     * subtrees of the finished statements
+     */
+    private final List<ParseTree> operandTrees = new ArrayList<>();
+
+    /**
+     * first operand index of the node being assembled
+     */
+    private int base;
+
+    /**
+     * symbol pool of the run
+     */
+    private final SymbolPool symbolPool;
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    public QuestStatementBuilder(SymbolPool symbolPool) {
+        this.symbolPool = symbolPool;
+    }
+
+    /**
+     * build statement list , unknown statements ( error recovery ) are skipped
+     *
+     * @param statementList statement list
+     * @return code statement list
+     */
+    public List<CodeStatement> buildStatementList(List<QuestParser.StatementContext> statementList) {
+        List<CodeStatement> codeStatementList = new ArrayList<>(statementList.size());
+        for (QuestParser.StatementContext statement : statementList) {
+            CodeStatement codeStatement = visit(statement);
+            if (Objects.nonNull(codeStatement)) {
+                codeStatementList.add(codeStatement);
+            }
+        }
+        return codeStatementList;
+    }
+
+    /**
+     * build the statement of a subtree
+     *
+     * @param tree parse tree
+     * @return statement , {@code null} when the subtree builds no statement
+     */
+    @Override
+    public CodeStatement visit(ParseTree tree) {
+        int bottom = operands.size();
+        work.push(tree);
+        while (!work.isEmpty()) {
+            Object top = work.pop();
+            if (top == ASSEMBLE) {
+                int last = frames.size() - 1;
+                ParserRuleContext ctx = frames.remove(last);
+                base = frameBases[last];
+                CodeStatement statement = share(ctx.accept(this));
+                operands.subList(base, operands.size()).clear();
+                operandTrees.subList(base, operandTrees.size()).clear();
+                operands.add(statement);
+                operandTrees.add(ctx);
+                continue;
+            }
+
+            ParseTree node = (ParseTree) top;
+            int mark = work.size();
+            if (node instanceof ParserRuleContext) {
+                work.push(ASSEMBLE);
+                pushOperands((ParserRuleContext) node);
+            }
+            if (work.size() > mark + 1) {
+                if (frames.size() == frameBases.length) {
+                    frameBases = Arrays.copyOf(frameBases, frameBases.length * 2);
+                }
+                frameBases[frames.size()] = operands.size();
+                frames.add((ParserRuleContext) node);
+            } else {
+                // no operands , build it right away
+                if (work.size() > mark) {
+                    work.pop();
+                }
+                base = operands.size();
+                operands.add(share(node.accept(this)));
+                operandTrees.add(node);
+            }
+        }
+        operandTrees.remove(bottom);
+        return operands.remove(bottom);
+    }
+
+    /**
+     * push the operand subtrees of a node , last one first so they are built in source order
+     *
+     * @param ctx node
+     */
+    private void pushOperands(ParserRuleContext ctx) {
+        if (ctx instanceof QuestParser.PrimaryExprContext) {
+            // parenthesized expression
+            QuestParser.ExpressionContext expression = ((QuestParser.PrimaryExprContext) ctx).primary().expression();
+            if (Objects.nonNull(expression)) {
+                work.push(expression);
+            }
+            return;
+        }
+        for (int i = ctx.getChildCount() - 1; i >= 0; i--) {
+            ParseTree child = ctx.getChild(i);
+            if (child instanceof QuestParser.ExpressionContext
+                    || child instanceof QuestParser.BlockContext
+                    || child instanceof QuestParser.StatementContext
+                    || child instanceof QuestParser.ForControlContext
+                    || child instanceof QuestParser.MethodInvokeExpressionContext) {
+                work.push(child);
+            }
+        }
+    }
+
+    /**
+     * finished statement of an operand subtree of the node being assembled
+     *
+     * @param tree operand subtree
+     * @param <S>  statement type
+     * @return statement , {@code null} when the subtree is missing ( error recovery )
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends CodeStatement> S operand(ParseTree tree) {
+        if (Objects.nonNull(tree)) {
+            for (int i = base; i < operandTrees.size(); i++) {
+                if (operandTrees.get(i) == tree) {
+                    return (S) operands.get(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * canonical instance of a finished statement
+     *
+     * @param statement statement
+     * @return the pooled expression with the same structure , other statements as they are
+     */
+    private CodeStatement share(CodeStatement statement) {
+        if (statement instanceof ExpressionCodeStatement) {
+            return symbolPool.intern((ExpressionCodeStatement) statement);
+        }
+        return statement;
+    }
+
+    /**
+     * rule contexts without a visit method ( error recovery ) build nothing
+     *
+     * @param node rule context
+     * @return {@code null}
+     */
+    @Override
+    public CodeStatement visitChildren(RuleNode node) {
+        return null;
+    }
+
+    @Override
+    public CodeStatement visitVariableStatement(QuestParser.VariableStatementContext ctx) {
+        VariableCodeStatement variableCodeStatement = new VariableCodeStatement();
+
+        //  variable
+        variableCodeStatement.setVariableType(symbolPool.intern(ctx.type().getText()));
+        variableCodeStatement.setVariableName(symbolPool.intern(ctx.IDENTIFIER().getText()));
+
+        // expr
+        variableCodeStatement.setExpr(operand(ctx.expression()));
+        return variableCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitIfStatement(QuestParser.IfStatementContext ctx) {
+        IfCodeStatement ifCodeStatement = new IfCodeStatement();
+        ifCodeStatement.setCondition(operand(ctx.expression()));
+        // if  block
+        ifCodeStatement.setBlock(operand(ctx.block(0)));
+        if (ctx.ELSE() != null) {
+            // else block
+            ifCodeStatement.setElseBlock(operand(ctx.block(1)));
+        }
+        return ifCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitForStatement(QuestParser.ForStatementContext ctx) {
+        ForCodeStatement forCodeStatement = new ForCodeStatement();
+        forCodeStatement.setForControl(operand(ctx.forControl()));
+        forCodeStatement.setForBlock(operand(ctx.block()));
+        return forCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitWhileStatement(QuestParser.WhileStatementContext ctx) {
+        WhileCodeStatement whileCodeStatement = new WhileCodeStatement();
+        whileCodeStatement.setCondition(operand(ctx.expression()));
+        whileCodeStatement.setBlock(operand(ctx.block()));
+        return whileCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitExpressionStatement(QuestParser.ExpressionStatementContext ctx) {
+        ExprStrCodeStatement exprStrCodeStatement = new ExprStrCodeStatement();
+        exprStrCodeStatement.setExpr(operand(ctx.expression()));
+        return exprStrCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitReturnStatement(QuestParser.ReturnStatementContext ctx) {
+        ReturnCodeStatement returnCodeStatement = new ReturnCodeStatement();
+        returnCodeStatement.setReturnValue(operand(ctx.expression()));
+        return returnCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitNoteStatement(QuestParser.NoteStatementContext ctx) {
+        NoteCodeStatement noteCodeStatement = new NoteCodeStatement();
+        noteCodeStatement.setNote(symbolPool.intern(ctx.inputTxt().IDENTIFIER().getText()));
+        return noteCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitBlock(QuestParser.BlockContext ctx) {
+        BlockCodeStatement blockCodeStatement = new BlockCodeStatement();
+        for (int i = base; i < operands.size(); i++) {
+            if (Objects.nonNull(operands.get(i))) {
+                blockCodeStatement.add(operands.get(i));
+            }
+        }
+        return blockCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitType(QuestParser.TypeContext ctx) {
+        TypeCodeStatement typeCodeStatement = new TypeCodeStatement();
+        typeCodeStatement.add(symbolPool.intern(ctx.getText()));
+        return typeCodeStatement;
+    }
+
+    @Override
+    public CodeStatement visitAssignmentExpr(QuestParser.AssignmentExprContext ctx) {
+        AssignmentExprCodeStatement statement = new AssignmentExprCodeStatement();
+        statement.setVariable(symbolPool.intern(ctx.IDENTIFIER().getText()));
+        statement.setAssignmentOperator(symbolPool.intern(ctx.assignmentOperator().getText()));
+        statement.setExpr(operand(ctx.expression()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitPrefixExpr(QuestParser.PrefixExprContext ctx) {
+        PrefixExprCodeStatement statement = new PrefixExprCodeStatement();
+        statement.setPrefix(symbolPool.intern(ctx.prefix.getText()));
+        statement.setExpr(operand(ctx.expression()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitArrayAccessExpr(QuestParser.ArrayAccessExprContext ctx) {
+        ArrayExprCodeStatement statement = new ArrayExprCodeStatement();
+        statement.setLeftExpr(operand(ctx.expression(0)));
+        statement.setRightExpr(operand(ctx.expression(1)));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitPrimaryExpr(QuestParser.PrimaryExprContext ctx) {
+        PrimaryExprCodeStatement statement = new PrimaryExprCodeStatement();
+
+        QuestParser.ExpressionContext expression = ctx.primary().expression();
+        if (Objects.nonNull(expression)) {
+            statement.setPrimary(String.format("(%s)", operand(expression).buildContent()));
+        } else {
+            statement.setPrimary(symbolPool.intern(ctx.getText()));
+        }
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitMethodInvokeExpr(QuestParser.MethodInvokeExprContext ctx) {
+        return operand(ctx.methodInvokeExpression());
+    }
+
+    @Override
+    public CodeStatement visitNewExpr(QuestParser.NewExprContext ctx) {
+        NewExprCodeStatement statement = new NewExprCodeStatement();
+        statement.setClassType(symbolPool.intern(ctx.classType().getText()));
+        // no parameter list : new Type()
+        statement.setArguments(ctx.parameterList() != null ? symbolPool.intern(ctx.parameterList().getText()) : "");
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitTernaryExpr(QuestParser.TernaryExprContext ctx) {
+        TernaryExprCodeStatement statement = new TernaryExprCodeStatement();
+        statement.setCondition(operand(ctx.expression(0)));
+        statement.setTrueExpr(operand(ctx.expression(1)));
+        statement.setFalseExpr(operand(ctx.expression(2)));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitCastExpr(QuestParser.CastExprContext ctx) {
+        CastExprCodeStatement statement = new CastExprCodeStatement();
+        statement.setCastType(symbolPool.intern(ctx.type().getText()));
+        statement.setExpr(operand(ctx.expression()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitBinaryExpr(QuestParser.BinaryExprContext ctx) {
+        BinaryExprCodeStatement statement = new BinaryExprCodeStatement();
+        statement.setLeftExpr(operand(ctx.expression(0)));
+        statement.setRightExpr(operand(ctx.expression(1)));
+        statement.setBinaryOperator(symbolPool.intern(ctx.bop.getText()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitPostfixExpr(QuestParser.PostfixExprContext ctx) {
+        PostFixExprCodeStatement statement = new PostFixExprCodeStatement();
+        statement.setPostfix(symbolPool.intern(ctx.postfix.getText()));
+        statement.setExpr(operand(ctx.expression()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitCurrentMethodInvokeExpr(QuestParser.CurrentMethodInvokeExprContext ctx) {
+        FunctionInvokeCodeStatement statement = new FunctionInvokeCodeStatement();
+        statement.setFunctionName(symbolPool.intern(ctx.IDENTIFIER().getText()));
+        // arguments(this arguments shouldn't find info)
+        statement.setArguments(ctx.argumentList() != null ? symbolPool.intern(ctx.argumentList().getText()) : "");
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitClassMethodInvokeExpr(QuestParser.ClassMethodInvokeExprContext ctx) {
+        ClassMethodInvokeExprCodeStatement statement = new ClassMethodInvokeExprCodeStatement();
+        statement.setClassName(symbolPool.intern(ctx.IDENTIFIER(0).getText()));
+        statement.setMethodName(symbolPool.intern(ctx.IDENTIFIER(1).getText()));
+        // arguments(this arguments shouldn't find info)
+        statement.setArguments(ctx.argumentList() != null ? symbolPool.intern(ctx.argumentList().getText()) : "");
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitAssignmentOperator(QuestParser.AssignmentOperatorContext ctx) {
+        return ctx.getChild(0).accept(this);
+    }
+
+    @Override
+    public CodeStatement visitForControlExpr(QuestParser.ForControlExprContext ctx) {
+        ForControlExprCodeStatement statement = new ForControlExprCodeStatement();
+        statement.setLeftExpr(operand(ctx.expression(0)));
+        statement.setRightExpr(operand(ctx.expression(1)));
+        statement.setConditionExpr(operand(ctx.expression(2)));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitForVariableDeclaration(QuestParser.ForVariableDeclarationContext ctx) {
+        ForVariableDeclCodeStatement statement = new ForVariableDeclCodeStatement();
+        statement.setVariableName(symbolPool.intern(ctx.IDENTIFIER(0).getText()));
+        statement.setVariableType(symbolPool.intern(ctx.classType().getText()));
+        statement.setVariableValue(symbolPool.intern(ctx.IDENTIFIER(1).getText()));
+        return statement;
+    }
+
+    @Override
+    public CodeStatement visitTerminal(TerminalNode node) {
+        int typeIndex = node.getSymbol().getType();
+
+        // ignore BACKQUOTE
+        if (QuestLexer.BACKQUOTE == typeIndex) {
+            return null;
+        }
+
+        TokenCodeStatement tokenCodeStatement = new TokenCodeStatement();
+        tokenCodeStatement.setTokenIndex(typeIndex);
+        tokenCodeStatement.setToken(QuestParser.VOCABULARY.getSymbolicName(typeIndex));
+        tokenCodeStatement.setValue(symbolPool.intern(node.getText()));
+        return tokenCodeStatement;
+    }
+}
@@ -0,0 +1,568 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * parse listener counterpart of {@link QuestStatementVisitor}
+ *
+ * <p>
+ * statements are built on rule exit while the parser runs with tree construction switched off , so no parse tree is
+ * kept and no second walk is needed. every finished rule leaves its value ( statement or text ) on a value stack
+ * together with its context , a rule exit takes the values whose context is a child of the exiting one , they are
+ * always on top since rules exit in post order. the parent links of left recursive expression contexts are fixed by
+ * the parser before the parent exits , so binary operands are found the same way.
+ * </p>
+ *
+ * <p>
+ * without tree construction rule contexts only hold their own tokens , texts of sub rules ( types , argument lists
+ * ...) are read from the token stream. expressions inside such rules are not built. the parser fires exit events
+ * while a failed SLL stage unwinds , so every rule is assembled null safe and the state is reset when the entry rule
+ * is entered again by the LL stage.
+ * </p>
+ *
+ * @author VD
+ */
+public abstract class QuestStatementListener<T extends QuestModule> extends QuestParserBaseListener {
+
+    /**
+     * symbol pool of the run
+     */
+    protected final SymbolPool symbolPool;
+
+    /**
+     * contexts of the values
+     */
+    private final List<ParserRuleContext> trees = new ArrayList<>();
+
+    /**
+     * values , {@link CodeStatement} or {@link String}
+     */
+    private final List<Object> values = new ArrayList<>();
+
+    /**
+     * first value of the rule being assembled
+     */
+    private int base;
+
+    /**
+     * nesting depth of text rules
+     */
+    private int textDepth;
+
+    /**
+     * token stream of the parser
+     */
+    private TokenStream tokens;
+
+    /**
+     * listener with its own symbol pool
+     */
+    protected QuestStatementListener() {
+        this(new SymbolPool(1));
+    }
+
+    /**
+     * @param symbolPool symbol pool of the run
+     */
+    protected QuestStatementListener(SymbolPool symbolPool) {
+        this.symbolPool = symbolPool;
+    }
+
+    /**
+     * 获取模块
+     *
+     * @return 模块 , complete once the entry rule returned
+     */
+    public abstract T getModule();
+
+    /**
+     * start a new script , the module built so far is dropped
+     */
+    protected abstract void reset();
+
+    /**
+     * attach to a parser and switch its tree construction off , the parser must not be positioned behind the entry
+     * rule yet
+     *
+     * @param parser parser
+     */
+    public void attach(QuestParser parser) {
+        tokens = parser.getTokenStream();
+        parser.setBuildParseTree(false);
+        parser.addParseListener(this);
+    }
+
+    @Override
+    public void enterEveryRule(ParserRuleContext ctx) {
+        if (ctx.getParent() == null) {
+            // entry rule , again after a failed SLL stage
+            trees.clear();
+            values.clear();
+            textDepth = 0;
+            reset();
+        }
+        if (isTextRule(ctx)) {
+            textDepth++;
+        }
+    }
+
+    @Override
+    public void exitEveryRule(ParserRuleContext ctx) {
+        if (textDepth > 0) {
+            if (isTextRule(ctx) && --textDepth == 0) {
+                push(ctx, symbolPool.intern(rangeText(ctx)));
+            }
+            return;
+        }
+        // values of sub rules the rule did not use
+        truncate(operandBase(ctx));
+    }
+
+    @Override
+    public void exitVariableStatement(QuestParser.VariableStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        VariableCodeStatement variableCodeStatement = new VariableCodeStatement();
+        variableCodeStatement.setVariableType(text(QuestParser.TypeContext.class));
+        variableCodeStatement.setVariableName(tokenText(ctx.IDENTIFIER()));
+        variableCodeStatement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, variableCodeStatement);
+    }
+
+    @Override
+    public void exitIfStatement(QuestParser.IfStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        IfCodeStatement ifCodeStatement = new IfCodeStatement();
+        ifCodeStatement.setCondition(operand(QuestParser.ExpressionContext.class, 0));
+        ifCodeStatement.setBlock(operand(QuestParser.BlockContext.class, 0));
+        if (ctx.ELSE() != null) {
+            ifCodeStatement.setElseBlock(operand(QuestParser.BlockContext.class, 1));
+        }
+        finish(ctx, ifCodeStatement);
+    }
+
+    @Override
+    public void exitForStatement(QuestParser.ForStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ForCodeStatement forCodeStatement = new ForCodeStatement();
+        forCodeStatement.setForControl(operand(QuestParser.ForControlContext.class, 0));
+        forCodeStatement.setForBlock(operand(QuestParser.BlockContext.class, 0));
+        finish(ctx, forCodeStatement);
+    }
+
+    @Override
+    public void exitWhileStatement(QuestParser.WhileStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        WhileCodeStatement whileCodeStatement = new WhileCodeStatement();
+        whileCodeStatement.setCondition(operand(QuestParser.ExpressionContext.class, 0));
+        whileCodeStatement.setBlock(operand(QuestParser.BlockContext.class, 0));
+        finish(ctx, whileCodeStatement);
+    }
+
+    @Override
+    public void exitExpressionStatement(QuestParser.ExpressionStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ExprStrCodeStatement exprStrCodeStatement = new ExprStrCodeStatement();
+        exprStrCodeStatement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, exprStrCodeStatement);
+    }
+
+    @Override
+    public void exitReturnStatement(QuestParser.ReturnStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ReturnCodeStatement returnCodeStatement = new ReturnCodeStatement();
+        returnCodeStatement.setReturnValue(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, returnCodeStatement);
+    }
+
+    @Override
+    public void exitNoteStatement(QuestParser.NoteStatementContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        NoteCodeStatement noteCodeStatement = new NoteCodeStatement();
+        noteCodeStatement.setNote(text(QuestParser.InputTxtContext.class));
+        finish(ctx, noteCodeStatement);
+    }
+
+    @Override
+    public void exitBlock(QuestParser.BlockContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        BlockCodeStatement blockCodeStatement = new BlockCodeStatement();
+        statements(blockCodeStatement);
+        finish(ctx, blockCodeStatement);
+    }
+
+    @Override
+    public void exitInputTxt(QuestParser.InputTxtContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        finish(ctx, tokenText(ctx.IDENTIFIER()));
+    }
+
+    @Override
+    public void exitAssignmentExpr(QuestParser.AssignmentExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        AssignmentExprCodeStatement statement = new AssignmentExprCodeStatement();
+        statement.setVariable(tokenText(ctx.IDENTIFIER()));
+        statement.setAssignmentOperator(text(QuestParser.AssignmentOperatorContext.class));
+        statement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitPrefixExpr(QuestParser.PrefixExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        PrefixExprCodeStatement statement = new PrefixExprCodeStatement();
+        statement.setPrefix(tokenText(ctx.prefix));
+        statement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitArrayAccessExpr(QuestParser.ArrayAccessExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ArrayExprCodeStatement statement = new ArrayExprCodeStatement();
+        statement.setLeftExpr(operand(QuestParser.ExpressionContext.class, 0));
+        statement.setRightExpr(operand(QuestParser.ExpressionContext.class, 1));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitPrimary(QuestParser.PrimaryContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ExpressionCodeStatement expression = operand(QuestParser.ExpressionContext.class, 0);
+        if (Objects.nonNull(expression)) {
+            // parenthesized expression
+            finish(ctx, String.format("(%s)", expression.buildContent()));
+        } else {
+            finish(ctx, symbolPool.intern(rangeText(ctx)));
+        }
+    }
+
+    @Override
+    public void exitPrimaryExpr(QuestParser.PrimaryExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        PrimaryExprCodeStatement statement = new PrimaryExprCodeStatement();
+        statement.setPrimary(text(QuestParser.PrimaryContext.class));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitMethodInvokeExpr(QuestParser.MethodInvokeExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        finish(ctx, operand(QuestParser.MethodInvokeExpressionContext.class, 0));
+    }
+
+    @Override
+    public void exitNewExpr(QuestParser.NewExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        NewExprCodeStatement statement = new NewExprCodeStatement();
+        statement.setClassType(text(QuestParser.ClassTypeContext.class));
+        // no parameter list : new Type()
+        statement.setArguments(Objects.toString(text(QuestParser.ParameterListContext.class), ""));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitTernaryExpr(QuestParser.TernaryExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        TernaryExprCodeStatement statement = new TernaryExprCodeStatement();
+        statement.setCondition(operand(QuestParser.ExpressionContext.class, 0));
+        statement.setTrueExpr(operand(QuestParser.ExpressionContext.class, 1));
+        statement.setFalseExpr(operand(QuestParser.ExpressionContext.class, 2));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitCastExpr(QuestParser.CastExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        CastExprCodeStatement statement = new CastExprCodeStatement();
+        statement.setCastType(text(QuestParser.TypeContext.class));
+        statement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitBinaryExpr(QuestParser.BinaryExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        BinaryExprCodeStatement statement = new BinaryExprCodeStatement();
+        statement.setLeftExpr(operand(QuestParser.ExpressionContext.class, 0));
+        statement.setRightExpr(operand(QuestParser.ExpressionContext.class, 1));
+        statement.setBinaryOperator(tokenText(ctx.bop));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitPostfixExpr(QuestParser.PostfixExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        PostFixExprCodeStatement statement = new PostFixExprCodeStatement();
+        statement.setPostfix(tokenText(ctx.postfix));
+        statement.setExpr(operand(QuestParser.ExpressionContext.class, 0));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitCurrentMethodInvokeExpr(QuestParser.CurrentMethodInvokeExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        FunctionInvokeCodeStatement statement = new FunctionInvokeCodeStatement();
+        statement.setFunctionName(tokenText(ctx.IDENTIFIER()));
+        // arguments(this arguments shouldn't find info)
+        statement.setArguments(Objects.toString(text(QuestParser.ArgumentListContext.class), ""));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitClassMethodInvokeExpr(QuestParser.ClassMethodInvokeExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ClassMethodInvokeExprCodeStatement statement = new ClassMethodInvokeExprCodeStatement();
+        statement.setClassName(tokenText(ctx.IDENTIFIER(0)));
+        statement.setMethodName(tokenText(ctx.IDENTIFIER(1)));
+        // arguments(this arguments shouldn't find info)
+        statement.setArguments(Objects.toString(text(QuestParser.ArgumentListContext.class), ""));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitForControlExpr(QuestParser.ForControlExprContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ForControlExprCodeStatement statement = new ForControlExprCodeStatement();
+        statement.setLeftExpr(operand(QuestParser.ExpressionContext.class, 0));
+        statement.setRightExpr(operand(QuestParser.ExpressionContext.class, 1));
+        statement.setConditionExpr(operand(QuestParser.ExpressionContext.class, 2));
+        finish(ctx, statement);
+    }
+
+    @Override
+    public void exitForVariableDeclaration(QuestParser.ForVariableDeclarationContext ctx) {
+        if (!begin(ctx)) {
+            return;
+        }
+        ForVariableDeclCodeStatement statement = new ForVariableDeclCodeStatement();
+        statement.setVariableName(tokenText(ctx.IDENTIFIER(0)));
+        statement.setVariableType(text(QuestParser.ClassTypeContext.class));
+        statement.setVariableValue(tokenText(ctx.IDENTIFIER(1)));
+        finish(ctx, statement);
+    }
+
+    /**
+     * start assembling a rule , the values of its sub rules are the top of the stack
+     *
+     * @param ctx exiting rule
+     * @return false inside a text rule , nothing is built there
+     */
+    protected boolean begin(ParserRuleContext ctx) {
+        if (textDepth > 0) {
+            return false;
+        }
+        base = operandBase(ctx);
+        return true;
+    }
+
+    /**
+     * replace the values of the sub rules with the value of the rule
+     *
+     * @param ctx   finished rule
+     * @param value statement or text , may be {@code null}
+     */
+    protected void finish(ParserRuleContext ctx, Object value) {
+        truncate(base);
+        if (value instanceof ExpressionCodeStatement) {
+            value = symbolPool.intern((ExpressionCodeStatement) value);
+        }
+        push(ctx, value);
+    }
+
+    /**
+     * statement value of a sub rule
+     *
+     * @param type  context type of the sub rule
+     * @param index index among the sub rules of that type
+     * @param <S>   statement type
+     * @return statement , {@code null} when the sub rule is missing ( error recovery )
+     */
+    @SuppressWarnings("unchecked")
+    protected <S extends CodeStatement> S operand(Class<? extends ParserRuleContext> type, int index) {
+        Object value = value(type, index);
+        return value instanceof CodeStatement ? (S) value : null;
+    }
+
+    /**
+     * text value of a sub rule
+     *
+     * @param type context type of the sub rule
+     * @return text , {@code null} when the sub rule is missing
+     */
+    protected String text(Class<? extends ParserRuleContext> type) {
+        Object value = value(type, 0);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * add the statement values of the sub rules in source order
+     *
+     * @param target block / process / function statement
+     */
+    protected void statements(CollectCodeStatement target) {
+        for (int i = base; i < values.size(); i++) {
+            if (trees.get(i) instanceof QuestParser.StatementContext && Objects.nonNull(values.get(i))) {
+                target.add((CodeStatement) values.get(i));
+            }
+        }
+    }
+
+    /**
+     * pooled text of a token
+     *
+     * @param node terminal node
+     * @return text , {@code null} when the token is missing
+     */
+    protected String tokenText(TerminalNode node) {
+        return node != null ? symbolPool.intern(node.getText()) : null;
+    }
+
+    /**
+     * pooled text of a token
+     *
+     * @param token token
+     * @return text , {@code null} when the token is missing
+     */
+    protected String tokenText(Token token) {
+        return token != null ? symbolPool.intern(token.getText()) : null;
+    }
+
+    /**
+     * rules kept as plain text
+     *
+     * @param ctx rule context
+     * @return true for types , argument / parameter lists , assignment operators and usage levels
+     */
+    private boolean isTextRule(ParserRuleContext ctx) {
+        return ctx instanceof QuestParser.TypeContext
+                || ctx instanceof QuestParser.ClassTypeContext
+                || ctx instanceof QuestParser.ArgumentListContext
+                || ctx instanceof QuestParser.ParameterListContext
+                || ctx instanceof QuestParser.AssignmentOperatorContext
+                || ctx instanceof QuestParser.UsageLevelContext;
+    }
+
+    /**
+     * text of a rule , same as {@code getText()} of its subtree
+     *
+     * @param ctx rule context
+     * @return token texts between start and stop
+     */
+    private String rangeText(ParserRuleContext ctx) {
+        Token start = ctx.getStart();
+        Token stop = ctx.getStop();
+        if (start == null || stop == null || stop.getTokenIndex() < start.getTokenIndex()) {
+            return "";
+        }
+        return tokens.getText(start, stop);
+    }
+
+    /**
+     * n-th value of the given context type from {@link #base}
+     *
+     * @param type  context type
+     * @param index index among the values of that type
+     * @return value , {@code null} when missing
+     */
+    private Object value(Class<? extends ParserRuleContext> type, int index) {
+        for (int i = base; i < values.size(); i++) {
+            if (type.isInstance(trees.get(i)) && index-- == 0) {
+                return values.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * first value whose context is a child of the given one
+     *
+     * @param ctx rule context
+     * @return index
+     */
+    private int operandBase(ParserRuleContext ctx) {
+        int i = trees.size();
+        while (i > 0 && trees.get(i - 1).getParent() == ctx) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * push a value
+     *
+     * @param ctx   rule context
+     * @param value value
+     */
+    private void push(ParserRuleContext ctx, Object value) {
+        trees.add(ctx);
+        values.add(value);
+    }
+
+    /**
+     * drop the values from an index on
+     *
+     * @param from index
+     */
+    private void truncate(int from) {
+        trees.subList(from, trees.size()).clear();
+        values.subList(from, values.size()).clear();
+    }
+}
@@ -1,7 +1,9 @@
 package cn.easygd.quest.engine.core;
 
 import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
 import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.statement.compact.CompactStatementTree;
 
 /**
  * @author VD
@@ -15,13 +17,73 @@ public class QuestVisitorManager {
      * @return visitor
      */
     public static QuestStatementVisitor<? extends QuestModule> findVisitor(KindType kindType) {
+        return findVisitor(kindType, false);
+    }
+
+    /**
+     * find visitor
+     *
+     * @param kindType kind type
+     * @param compact  keep statement trees array backed , see {@link CompactStatementTree}. prd / entity modules hold
+     *                 no statement trees yet and ignore it
+     * @return visitor
+     */
+    public static QuestStatementVisitor<? extends QuestModule> findVisitor(KindType kindType, boolean compact) {
+        return findVisitor(kindType, compact, new SymbolPool(1));
+    }
+
+    /**
+     * find visitor
+     *
+     * @param kindType   kind type
+     * @param compact    keep statement trees array backed
+     * @param symbolPool symbol pool of the run , shared by all visitors of the run
+     * @return visitor
+     */
+    public static QuestStatementVisitor<? extends QuestModule> findVisitor(KindType kindType, boolean compact,
+                                                                           SymbolPool symbolPool) {
+        return findVisitor(kindType, compact, false, symbolPool);
+    }
+
+    /**
+     * find visitor
+     *
+     * @param kindType   kind type
+     * @param compact    keep statement trees array backed
+     * @param lazy       keep process / function bodies as token ranges , see {@link LazyStatementBody}
+     * @param symbolPool symbol pool of the run , shared by all visitors of the run
+     * @return visitor
+     */
+    public static QuestStatementVisitor<? extends QuestModule> findVisitor(KindType kindType, boolean compact,
+                                                                           boolean lazy, SymbolPool symbolPool) {
+        switch (kindType) {
+            case SERVICE:
+                return new QuestServiceVisitor(compact, lazy, symbolPool);
+            case PRD:
+                return new QuestPrdVisitor(symbolPool);
+            case ENTITY:
+                return new QuestEntityVisitor(symbolPool);
+        }
+        return null;
+    }
+
+    /**
+     * find parse listener , statements are built while parsing , see {@link QuestStatementListener}
+     *
+     * @param kindType   kind type
+     * @param compact    keep statement trees array backed
+     * @param symbolPool symbol pool of the run , shared by all listeners of the run
+     * @return listener
+     */
+    public static QuestStatementListener<? extends QuestModule> findListener(KindType kindType, boolean compact,
+                                                                             SymbolPool symbolPool) {
         switch (kindType) {
             case SERVICE:
-                return new QuestServiceVisitor();
+                return new QuestServiceListener(compact, symbolPool);
             case PRD:
-                return new QuestPrdVisitor();
+                return new QuestPrdListener(symbolPool);
             case ENTITY:
-                return new QuestEntityVisitor();
+                return new QuestEntityListener(symbolPool);
         }
         return null;
     }
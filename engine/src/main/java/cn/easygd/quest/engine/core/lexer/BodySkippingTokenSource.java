@@ -0,0 +1,221 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.core.QuestParser;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+
+/**
+ * token source that drops the bodies of processes and functions
+ *
+ * <p>
+ * only the braces of a process body ( {@code process name { ... }} ) or function body ( {@code ... ) { ... }} inside
+ * the {@code function} module ) reach the parser , the tokens between them are lexed and dropped. the parser then
+ * sees empty bodies and the signature pass costs little more than lexing. the braces keep their indexes , so
+ * {@code LBRACE} / {@code RBRACE} of the rule context still give the body range for a later parse , see
+ * {@code LazyStatementBody}.
+ * </p>
+ *
+ * <p>
+ * lexer errors inside bodies are still reported , syntax errors only show up when a body is parsed. scripts whose
+ * header is not {@code @kind service;} pass through unchanged.
+ * </p>
+ *
+ * @author VD
+ */
+public class BodySkippingTokenSource implements TokenSource {
+
+    /**
+     * lexer
+     */
+    private final TokenSource delegate;
+
+    /**
+     * default channel tokens seen
+     */
+    private int count;
+
+    /**
+     * service script , bodies are dropped
+     */
+    private boolean armed;
+
+    /**
+     * type of the previous default channel token
+     */
+    private int previous = Token.INVALID_TYPE;
+
+    /**
+     * brace depth outside bodies
+     */
+    private int depth;
+
+    /**
+     * brace depth inside the function module , 0 outside
+     */
+    private int functionDepth;
+
+    /**
+     * process name seen , the next brace opens its body
+     */
+    private boolean processHeader;
+
+    /**
+     * the brace just returned opens a body
+     */
+    private boolean bodyOpened;
+
+    /**
+     * tokens dropped
+     */
+    private long skippedCount;
+
+    /**
+     * @param delegate lexer
+     */
+    public BodySkippingTokenSource(TokenSource delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * drop the bodies of the script the parser reads , call before the first token is fetched
+     *
+     * @param parser parser on a {@link CommonTokenStream}
+     * @return the token source
+     */
+    public static BodySkippingTokenSource attach(QuestParser parser) {
+        CommonTokenStream tokens = (CommonTokenStream) parser.getTokenStream();
+        BodySkippingTokenSource tokenSource = new BodySkippingTokenSource(tokens.getTokenSource());
+        tokens.setTokenSource(tokenSource);
+        parser.setTokenStream(tokens);
+        return tokenSource;
+    }
+
+    @Override
+    public Token nextToken() {
+        if (bodyOpened) {
+            bodyOpened = false;
+            return skipBody();
+        }
+        Token token = delegate.nextToken();
+        if (token.getChannel() != Token.DEFAULT_CHANNEL || token.getType() == Token.EOF) {
+            return token;
+        }
+        int type = token.getType();
+        // @kind service ;
+        if (++count == 3) {
+            armed = type == QuestLexer.SERVICE;
+        }
+        if (armed) {
+            track(type);
+        }
+        previous = type;
+        return token;
+    }
+
+    /**
+     * follow the braces outside bodies
+     */
+    private void track(int type) {
+        switch (type) {
+            case QuestLexer.PROCESS:
+                processHeader = depth == 0;
+                break;
+            case QuestLexer.LBRACE:
+                if (processHeader || (functionDepth > 0 && depth == functionDepth && previous == QuestLexer.RPAREN)) {
+                    processHeader = false;
+                    bodyOpened = true;
+                    return;
+                }
+                depth++;
+                if (depth == 1 && previous == QuestLexer.FUNCTION) {
+                    functionDepth = depth;
+                }
+                break;
+            case QuestLexer.RBRACE:
+                if (depth == functionDepth) {
+                    functionDepth = 0;
+                }
+                depth = Math.max(depth - 1, 0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * drop tokens up to the brace closing the body
+     *
+     * @return closing brace , {@code EOF} when the body is not closed
+     */
+    private Token skipBody() {
+        int nesting = 1;
+        while (true) {
+            Token token = delegate.nextToken();
+            int type = token.getType();
+            if (type == Token.EOF) {
+                return token;
+            }
+            if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                if (type == QuestLexer.LBRACE) {
+                    nesting++;
+                } else if (type == QuestLexer.RBRACE && --nesting == 0) {
+                    previous = type;
+                    return token;
+                }
+            }
+            skippedCount++;
+        }
+    }
+
+    /**
+     * tokens dropped so far
+     *
+     * @return count
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * the wrapped lexer
+     *
+     * @return lexer
+     */
+    public TokenSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int getLine() {
+        return delegate.getLine();
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return delegate.getCharPositionInLine();
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return delegate.getInputStream();
+    }
+
+    @Override
+    public String getSourceName() {
+        return delegate.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        delegate.setTokenFactory(factory);
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return delegate.getTokenFactory();
+    }
+}
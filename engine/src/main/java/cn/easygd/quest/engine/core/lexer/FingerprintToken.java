@@ -0,0 +1,40 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * token carrying the running fingerprint of the default channel tokens lexed up to it , see
+ * {@link FingerprintTokenFactory}
+ *
+ * @author VD
+ */
+public class FingerprintToken extends CommonToken {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * position among the fingerprinted tokens of the script
+     */
+    final int ordinal;
+
+    /**
+     * running hash before the token
+     */
+    final long before;
+
+    /**
+     * running hash including the token
+     */
+    final long after;
+
+    FingerprintToken(Pair<TokenSource, CharStream> source, int type, int channel, int start, int stop,
+                     int ordinal, long before, long after) {
+        super(source, type, channel, start, stop);
+        this.ordinal = ordinal;
+        this.before = before;
+        this.after = after;
+    }
+}
@@ -0,0 +1,193 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * token factory folding every default channel token into a running 64 bit hash while the lexer creates it
+ *
+ * <p>
+ * the hash of a token covers its type and , unless the type has one fixed spelling , its text. the running hash is a
+ * polynomial over the token hashes , a token keeps the value before and after itself , so the fingerprint of any
+ * token range ( a rule context from {@code start} to {@code stop} ) is computed from its two end tokens by
+ * {@link #fingerprint(Token, Token)} , without walking the tokens or the tree again. the result only depends on the
+ * tokens of the range : whitespace and comments are skipped by the lexer and do not count , and the same rule lexed
+ * at another position of another script has the same fingerprint. body tokens dropped by
+ * {@link BodySkippingTokenSource} are created , and hashed , before they are dropped.
+ * </p>
+ *
+ * <p>
+ * tokens conjured by the error recovery of the parser are plain tokens , ranges ending on them have no fingerprint.
+ * one factory serves one script at a time , call {@link #reset()} before the lexer reads the next one.
+ * </p>
+ *
+ * @author VD
+ */
+public class FingerprintTokenFactory implements TokenFactory<CommonToken> {
+
+    /**
+     * multiplier of the running hash , odd
+     */
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * seed of a token hash by type , odd
+     */
+    private static final long TYPE_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    /**
+     * FNV-1a prime for the text of a token
+     */
+    private static final long TEXT_PRIME = 0x100000001B3L;
+
+    /**
+     * types whose text is given by the type , by token type
+     */
+    private static final boolean[] FIXED_TEXT = new boolean[QuestLexer.VOCABULARY.getMaxTokenType() + 1];
+
+    static {
+        for (int type = 1; type < FIXED_TEXT.length; type++) {
+            FIXED_TEXT[type] = QuestLexer.VOCABULARY.getLiteralName(type) != null;
+        }
+    }
+
+    /**
+     * copy the text of every token from the input , needed for unbuffered char streams
+     */
+    private final boolean copyText;
+
+    /**
+     * fingerprinted tokens created since the last reset
+     */
+    private int count;
+
+    /**
+     * running hash
+     */
+    private long hash;
+
+    public FingerprintTokenFactory() {
+        this(false);
+    }
+
+    /**
+     * @param copyText copy the text of every token , not only the hashed ones , see
+     *                 {@link org.antlr.v4.runtime.CommonTokenFactory#copyText}
+     */
+    public FingerprintTokenFactory(boolean copyText) {
+        this.copyText = copyText;
+    }
+
+    /**
+     * start a new script
+     */
+    public void reset() {
+        count = 0;
+        hash = 0L;
+    }
+
+    @Override
+    public CommonToken create(Pair<TokenSource, CharStream> source, int type, String text, int channel,
+                              int start, int stop, int line, int charPositionInLine) {
+        CommonToken token;
+        // start < 0 : conjured by the parser
+        if (start < 0 || channel != Token.DEFAULT_CHANNEL) {
+            token = new CommonToken(source, type, channel, start, stop);
+        } else {
+            boolean fixed = isFixedText(type);
+            if (text == null && (copyText || !fixed) && source.b != null) {
+                text = source.b.getText(Interval.of(start, stop));
+            }
+            long before = hash;
+            hash = before * MULTIPLIER + hashToken(type, fixed ? null : text);
+            token = new FingerprintToken(source, type, channel, start, stop, count++, before, hash);
+        }
+        token.setLine(line);
+        token.setCharPositionInLine(charPositionInLine);
+        if (text != null) {
+            token.setText(text);
+        }
+        return token;
+    }
+
+    @Override
+    public CommonToken create(int type, String text) {
+        return new CommonToken(type, text);
+    }
+
+    /**
+     * fingerprint of the tokens from {@code start} to {@code stop} , both inclusive
+     *
+     * @param start first token of the range
+     * @param stop  last token of the range
+     * @return fingerprint , 0 when the tokens were not created by this factory or do not form a range
+     */
+    public static long fingerprint(Token start, Token stop) {
+        if (!(start instanceof FingerprintToken) || !(stop instanceof FingerprintToken)) {
+            return 0L;
+        }
+        FingerprintToken first = (FingerprintToken) start;
+        FingerprintToken last = (FingerprintToken) stop;
+        int length = last.ordinal - first.ordinal + 1;
+        if (length <= 0) {
+            return 0L;
+        }
+        long range = last.after - first.before * power(length);
+        long fingerprint = mix(range ^ length);
+        return fingerprint == 0L ? 1L : fingerprint;
+    }
+
+    /**
+     * whether the text of a token is given by its type
+     */
+    private static boolean isFixedText(int type) {
+        return type == Token.EOF || (type > 0 && type < FIXED_TEXT.length && FIXED_TEXT[type]);
+    }
+
+    /**
+     * hash of one token
+     */
+    private static long hashToken(int type, String text) {
+        long h = type * TYPE_SEED;
+        if (text != null) {
+            for (int i = 0; i < text.length(); i++) {
+                h = (h ^ text.charAt(i)) * TEXT_PRIME;
+            }
+        }
+        return mix(h);
+    }
+
+    /**
+     * {@link #MULTIPLIER} to the given power
+     */
+    private static long power(int exponent) {
+        long result = 1L;
+        long base = MULTIPLIER;
+        while (exponent > 0) {
+            if ((exponent & 1) != 0) {
+                result *= base;
+            }
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * 64 bit finaliser of murmur3
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,647 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * hand written replacement of {@link QuestLexer}
+ *
+ * <p>
+ * emits the same token types , text , indexes and positions as the generated lexer with a switch on the first char
+ * instead of simulating the lexer ATN per char. keywords and their chinese aliases are found by scanning the whole
+ * word first and probing a perfect hash table , the same longest match rule the generated lexer applies : a word is a
+ * keyword only when the whole ascii word / chinese run is one. chars that start no token are reported like the
+ * generated lexer reports them , including the char it swallows on recovery.
+ * </p>
+ *
+ * <p>
+ * the {@code Txt_Mode} rules of the grammar are not needed : {@code BACKQUOTE} and {@code TXT} match the same single
+ * char and {@code BACKQUOTE} is declared first , so the generated lexer never enters that mode either.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestFastLexer implements TokenSource {
+
+    /**
+     * keyword words , english and chinese
+     */
+    private static final String[] KEYWORD_WORDS = {
+            "kind", "类型", "service", "服务", "prd", "产品", "process", "逻辑", "function", "函数", "entity", "实体",
+            "requirement", "需求", "description", "描述", "business", "业务", "note", "注释",
+            "if", "alt", "如果", "else", "否则", "for", "loop", "循环", "while", "当", "return", "返回",
+            "byte", "short", "int", "Integer", "long", "Long", "float", "double", "char", "boolean", "Boolean",
+            "String", "void", "Void",
+            "extends", "继承", "super", "父类", "class", "类", "interface", "接口", "enum", "枚举",
+            "public", "共有", "protected", "受保护的", "private", "私有", "static", "静态", "abstract", "抽象",
+            "default", "默认", "final", "不可变", "implements", "实现", "override", "重写", "new", "新建",
+            "this", "本类", "null", "空", "true", "是", "false", "否"
+    };
+
+    /**
+     * token type of each keyword word
+     */
+    private static final int[] KEYWORD_TYPES = {
+            QuestLexer.KIND, QuestLexer.KIND, QuestLexer.SERVICE, QuestLexer.SERVICE, QuestLexer.PRD, QuestLexer.PRD,
+            QuestLexer.PROCESS, QuestLexer.PROCESS, QuestLexer.FUNCTION, QuestLexer.FUNCTION,
+            QuestLexer.ENTITY, QuestLexer.ENTITY,
+            QuestLexer.REQUIREMENT, QuestLexer.REQUIREMENT, QuestLexer.DESCRIPTION, QuestLexer.DESCRIPTION,
+            QuestLexer.BUSINESS, QuestLexer.BUSINESS, QuestLexer.NOTE, QuestLexer.NOTE,
+            QuestLexer.IF, QuestLexer.IF, QuestLexer.IF, QuestLexer.ELSE, QuestLexer.ELSE,
+            QuestLexer.FOR, QuestLexer.FOR, QuestLexer.FOR, QuestLexer.WHILE, QuestLexer.WHILE,
+            QuestLexer.RETURN, QuestLexer.RETURN,
+            QuestLexer.BYTE, QuestLexer.SHORT, QuestLexer.INT, QuestLexer.INT, QuestLexer.LONG, QuestLexer.LONG,
+            QuestLexer.FLOAT, QuestLexer.DOUBLE, QuestLexer.CHAR, QuestLexer.BOOLEAN, QuestLexer.BOOLEAN,
+            QuestLexer.STRING_TYPE, QuestLexer.VOID, QuestLexer.VOID,
+            QuestLexer.EXTENDS, QuestLexer.EXTENDS, QuestLexer.SUPER, QuestLexer.SUPER,
+            QuestLexer.CLASS, QuestLexer.CLASS, QuestLexer.INTERFACE, QuestLexer.INTERFACE,
+            QuestLexer.ENUM, QuestLexer.ENUM,
+            QuestLexer.PUBLIC, QuestLexer.PUBLIC, QuestLexer.PROTECTED, QuestLexer.PROTECTED,
+            QuestLexer.PRIVATE, QuestLexer.PRIVATE, QuestLexer.STATIC, QuestLexer.STATIC,
+            QuestLexer.ABSTRACT, QuestLexer.ABSTRACT,
+            QuestLexer.DEFAULT, QuestLexer.DEFAULT, QuestLexer.FINAL, QuestLexer.FINAL,
+            QuestLexer.IMPLEMENTS, QuestLexer.IMPLEMENTS, QuestLexer.OVERRIDE, QuestLexer.OVERRIDE,
+            QuestLexer.NEW, QuestLexer.NEW,
+            QuestLexer.THIS, QuestLexer.THIS, QuestLexer.NULL, QuestLexer.NULL,
+            QuestLexer.TRUE, QuestLexer.TRUE, QuestLexer.FALSE, QuestLexer.FALSE
+    };
+
+    /**
+     * replaced token text of each keyword word , null keeps the source text
+     */
+    private static final String[] KEYWORD_TEXTS = new String[KEYWORD_WORDS.length];
+
+    /**
+     * perfect hash table size , a power of two
+     */
+    private static final int TABLE_SIZE = 4096;
+
+    /**
+     * perfect hash table , keyword index + 1 for each slot , 0 when empty
+     */
+    private static final int[] KEYWORD_TABLE = new int[TABLE_SIZE];
+
+    /**
+     * hash seed without collisions on the keyword words
+     */
+    private static final int SEED;
+
+    static {
+        for (int i = 0; i < KEYWORD_WORDS.length; i++) {
+            String word = KEYWORD_WORDS[i];
+            // aliases with a setText action in the grammar ( chinese words , alt , loop ) carry the first word of
+            // their type , Integer / Long / Boolean / Void keep their own text
+            if (isChineseChar(word.charAt(0)) || "alt".equals(word) || "loop".equals(word)) {
+                KEYWORD_TEXTS[i] = firstWord(KEYWORD_TYPES[i]);
+            }
+        }
+        SEED = findSeed();
+    }
+
+    /**
+     * input
+     */
+    private final CharStream input;
+
+    /**
+     * token source / input pair of the created tokens
+     */
+    private final Pair<TokenSource, CharStream> tokenFactorySourcePair;
+
+    /**
+     * token factory
+     */
+    private TokenFactory<?> factory = CommonTokenFactory.DEFAULT;
+
+    /**
+     * error listeners
+     */
+    private final List<ANTLRErrorListener> errorListeners = new ArrayList<>();
+
+    /**
+     * current line , starts from 1
+     */
+    private int line = 1;
+
+    /**
+     * current position in line , starts from 0
+     */
+    private int charPositionInLine = 0;
+
+    public QuestFastLexer(CharStream input) {
+        this.input = input;
+        this.tokenFactorySourcePair = new Pair<>(this, input);
+        this.errorListeners.add(ConsoleErrorListener.INSTANCE);
+    }
+
+    @Override
+    public Token nextToken() {
+        while (true) {
+            int start = input.index();
+            int startLine = line;
+            int startCharPositionInLine = charPositionInLine;
+            int c = input.LA(1);
+
+            int type;
+            int length = 1;
+            String text = null;
+            switch (c) {
+                case IntStream.EOF:
+                    return factory.create(tokenFactorySourcePair, Token.EOF, null, Token.DEFAULT_CHANNEL,
+                            start, start - 1, line, charPositionInLine);
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\n':
+                    // NEWLINE never wins over WS , a whitespace run is one skipped token
+                    while (isWhitespace(input.LA(length + 1))) {
+                        length++;
+                    }
+                    advance(length);
+                    continue;
+                case '/':
+                    if (input.LA(2) == '/') {
+                        while (input.LA(length + 1) != '\r' && input.LA(length + 1) != '\n'
+                                && input.LA(length + 1) != IntStream.EOF) {
+                            length++;
+                        }
+                        advance(length);
+                        continue;
+                    }
+                    if (input.LA(2) == '*') {
+                        int commentLength = blockCommentLength();
+                        if (commentLength > 0) {
+                            advance(commentLength);
+                            continue;
+                        }
+                        // an unterminated comment falls back to '/'
+                        type = QuestLexer.DIV;
+                    } else if (input.LA(2) == '=') {
+                        type = QuestLexer.DIV_ASSIGN;
+                        length = 2;
+                    } else {
+                        type = QuestLexer.DIV;
+                    }
+                    break;
+                case '+':
+                    if (input.LA(2) == '+') {
+                        type = QuestLexer.INC;
+                        length = 2;
+                    } else if (input.LA(2) == '=') {
+                        type = QuestLexer.PLUS_ASSIGN;
+                        length = 2;
+                    } else {
+                        type = QuestLexer.PLUS;
+                    }
+                    break;
+                case '-':
+                    if (input.LA(2) == '-') {
+                        type = QuestLexer.DEC;
+                        length = 2;
+                    } else if (input.LA(2) == '=') {
+                        type = QuestLexer.MINUS_ASSIGN;
+                        length = 2;
+                    } else {
+                        type = QuestLexer.MINUS;
+                    }
+                    break;
+                case '*':
+                    type = input.LA(2) == '=' ? QuestLexer.MULT_ASSIGN : QuestLexer.MULT;
+                    length = type == QuestLexer.MULT ? 1 : 2;
+                    break;
+                case '%':
+                    type = input.LA(2) == '=' ? QuestLexer.MOD_ASSIGN : QuestLexer.MOD;
+                    length = type == QuestLexer.MOD ? 1 : 2;
+                    break;
+                case '=':
+                    type = input.LA(2) == '=' ? QuestLexer.EQ : QuestLexer.ASSIGN;
+                    length = type == QuestLexer.ASSIGN ? 1 : 2;
+                    break;
+                case '!':
+                    type = input.LA(2) == '=' ? QuestLexer.NEQ : QuestLexer.NOT;
+                    length = type == QuestLexer.NOT ? 1 : 2;
+                    break;
+                case '<':
+                    type = input.LA(2) == '=' ? QuestLexer.LE : QuestLexer.LT;
+                    length = type == QuestLexer.LT ? 1 : 2;
+                    break;
+                case '>':
+                    type = input.LA(2) == '=' ? QuestLexer.GE : QuestLexer.GT;
+                    length = type == QuestLexer.GT ? 1 : 2;
+                    break;
+                case '&':
+                case '|':
+                    if (input.LA(2) != c) {
+                        recognitionError(start, startLine, startCharPositionInLine, start + 1);
+                        continue;
+                    }
+                    type = c == '&' ? QuestLexer.AND : QuestLexer.OR;
+                    length = 2;
+                    break;
+                case '(':
+                    type = QuestLexer.LPAREN;
+                    break;
+                case ')':
+                    type = QuestLexer.RPAREN;
+                    break;
+                case '{':
+                    type = QuestLexer.LBRACE;
+                    break;
+                case '}':
+                    type = QuestLexer.RBRACE;
+                    break;
+                case '[':
+                    type = QuestLexer.LBRACK;
+                    break;
+                case ']':
+                    type = QuestLexer.RBRACK;
+                    break;
+                case ';':
+                    type = QuestLexer.SEMI;
+                    break;
+                case ':':
+                    type = QuestLexer.COLON;
+                    break;
+                case ',':
+                    type = QuestLexer.COMMA;
+                    break;
+                case '.':
+                    type = QuestLexer.DOT;
+                    break;
+                case '?':
+                    type = QuestLexer.QUESTION;
+                    break;
+                case '@':
+                    type = QuestLexer.AT;
+                    break;
+                case '`':
+                    type = QuestLexer.BACKQUOTE;
+                    break;
+                case '"':
+                    length = stringLength();
+                    if (length < 0) {
+                        recognitionError(start, startLine, startCharPositionInLine, start - length);
+                        continue;
+                    }
+                    type = QuestLexer.STRING;
+                    break;
+                default:
+                    if (c >= '0' && c <= '9') {
+                        length = numberLength();
+                        type = length > 0 ? QuestLexer.FLOAT_LITERAL : QuestLexer.INTEGER;
+                        length = Math.abs(length);
+                    } else if (isIdentifierStart(c) || isChineseChar(c)) {
+                        boolean chinese = isChineseChar(c);
+                        int hash = SEED;
+                        int next = c;
+                        length = 0;
+                        do {
+                            hash = hash(hash, next);
+                            length++;
+                            next = input.LA(length + 1);
+                        } while (chinese ? isChineseChar(next) : isIdentifierPart(next));
+
+                        int keyword = findKeyword(hash, length);
+                        if (keyword >= 0) {
+                            type = KEYWORD_TYPES[keyword];
+                            text = KEYWORD_TEXTS[keyword];
+                        } else {
+                            type = chinese && length == 1 ? QuestLexer.CHINESE_CHAR : QuestLexer.IDENTIFIER;
+                        }
+                    } else {
+                        recognitionError(start, startLine, startCharPositionInLine, start);
+                        continue;
+                    }
+                    break;
+            }
+
+            if (type == QuestLexer.STRING) {
+                advance(length);
+            } else {
+                // no other token spans a line
+                charPositionInLine += length;
+                input.seek(start + length);
+            }
+            return factory.create(tokenFactorySourcePair, type, text, Token.DEFAULT_CHANNEL,
+                    start, start + length - 1, startLine, startCharPositionInLine);
+        }
+    }
+
+    /**
+     * length of the block comment at the input , 0 when it is not terminated
+     */
+    private int blockCommentLength() {
+        // "/**/" ends a BLOCK_COMMENT , but DOC_COMMENT ( '/**' .*? '*/' ) only ends at the next "*/" and wins as
+        // the longer match when there is one
+        if (input.LA(3) == '*' && input.LA(4) == '/') {
+            int docLength = commentEnd(5);
+            return docLength > 0 ? docLength : 4;
+        }
+        return commentEnd(3);
+    }
+
+    /**
+     * length of the comment at the input up to its first closing star slash starting at or after an offset
+     *
+     * @param from offset the closing star slash may start at , as for {@link CharStream#LA(int)}
+     * @return length , 0 when there is none
+     */
+    private int commentEnd(int from) {
+        int i = from;
+        while (true) {
+            int c = input.LA(i);
+            if (c == IntStream.EOF) {
+                return 0;
+            }
+            if (c == '*' && input.LA(i + 1) == '/') {
+                return i + 1;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * length of the string literal at the input
+     *
+     * @return length , or the negative offset of the char where the literal fails
+     */
+    private int stringLength() {
+        int i = 2;
+        while (true) {
+            int c = input.LA(i);
+            if (c == '"') {
+                return i;
+            }
+            if (c == IntStream.EOF) {
+                return -(i - 1);
+            }
+            if (c == '\\') {
+                int escape = input.LA(i + 1);
+                if (escape == 'u') {
+                    for (int h = 2; h <= 5; h++) {
+                        if (!isHex(input.LA(i + h))) {
+                            return -(i + h - 1);
+                        }
+                    }
+                    i += 6;
+                    continue;
+                }
+                if (escape != '"' && escape != '\\' && escape != '/' && escape != 'b' && escape != 'f'
+                        && escape != 'n' && escape != 'r' && escape != 't') {
+                    return -i;
+                }
+                i += 2;
+                continue;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * length of the number literal at the input
+     *
+     * @return positive length of a FLOAT_LITERAL , negative length of an INTEGER
+     */
+    private int numberLength() {
+        int i = 1;
+        while (isDigit(input.LA(i + 1))) {
+            i++;
+        }
+        boolean fraction = false;
+        if (input.LA(i + 1) == '.' && isDigit(input.LA(i + 2))) {
+            fraction = true;
+            i += 2;
+            while (isDigit(input.LA(i + 1))) {
+                i++;
+            }
+        }
+        int e = input.LA(i + 1);
+        if (e == 'e' || e == 'E') {
+            int sign = input.LA(i + 2);
+            int exponentStart = sign == '+' || sign == '-' ? i + 3 : i + 2;
+            if (isDigit(input.LA(exponentStart))) {
+                i = exponentStart;
+                while (isDigit(input.LA(i + 1))) {
+                    i++;
+                }
+                return i;
+            }
+        }
+        return fraction ? i : -i;
+    }
+
+    /**
+     * report a token recognition error like the generated lexer and skip the failing text
+     *
+     * @param start     token start index
+     * @param failIndex index of the char the match failed on , it is swallowed too unless it is EOF
+     */
+    private void recognitionError(int start, int startLine, int startCharPositionInLine, int failIndex) {
+        String text = input.getText(Interval.of(start, failIndex));
+        String msg = "token recognition error at: '" + errorDisplay(text) + "'";
+        for (ANTLRErrorListener listener : errorListeners) {
+            listener.syntaxError(null, null, startLine, startCharPositionInLine, msg, null);
+        }
+        int skip = failIndex - start;
+        if (input.LA(skip + 1) != IntStream.EOF) {
+            skip++;
+        }
+        advance(skip);
+    }
+
+    /**
+     * consume chars and track the line / position , only '\n' starts a new line
+     */
+    private void advance(int count) {
+        for (int i = 0; i < count; i++) {
+            if (input.LA(1) == '\n') {
+                line++;
+                charPositionInLine = 0;
+            } else {
+                charPositionInLine++;
+            }
+            input.consume();
+        }
+    }
+
+    /**
+     * probe the perfect hash table
+     *
+     * @return keyword index , -1 when the word at the input is not a keyword
+     */
+    private int findKeyword(int hash, int length) {
+        int entry = KEYWORD_TABLE[finish(hash) & (TABLE_SIZE - 1)];
+        if (entry == 0) {
+            return -1;
+        }
+        String word = KEYWORD_WORDS[entry - 1];
+        if (word.length() != length) {
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != input.LA(i + 1)) {
+                return -1;
+            }
+        }
+        return entry - 1;
+    }
+
+    /**
+     * error text display , same escaping as {@link org.antlr.v4.runtime.Lexer#getErrorDisplay(String)}
+     */
+    private static String errorDisplay(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * hash step over one code point
+     */
+    private static int hash(int hash, int c) {
+        return (hash ^ c) * 0x01000193;
+    }
+
+    /**
+     * final mix of a hash
+     */
+    private static int finish(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    /**
+     * find a seed that puts every keyword word into its own slot and fill the table with it
+     */
+    private static int findSeed() {
+        for (int seed = 0x811c9dc5; ; seed++) {
+            Arrays.fill(KEYWORD_TABLE, 0);
+            boolean collision = false;
+            for (int i = 0; i < KEYWORD_WORDS.length && !collision; i++) {
+                int hash = seed;
+                String word = KEYWORD_WORDS[i];
+                for (int j = 0; j < word.length(); j++) {
+                    hash = hash(hash, word.charAt(j));
+                }
+                int slot = finish(hash) & (TABLE_SIZE - 1);
+                collision = KEYWORD_TABLE[slot] != 0;
+                KEYWORD_TABLE[slot] = i + 1;
+            }
+            if (!collision) {
+                return seed;
+            }
+        }
+    }
+
+    /**
+     * first word declared for a keyword type , always the english one
+     */
+    private static String firstWord(int type) {
+        for (int i = 0; i < KEYWORD_WORDS.length; i++) {
+            if (KEYWORD_TYPES[i] == type) {
+                return KEYWORD_WORDS[i];
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(int c) {
+        return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isIdentifierStart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isIdentifierPart(int c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+
+    private static boolean isChineseChar(int c) {
+        return c >= 0x4e00 && c <= 0x9fff;
+    }
+
+    /**
+     * add an error listener
+     *
+     * @param listener listener
+     */
+    public void addErrorListener(ANTLRErrorListener listener) {
+        errorListeners.add(listener);
+    }
+
+    /**
+     * remove all error listeners
+     */
+    public void removeErrorListeners() {
+        errorListeners.clear();
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return charPositionInLine;
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return input;
+    }
+
+    @Override
+    public String getSourceName() {
+        return input.getSourceName();
+    }
+
+    @Override
+    public void setTokenFactory(TokenFactory<?> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public TokenFactory<?> getTokenFactory() {
+        return factory;
+    }
+}
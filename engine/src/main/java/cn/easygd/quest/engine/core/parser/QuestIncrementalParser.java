@@ -0,0 +1,430 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * incremental parser of one service script
+ *
+ * <p>
+ * the top level process blocks and function definitions of the last script are kept with their char ranges. an
+ * update is diffed against the last script by common prefix / suffix , when the replaced text lies in a single block
+ * only that block is lexed and parsed again , every other block keeps its statement object and is only shifted.
+ * whitespace changes between blocks need no parsing at all as long as the text around them lexes to the same tokens ,
+ * and a parsed block must still end where the next token starts. anything else ( header changes , edits across
+ * blocks or around a block , a block that no longer parses on its own ) falls back to a full parse.
+ * </p>
+ *
+ * <p>
+ * a script with syntax errors leaves the state untouched , the next update is diffed against the last good script.
+ * not thread safe , keep one instance per edited script.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestIncrementalParser {
+
+    /**
+     * builds statements from block subtrees
+     */
+    private final QuestServiceVisitor builder = new QuestServiceVisitor();
+
+    /**
+     * top level blocks of the last good script , in source order
+     */
+    private final List<Block> blocks = new ArrayList<>();
+
+    /**
+     * last good script
+     */
+    private String script;
+
+    /**
+     * module of the last good script
+     */
+    private ServiceModule module;
+
+    /**
+     * full parses done
+     */
+    private long fullParseCount;
+
+    /**
+     * single block parses done
+     */
+    private long blockParseCount;
+
+    /**
+     * parse the whole script and forget the previous state
+     *
+     * @param script script content
+     * @return module , {@code null} when the script is not a valid service script
+     */
+    public ServiceModule parse(String script) {
+        fullParseCount++;
+        QuestParser parser = QuestParserPool.acquire(script);
+        ErrorCounter errorCounter = new ErrorCounter();
+        parser.addErrorListener(errorCounter);
+        ((Lexer) parser.getTokenStream().getTokenSource()).addErrorListener(errorCounter);
+
+        if (ScriptKindHelper.sniffScriptKind(parser.getTokenStream()) != KindType.SERVICE) {
+            return null;
+        }
+        QuestParser.ServiceScriptContext ctx = QuestScriptParser.parse(parser, QuestParser::serviceScript);
+        if (errorCounter.count > 0) {
+            return null;
+        }
+
+        // token indexes count code points , a script without surrogate pairs can use them as char indexes
+        boolean bmpOnly = parser.getTokenStream().getTokenSource().getInputStream().size() == script.length();
+        List<Block> parsedBlocks = new ArrayList<>();
+        QuestParser.ServiceModuleContext serviceModule = ctx.serviceModule();
+        for (QuestParser.ProcessModuleContext process : serviceModule.processModule()) {
+            parsedBlocks.add(new Block(process, builder.buildProcessStatement(process), script, bmpOnly, 0));
+        }
+        if (serviceModule.functionModule() != null) {
+            for (QuestParser.FunctionDefinitionContext function : serviceModule.functionModule().functionDefinition()) {
+                parsedBlocks.add(new Block(function, builder.buildFunctionStatement(function), script, bmpOnly, 0));
+            }
+        }
+
+        this.script = script;
+        this.blocks.clear();
+        this.blocks.addAll(parsedBlocks);
+        this.module = new ServiceModule();
+        this.module.setBizModule(serviceModule.bizModule().inputTxt().IDENTIFIER().getText());
+        fillModule();
+        return module;
+    }
+
+    /**
+     * update to a new version of the script , only the changed block is parsed again when possible
+     *
+     * @param newScript new script content
+     * @return module , {@code null} when the new script is not a valid service script
+     */
+    public ServiceModule update(String newScript) {
+        if (script == null) {
+            return parse(newScript);
+        }
+        if (script.equals(newScript)) {
+            return module;
+        }
+
+        // changed range : [prefix , oldEnd) in the old script , [prefix , newEnd) in the new one
+        int oldLength = script.length();
+        int newLength = newScript.length();
+        int maxLength = Math.min(oldLength, newLength);
+        int prefix = 0;
+        while (prefix < maxLength && script.charAt(prefix) == newScript.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxLength - prefix
+                && script.charAt(oldLength - 1 - suffix) == newScript.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+        int oldEnd = oldLength - suffix;
+        int newEnd = newLength - suffix;
+        int delta = newLength - oldLength;
+
+        // blocks touched by the change , adjacent edits count as touching
+        int first = -1;
+        int touched = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (prefix <= block.stop + 1 && oldEnd >= block.start) {
+                if (first < 0) {
+                    first = i;
+                }
+                touched++;
+            }
+        }
+
+        if (touched == 0) {
+            // whitespace between blocks , unless it splits or joins a token as in `func tion` or sits in a comment
+            if (prefix >= blocks.get(0).start && isWhitespace(script, prefix, oldEnd)
+                    && isWhitespace(newScript, prefix, newEnd) && sameGapTokens(newScript, prefix, delta)) {
+                shiftBlocks(0, oldEnd, delta);
+                script = newScript;
+                return module;
+            }
+            return parse(newScript);
+        }
+        // the replaced text must lie in the block , a change reaching the text around it ( as the braces of the
+        // function module ) would not be seen by parsing the block alone
+        Block block = blocks.get(first);
+        if (touched > 1 || prefix < block.start || oldEnd > block.stop + 1
+                || !reparseBlock(first, newScript, oldEnd, delta)) {
+            return parse(newScript);
+        }
+        return module;
+    }
+
+    /**
+     * parse one block again from the new script
+     *
+     * @return whether the region still is exactly one block of the same kind
+     */
+    private boolean reparseBlock(int index, String newScript, int oldEnd, int delta) {
+        Block block = blocks.get(index);
+        int regionStart = block.start;
+        int regionEnd = block.stop + 1 + delta;
+        String region = newScript.substring(regionStart, regionEnd);
+
+        blockParseCount++;
+        QuestParser parser = QuestParserPool.acquire(region);
+        QuestLexer lexer = (QuestLexer) parser.getTokenStream().getTokenSource();
+        ErrorCounter errorCounter = new ErrorCounter();
+        parser.removeErrorListeners();
+        parser.addErrorListener(errorCounter);
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorCounter);
+
+        ParserRuleContext ctx = block.statement instanceof ProcessCodeStatement
+                ? QuestScriptParser.parse(parser, QuestParser::processModule)
+                : QuestScriptParser.parse(parser, QuestParser::functionDefinition);
+
+        // the block must end the region and leave the lexer in the default mode , otherwise the text after it
+        // would be lexed differently in the whole script
+        if (errorCounter.count > 0 || parser.getTokenStream().LA(1) != Token.EOF
+                || lexer._mode != Lexer.DEFAULT_MODE || !lexer._modeStack.isEmpty()) {
+            return false;
+        }
+
+        // the last token of the block must also end at the region end in the whole script , a line comment typed
+        // right after the closing brace would swallow the rest of the line
+        int tokenCount = ((BufferedTokenStream) parser.getTokenStream()).size() - 1;
+        if (!sameTokenAfter(index, newScript, tokenCount, delta)) {
+            return false;
+        }
+
+        CollectCodeStatement statement = ctx instanceof QuestParser.ProcessModuleContext
+                ? builder.buildProcessStatement((QuestParser.ProcessModuleContext) ctx)
+                : builder.buildFunctionStatement((QuestParser.FunctionDefinitionContext) ctx);
+        boolean bmpOnly = parser.getTokenStream().getTokenSource().getInputStream().size() == region.length();
+
+        shiftBlocks(index + 1, oldEnd, delta);
+        blocks.set(index, new Block(ctx, statement, region, bmpOnly, regionStart));
+        script = newScript;
+        fillModule();
+        return true;
+    }
+
+    /**
+     * whether the gap around a whitespace change between two blocks lexes to the same tokens as before , the gap is
+     * lexed from the end of the block before it through the block after it ( or the end of the script )
+     */
+    private boolean sameGapTokens(String newScript, int prefix, int delta) {
+        int previous = 0;
+        while (previous + 1 < blocks.size() && blocks.get(previous + 1).stop < prefix) {
+            previous++;
+        }
+        int from = blocks.get(previous).stop + 1;
+        int oldTo = previous + 1 < blocks.size() ? blocks.get(previous + 1).stop + 1 : script.length();
+        List<Token> oldTokens = lex(script, from, oldTo, Integer.MAX_VALUE);
+        List<Token> newTokens = lex(newScript, from, oldTo + delta, Integer.MAX_VALUE);
+        if (oldTokens == null || newTokens == null || oldTokens.size() != newTokens.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldTokens.size(); i++) {
+            Token oldToken = oldTokens.get(i);
+            Token newToken = newTokens.get(i);
+            if (oldToken.getType() != newToken.getType() || !oldToken.getText().equals(newToken.getText())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * whether the first token after a parsed block starts where it started before the change , lexed in the whole
+     * script : from the block start in the new script and from the block end in the old one , both up to the end of
+     * the next block
+     *
+     * @param tokenCount tokens of the block lexed on its own
+     */
+    private boolean sameTokenAfter(int index, String newScript, int tokenCount, int delta) {
+        Block block = blocks.get(index);
+        int oldFrom = block.stop + 1;
+        int oldTo = index + 1 < blocks.size() ? blocks.get(index + 1).stop + 1 : script.length();
+        List<Token> oldTokens = lex(script, oldFrom, oldTo, 1);
+        List<Token> newTokens = lex(newScript, block.start, oldTo + delta, tokenCount + 1);
+        if (oldTokens == null || newTokens == null) {
+            return false;
+        }
+        int oldStart = oldTokens.isEmpty() ? oldTo : oldFrom + charIndex(script, oldFrom, oldTokens.get(0));
+        int newStart = newTokens.size() <= tokenCount
+                ? oldTo + delta : block.start + charIndex(newScript, block.start, newTokens.get(tokenCount));
+        return newStart == oldStart + delta;
+    }
+
+    /**
+     * lex a char range of a script on its own , starting in the default mode
+     *
+     * @param limit tokens to read at most
+     * @return tokens without EOF , {@code null} on lexer errors
+     */
+    private static List<Token> lex(String text, int from, int to, int limit) {
+        QuestLexer lexer = new QuestLexer(CharStreams.fromString(text.substring(from, to)));
+        ErrorCounter errorCounter = new ErrorCounter();
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorCounter);
+        List<Token> tokens = new ArrayList<>();
+        while (tokens.size() < limit) {
+            Token token = lexer.nextToken();
+            if (token.getType() == Token.EOF) {
+                break;
+            }
+            tokens.add(token);
+        }
+        return errorCounter.count > 0 ? null : tokens;
+    }
+
+    /**
+     * char offset of a token lexed from {@code text.substring(from)} , token indexes count code points
+     */
+    private static int charIndex(String text, int from, Token token) {
+        return text.offsetByCodePoints(from, token.getStartIndex()) - from;
+    }
+
+    /**
+     * shift the blocks after the change
+     */
+    private void shiftBlocks(int from, int oldEnd, int delta) {
+        for (int i = from; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (block.start >= oldEnd) {
+                block.start += delta;
+                block.stop += delta;
+            }
+        }
+    }
+
+    /**
+     * rebuild the statement maps from the blocks , later blocks win as in {@link QuestServiceVisitor}
+     */
+    private void fillModule() {
+        ServiceModule serviceModule = new ServiceModule();
+        serviceModule.setBizModule(module.getBizModule());
+        for (Block block : blocks) {
+            if (block.statement instanceof ProcessCodeStatement) {
+                ProcessCodeStatement process = (ProcessCodeStatement) block.statement;
+                serviceModule.putProcessStatement(process.getName(), process);
+            } else {
+                FunctionCodeStatement function = (FunctionCodeStatement) block.statement;
+                serviceModule.putFunctionStatement(function.getName(), function);
+            }
+        }
+        module = serviceModule;
+    }
+
+    /**
+     * whether a char range only holds whitespace skipped by the lexer
+     */
+    private static boolean isWhitespace(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * module of the last good script
+     *
+     * @return module
+     */
+    public ServiceModule getModule() {
+        return module;
+    }
+
+    /**
+     * full parses done
+     *
+     * @return count
+     */
+    public long getFullParseCount() {
+        return fullParseCount;
+    }
+
+    /**
+     * single block parses done
+     *
+     * @return count
+     */
+    public long getBlockParseCount() {
+        return blockParseCount;
+    }
+
+    /**
+     * one top level process block or function definition
+     */
+    private static class Block {
+
+        /**
+         * first char index , inclusive
+         */
+        private int start;
+
+        /**
+         * last char index , inclusive
+         */
+        private int stop;
+
+        /**
+         * statement built from the block
+         */
+        private final CollectCodeStatement statement;
+
+        Block(ParserRuleContext ctx, CollectCodeStatement statement, String text, boolean bmpOnly, int offset) {
+            this.start = offset + charIndex(text, ctx.getStart().getStartIndex(), bmpOnly);
+            this.stop = offset + charIndex(text, ctx.getStop().getStopIndex(), bmpOnly);
+            this.statement = statement;
+        }
+
+        /**
+         * convert a code point index of the char stream to a char index of the text
+         */
+        private static int charIndex(String text, int codePointIndex, boolean bmpOnly) {
+            return bmpOnly ? codePointIndex : text.offsetByCodePoints(0, codePointIndex);
+        }
+    }
+
+    /**
+     * counts lexer and parser errors
+     */
+    private static class ErrorCounter extends BaseErrorListener {
+
+        /**
+         * error count
+         */
+        private int count;
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.core.lexer.QuestFastLexer;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ConsoleErrorListener;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * per thread lexer / parser pool
+ *
+ * <p>
+ * every worker thread keeps one {@link QuestLexer} , {@link CommonTokenStream} and {@link QuestParser}, they are
+ * reset with {@code setInputStream} / {@code setTokenStream} for each script instead of being allocated again.
+ * the prediction DFA is static in the generated recognizers and shared by all threads , so {@link #warmUp()} fills
+ * it once from the bundled sample scripts.
+ * </p>
+ *
+ * <p>
+ * {@link #acquire(CharStream, boolean)} can lex the script with the hand written {@link QuestFastLexer} instead of the
+ * generated lexer , it emits the same tokens. the fast lexer holds its input , a new one is created for every script.
+ * </p>
+ *
+ * <p>
+ * a parser returned by {@link #acquire(CharStream)} is only valid until the next acquire on the same thread.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestParserPool {
+
+    /**
+     * 日志
+     */
+    private static final Logger log = LoggerFactory.getLogger(QuestParserPool.class);
+
+    /**
+     * bundled warm up scripts
+     */
+    private static final String[] WARM_UP_SCRIPTS = {
+            "quest/warmup/service.quest",
+            "quest/warmup/prd.quest",
+            "quest/warmup/entity.quest"
+    };
+
+    /**
+     * warm up flag
+     */
+    private static final AtomicBoolean WARMED_UP = new AtomicBoolean(false);
+
+    /**
+     * per thread recognizers
+     */
+    private static final ThreadLocal<Recognizers> RECOGNIZERS = ThreadLocal.withInitial(Recognizers::new);
+
+    /**
+     * acquire the parser of the current thread , reset to read the given input
+     *
+     * @param input char stream
+     * @return parser
+     */
+    public static QuestParser acquire(CharStream input) {
+        return acquire(input, false);
+    }
+
+    /**
+     * acquire the parser of the current thread , reset to read the given input
+     *
+     * @param input     char stream
+     * @param fastLexer lex with {@link QuestFastLexer} instead of the generated {@link QuestLexer}
+     * @return parser
+     */
+    public static QuestParser acquire(CharStream input, boolean fastLexer) {
+        Recognizers recognizers = RECOGNIZERS.get();
+        recognizers.reset(input, fastLexer);
+        return recognizers.parser;
+    }
+
+    /**
+     * acquire the parser of the current thread , reset to read the given script
+     *
+     * @param script script content
+     * @return parser
+     */
+    public static QuestParser acquire(String script) {
+        return acquire(CharStreams.fromString(script));
+    }
+
+    /**
+     * warm up the shared DFA with the bundled scripts , only the first call does the work
+     */
+    public static void warmUp() {
+        if (!WARMED_UP.compareAndSet(false, true)) {
+            return;
+        }
+        ClassLoader classLoader = QuestParserPool.class.getClassLoader();
+        for (String script : WARM_UP_SCRIPTS) {
+            try (InputStream inputStream = classLoader.getResourceAsStream(script)) {
+                if (inputStream == null) {
+                    continue;
+                }
+                QuestParser parser = acquire(CharStreams.fromStream(inputStream, StandardCharsets.UTF_8));
+                parser.removeErrorListeners();
+                QuestScriptParser.parse(parser, QuestParser::script);
+            } catch (Exception e) {
+                log.warn("warm up fail , script : [{}]", script, e);
+            }
+        }
+    }
+
+    /**
+     * lexer / parser pair of one thread
+     */
+    private static class Recognizers {
+
+        /**
+         * lexer
+         */
+        private final QuestLexer lexer;
+
+        /**
+         * token factory of the lexer , fingerprints the tokens of the script
+         */
+        private final FingerprintTokenFactory tokenFactory;
+
+        /**
+         * token stream
+         */
+        private final CommonTokenStream tokens;
+
+        /**
+         * parser
+         */
+        private final QuestParser parser;
+
+        Recognizers() {
+            lexer = new QuestLexer(null);
+            tokenFactory = new FingerprintTokenFactory();
+            tokens = new CommonTokenStream(lexer);
+            parser = new QuestParser(tokens);
+        }
+
+        /**
+         * reset for a new input , settings changed by the previous user are restored
+         *
+         * @param input     char stream
+         * @param fastLexer lex with a new {@link QuestFastLexer} instead of the pooled lexer
+         */
+        void reset(CharStream input, boolean fastLexer) {
+            tokenFactory.reset();
+            TokenSource tokenSource;
+            if (fastLexer) {
+                // reports to the console like a new lexer
+                QuestFastLexer questFastLexer = new QuestFastLexer(input);
+                questFastLexer.setTokenFactory(tokenFactory);
+                tokenSource = questFastLexer;
+            } else {
+                lexer.setInputStream(input);
+                lexer.setTokenFactory(tokenFactory);
+                lexer.removeErrorListeners();
+                lexer.addErrorListener(ConsoleErrorListener.INSTANCE);
+                tokenSource = lexer;
+            }
+
+            tokens.setTokenSource(tokenSource);
+
+            parser.setTokenStream(tokens);
+            parser.removeErrorListeners();
+            parser.addErrorListener(ConsoleErrorListener.INSTANCE);
+            parser.removeParseListeners();
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.setBuildParseTree(true);
+            parser.setProfile(false);
+            parser.setTrace(false);
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.enums.KindType;
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * shared parse routine for quest scripts
+ *
+ * <p>
+ * every script is parsed with {@link PredictionMode#SLL} and a {@link BailErrorStrategy} first, only when that
+ * stage fails the token stream is rewound and parsed again with full {@link PredictionMode#LL} prediction and the
+ * error strategy / listeners the caller configured. valid scripts almost never need the second stage.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestScriptParser {
+
+    /**
+     * scripts finished by the SLL stage
+     */
+    private static final AtomicLong SLL_COUNT = new AtomicLong();
+
+    /**
+     * scripts that fell back to the LL stage
+     */
+    private static final AtomicLong LL_FALLBACK_COUNT = new AtomicLong();
+
+    /**
+     * parse script content
+     *
+     * @param script script content
+     * @return script context
+     */
+    public static QuestParser.ScriptContext parse(String script) {
+        return parse(CharStreams.fromString(script));
+    }
+
+    /**
+     * parse char stream with the parser of the current thread
+     *
+     * @param input char stream
+     * @return script context
+     */
+    public static QuestParser.ScriptContext parse(CharStream input) {
+        return parse(QuestParserPool.acquire(input), QuestParser::script);
+    }
+
+    /**
+     * parse with the kind specific entry rule , the kind is usually sniffed from the header tokens
+     *
+     * @param parser   parser
+     * @param kindType kind type
+     * @return rule context , {@code null} when the kind has no entry rule
+     * @throws IllegalArgumentException when the kind is {@code null} , a script without a valid kind declaration must
+     *                                  be reported by the caller or parsed with {@link QuestParser#script()}
+     */
+    public static ParserRuleContext parse(QuestParser parser, KindType kindType) {
+        if (kindType == null) {
+            throw new IllegalArgumentException("kind type is null , the script has no valid @kind declaration");
+        }
+        switch (kindType) {
+            case SERVICE:
+                return parse(parser, QuestParser::serviceScript);
+            case PRD:
+                return parse(parser, QuestParser::prdScript);
+            case ENTITY:
+                return parse(parser, QuestParser::entityScript);
+        }
+        return null;
+    }
+
+    /**
+     * parse with the given parser and entry rule
+     *
+     * <p>
+     * error listeners and error strategy configured on the parser are only used by the LL stage.
+     * </p>
+     *
+     * @param parser    parser
+     * @param entryRule entry rule
+     * @param <T>       rule context type
+     * @return rule context
+     */
+    public static <T extends ParserRuleContext> T parse(QuestParser parser, Function<QuestParser, T> entryRule) {
+        ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+        List<? extends ANTLRErrorListener> errorListeners = new ArrayList<>(parser.getErrorListeners());
+        PredictionMode predictionMode = parser.getInterpreter().getPredictionMode();
+        // a fresh token stream reports -1 until the first token is fetched
+        int startIndex = Math.max(parser.getTokenStream().index(), 0);
+
+        // stage 1 : SLL , bail out on the first error
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.removeErrorListeners();
+        try {
+            T ctx = entryRule.apply(parser);
+            SLL_COUNT.incrementAndGet();
+            return ctx;
+        } catch (ParseCancellationException e) {
+            LL_FALLBACK_COUNT.incrementAndGet();
+        } finally {
+            parser.setErrorHandler(errorHandler);
+            errorListeners.forEach(parser::addErrorListener);
+            parser.getInterpreter().setPredictionMode(predictionMode);
+        }
+
+        // stage 2 : full LL with the caller's error handling
+        parser.reset();
+        parser.getTokenStream().seek(startIndex);
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        try {
+            return entryRule.apply(parser);
+        } finally {
+            parser.getInterpreter().setPredictionMode(predictionMode);
+        }
+    }
+
+    /**
+     * scripts finished by the SLL stage
+     *
+     * @return count
+     */
+    public static long getSllCount() {
+        return SLL_COUNT.get();
+    }
+
+    /**
+     * scripts that fell back to the LL stage
+     *
+     * @return count
+     */
+    public static long getFallbackCount() {
+        return LL_FALLBACK_COUNT.get();
+    }
+
+    /**
+     * reset statistics
+     */
+    public static void resetStatistics() {
+        SLL_COUNT.set(0);
+        LL_FALLBACK_COUNT.set(0);
+    }
+}
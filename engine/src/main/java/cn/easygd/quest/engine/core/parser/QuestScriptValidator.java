@@ -0,0 +1,53 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.CharStream;
+
+/**
+ * syntax only validation of quest scripts
+ *
+ * <p>
+ * the script is parsed without building a parse tree and no visitor runs. valid scripts finish in the SLL stage of
+ * {@link QuestScriptParser} , only scripts with errors are parsed again in LL so that the reported errors are exact.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestScriptValidator {
+
+    /**
+     * validate a script
+     *
+     * @param input char stream , its source name is used in the errors
+     * @return validation result
+     */
+    public static QuestValidationResult validate(CharStream input) {
+        return validate(input, false);
+    }
+
+    /**
+     * validate a script
+     *
+     * @param input     char stream , its source name is used in the errors
+     * @param fastLexer lex with {@link cn.easygd.quest.engine.core.lexer.QuestFastLexer} , see
+     *                  {@link QuestParserPool#acquire(CharStream, boolean)}
+     * @return validation result
+     */
+    public static QuestValidationResult validate(CharStream input, boolean fastLexer) {
+        QuestParser parser = QuestParserPool.acquire(input, fastLexer);
+        SyntaxErrorCollector collector = new SyntaxErrorCollector(input.getSourceName());
+        collector.attach(parser);
+        parser.setBuildParseTree(false);
+
+        KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+        if (kind == null) {
+            // the generic entry rule reports what is wrong with the kind declaration
+            QuestScriptParser.parse(parser, QuestParser::script);
+        } else {
+            QuestScriptParser.parse(parser, kind);
+        }
+        return new QuestValidationResult(input.getSourceName(), kind, collector.getErrors());
+    }
+}
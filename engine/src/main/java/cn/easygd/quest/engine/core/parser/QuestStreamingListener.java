@@ -0,0 +1,180 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.QuestParserBaseListener;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.function.Consumer;
+
+/**
+ * parse listener of the streaming mode
+ *
+ * <p>
+ * the parser runs with tree construction switched off , when an element ( {@code processModule} ,
+ * {@code functionDefinition} ) is entered tree construction is switched on for its subtree only , on exit the
+ * subtree is turned into a {@link CodeStatement} , handed to the consumer and dropped. the element context is never
+ * attached to its parent , so at most one element is held in memory.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestStreamingListener extends QuestParserBaseListener {
+
+    /**
+     * parser
+     */
+    private final Parser parser;
+
+    /**
+     * kind of the script
+     */
+    private final KindType kind;
+
+    /**
+     * downstream of finished elements
+     */
+    private final Consumer<CodeStatement> consumer;
+
+    /**
+     * builds statements from the element subtree
+     */
+    private final QuestServiceVisitor builder = new QuestServiceVisitor();
+
+    /**
+     * element being built
+     */
+    private ParserRuleContext element;
+
+    /**
+     * syntax errors reported before the element was entered
+     */
+    private int errorsBeforeElement;
+
+    /**
+     * biz module name
+     */
+    private String bizModule;
+
+    /**
+     * code points read up to the end of the script , -1 until the script rule has finished
+     */
+    private int length = -1;
+
+    public QuestStreamingListener(Parser parser, KindType kind, Consumer<CodeStatement> consumer) {
+        this.parser = parser;
+        this.kind = kind;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void enterProcessModule(QuestParser.ProcessModuleContext ctx) {
+        enterElement(ctx);
+    }
+
+    @Override
+    public void exitProcessModule(QuestParser.ProcessModuleContext ctx) {
+        if (exitElement()) {
+            consumer.accept(builder.buildProcessStatement(ctx));
+        }
+    }
+
+    @Override
+    public void enterFunctionDefinition(QuestParser.FunctionDefinitionContext ctx) {
+        enterElement(ctx);
+    }
+
+    @Override
+    public void exitFunctionDefinition(QuestParser.FunctionDefinitionContext ctx) {
+        if (exitElement()) {
+            consumer.accept(builder.buildFunctionStatement(ctx));
+        }
+    }
+
+    @Override
+    public void exitInputTxt(QuestParser.InputTxtContext ctx) {
+        // tokens of a rule are attached to its context even without tree construction
+        if (element == null && ctx.getParent() instanceof QuestParser.BizModuleContext) {
+            bizModule = ctx.IDENTIFIER().getText();
+        }
+    }
+
+    @Override
+    public void exitServiceScript(QuestParser.ServiceScriptContext ctx) {
+        exitScript(ctx);
+    }
+
+    @Override
+    public void exitPrdScript(QuestParser.PrdScriptContext ctx) {
+        exitScript(ctx);
+    }
+
+    @Override
+    public void exitEntityScript(QuestParser.EntityScriptContext ctx) {
+        exitScript(ctx);
+    }
+
+    /**
+     * the last token of a script rule is EOF , it starts right after the last code point
+     *
+     * @param ctx script context
+     */
+    private void exitScript(ParserRuleContext ctx) {
+        if (ctx.getStop() != null) {
+            length = ctx.getStop().getStartIndex();
+        }
+    }
+
+    /**
+     * switch tree construction on for the element subtree
+     *
+     * @param ctx element context
+     */
+    private void enterElement(ParserRuleContext ctx) {
+        element = ctx;
+        errorsBeforeElement = parser.getNumberOfSyntaxErrors();
+        parser.setBuildParseTree(true);
+    }
+
+    /**
+     * switch tree construction off again
+     *
+     * @return whether the element subtree is free of syntax errors , broken elements were already reported by the
+     * error listeners and are not built
+     */
+    private boolean exitElement() {
+        element = null;
+        parser.setBuildParseTree(false);
+        return parser.getNumberOfSyntaxErrors() == errorsBeforeElement;
+    }
+
+    /**
+     * biz module name , available once the header has been parsed
+     *
+     * @return biz module name
+     */
+    public String getBizModule() {
+        return bizModule;
+    }
+
+    /**
+     * kind of the script
+     *
+     * @return kind
+     */
+    public KindType getKind() {
+        return kind;
+    }
+
+    /**
+     * code points of the script , the same indexes as the char stream of a normal parse
+     *
+     * @return code points read , -1 when the script rule did not finish
+     */
+    public int getLength() {
+        return length;
+    }
+}
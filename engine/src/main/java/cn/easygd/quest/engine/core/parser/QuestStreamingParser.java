@@ -0,0 +1,166 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory;
+import cn.easygd.quest.engine.runtime.module.ScriptSource;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.UnbufferedCharStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * bounded memory parse routine for very large scripts
+ *
+ * <p>
+ * chars and tokens are read through {@link UnbufferedCharStream} / {@link UnbufferedTokenStream} , so only the
+ * lookahead window is buffered , and no parse tree is kept. process / function statements are handed to the consumer
+ * as soon as they are complete , see {@link QuestStreamingListener}. prd and entity scripts are only validated since
+ * they build no statements yet.
+ * </p>
+ *
+ * <p>
+ * what stays in memory : the parse tree of the one process / function being built , and the tokens matched directly
+ * by a rule that is still open. class / interface / enum declarations of entity scripts and the process / function
+ * modules themselves are parsed with tree construction off , their member contexts are dropped on exit and only
+ * their own keyword , name and brace tokens are attached , so a class with a million members holds a handful of
+ * tokens , not its members.
+ * </p>
+ *
+ * <p>
+ * an unbuffered stream can not be rewound , so there is no SLL first stage as in {@link QuestScriptParser} , the
+ * script is parsed once with {@link PredictionMode#LL}.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestStreamingParser {
+
+    /**
+     * char buffer size of the unbuffered char stream , it only grows while a single token is longer
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * parse a script stream , the stream is not closed
+     *
+     * @param input    UTF-8 script stream
+     * @param consumer downstream of finished process / function statements
+     * @return streaming listener holding the header information , {@code null} when the kind declaration is missing
+     */
+    public static QuestStreamingListener parse(InputStream input, Consumer<CodeStatement> consumer) {
+        return parse(input, consumer, null);
+    }
+
+    /**
+     * parse a script stream , the stream is not closed
+     *
+     * @param input    UTF-8 script stream
+     * @param consumer downstream of finished process / function statements
+     * @param errors   collects the syntax errors , {@code null} keeps the console error listeners
+     * @return streaming listener holding the header information , {@code null} when the kind declaration is missing
+     */
+    public static QuestStreamingListener parse(InputStream input, Consumer<CodeStatement> consumer,
+                                               SyntaxErrorCollector errors) {
+        QuestLexer lexer = new QuestLexer(new UnbufferedCharStream(input, BUFFER_SIZE, StandardCharsets.UTF_8));
+        // the char stream drops consumed text , tokens must copy theirs
+        lexer.setTokenFactory(new FingerprintTokenFactory(true));
+
+        QuestParser parser = new QuestParser(new UnbufferedTokenStream<>(lexer));
+        parser.setBuildParseTree(false);
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        if (errors != null) {
+            errors.attach(parser);
+        }
+
+        KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+        if (kind == null) {
+            return null;
+        }
+
+        QuestStreamingListener listener = new QuestStreamingListener(parser, kind, consumer);
+        parser.addParseListener(listener);
+        switch (kind) {
+            case SERVICE:
+                parser.serviceScript();
+                break;
+            case PRD:
+                parser.prdScript();
+                break;
+            case ENTITY:
+                parser.entityScript();
+                break;
+        }
+        return listener;
+    }
+
+    /**
+     * parse a service script stream into a module , the statements are the same as a
+     * {@link cn.easygd.quest.engine.core.QuestServiceVisitor} builds from the full parse tree
+     *
+     * @param input  UTF-8 script stream , not closed
+     * @param errors collects the syntax errors , {@code null} keeps the console error listeners. processes /
+     *               functions with syntax errors are left out of the module
+     * @return service module , {@code null} when the script is not a service script
+     */
+    public static ServiceModule parseServiceModule(InputStream input, SyntaxErrorCollector errors) {
+        ServiceModule module = new ServiceModule();
+        return parseServiceModule(input, module, errors) == null ? null : module;
+    }
+
+    /**
+     * parse a service script file into a module , the module keeps a file backed {@link ScriptSource}
+     *
+     * @param file   UTF-8 script file
+     * @param errors collects the syntax errors , {@code null} keeps the console error listeners
+     * @return service module , {@code null} when the script is not a service script
+     * @throws IOException the file can not be read
+     */
+    public static ServiceModule parseServiceModule(Path file, SyntaxErrorCollector errors) throws IOException {
+        ServiceModule module = new ServiceModule();
+        QuestStreamingListener listener;
+        try (InputStream input = Files.newInputStream(file)) {
+            listener = parseServiceModule(input, module, errors);
+        }
+        if (listener == null) {
+            return null;
+        }
+        module.setScriptSource(ScriptSource.of(file, 0, listener.getLength() - 1));
+        return module;
+    }
+
+    /**
+     * stream the statements of a service script into a module
+     *
+     * @return streaming listener , {@code null} when the script is not a service script
+     */
+    private static QuestStreamingListener parseServiceModule(InputStream input, ServiceModule module,
+                                                             SyntaxErrorCollector errors) {
+        QuestStreamingListener listener = parse(input, statement -> {
+            if (statement instanceof ProcessCodeStatement) {
+                ProcessCodeStatement process = (ProcessCodeStatement) statement;
+                module.putProcessStatement(process.getName(), process);
+            } else if (statement instanceof FunctionCodeStatement) {
+                FunctionCodeStatement function = (FunctionCodeStatement) statement;
+                module.putFunctionStatement(function.getName(), function);
+            }
+        }, errors);
+        if (listener == null || listener.getKind() != KindType.SERVICE) {
+            return null;
+        }
+        module.setBizModule(listener.getBizModule());
+        return listener;
+    }
+}
@@ -0,0 +1,70 @@
+package cn.easygd.quest.engine.core.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * one lexer / parser error of a script
+ *
+ * @author VD
+ */
+public class QuestSyntaxError {
+
+    /**
+     * source name , usually the file path
+     */
+    private final String sourceName;
+
+    /**
+     * line , starts from 1
+     */
+    private final int line;
+
+    /**
+     * column , starts from 1
+     */
+    private final int column;
+
+    /**
+     * error message
+     */
+    private final String message;
+
+    /**
+     * expected token names , empty for lexer errors
+     */
+    private final List<String> expectedTokens;
+
+    public QuestSyntaxError(String sourceName, int line, int column, String message, List<String> expectedTokens) {
+        this.sourceName = sourceName;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+        this.expectedTokens = expectedTokens == null ? Collections.emptyList() : expectedTokens;
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public List<String> getExpectedTokens() {
+        return expectedTokens;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%d:%d: %s", sourceName, line, column, message);
+    }
+}
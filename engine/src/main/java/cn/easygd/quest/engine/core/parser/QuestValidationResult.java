@@ -0,0 +1,50 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.enums.KindType;
+
+import java.util.List;
+
+/**
+ * validation result of one script
+ *
+ * @author VD
+ */
+public class QuestValidationResult {
+
+    /**
+     * source name , usually the file path
+     */
+    private final String sourceName;
+
+    /**
+     * declared kind , null when the kind declaration is missing or broken
+     */
+    private final KindType kind;
+
+    /**
+     * syntax errors
+     */
+    private final List<QuestSyntaxError> errors;
+
+    public QuestValidationResult(String sourceName, KindType kind, List<QuestSyntaxError> errors) {
+        this.sourceName = sourceName;
+        this.kind = kind;
+        this.errors = errors;
+    }
+
+    public boolean isValid() {
+        return kind != null && errors.isEmpty();
+    }
+
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    public KindType getKind() {
+        return kind;
+    }
+
+    public List<QuestSyntaxError> getErrors() {
+        return errors;
+    }
+}
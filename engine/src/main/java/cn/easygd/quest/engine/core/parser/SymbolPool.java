@@ -0,0 +1,335 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * run scoped symbol table
+ *
+ * <p>
+ * identifiers , type names and operators repeat across thousands of scripts , but every {@code getText()} returns a
+ * new {@link String}. visitors pass the texts they keep in statements through {@link #intern(String)} , so one
+ * instance per distinct symbol stays reachable. the table is split into stripes by hash , each guarded by its own
+ * lock , so parallel parses rarely contend.
+ * </p>
+ *
+ * <p>
+ * share one pool for a batch / daemon run and drop it with the run , symbols are never evicted. texts longer than
+ * {@link #MAX_SYMBOL_LENGTH} ( argument lists , parenthesized expressions ) are rarely repeated and are not pooled.
+ * </p>
+ *
+ * <p>
+ * with hash-consing on , the pool also keeps one canonical instance per structurally equal expression subtree ( see
+ * {@link #intern(ExpressionCodeStatement)} ). repeated calls and conditions then share one subtree , and identity is
+ * an O(1) equality check for them.
+ * </p>
+ *
+ * @author VD
+ */
+public class SymbolPool {
+
+    /**
+     * longest text that is pooled
+     */
+    public static final int MAX_SYMBOL_LENGTH = 64;
+
+    /**
+     * default stripe count
+     */
+    private static final int DEFAULT_STRIPES = 32;
+
+    /**
+     * stripes
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * stripe index mask
+     */
+    private final int mask;
+
+    /**
+     * hash-cons expressions
+     */
+    private final boolean hashConsing;
+
+    public SymbolPool() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param hashConsing also intern expression subtrees
+     */
+    public SymbolPool(boolean hashConsing) {
+        this(DEFAULT_STRIPES, hashConsing);
+    }
+
+    /**
+     * @param concurrencyLevel expected number of threads interning at the same time , rounded up to a power of two
+     */
+    public SymbolPool(int concurrencyLevel) {
+        this(concurrencyLevel, false);
+    }
+
+    /**
+     * @param concurrencyLevel expected number of threads interning at the same time , rounded up to a power of two
+     * @param hashConsing      also intern expression subtrees
+     */
+    public SymbolPool(int concurrencyLevel, boolean hashConsing) {
+        this.hashConsing = hashConsing;
+        int size = concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * pooled instance of a symbol
+     *
+     * @param symbol symbol text
+     * @return the first instance interned with the same text , {@code symbol} itself when it is new , too long or
+     * {@code null}
+     */
+    public String intern(String symbol) {
+        if (symbol == null || symbol.length() > MAX_SYMBOL_LENGTH) {
+            return symbol;
+        }
+        int hash = symbol.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        synchronized (stripe) {
+            String pooled = stripe.symbols.putIfAbsent(symbol, symbol);
+            if (pooled != null) {
+                stripe.hits++;
+                return pooled;
+            }
+            stripe.misses++;
+            return symbol;
+        }
+    }
+
+    /**
+     * canonical instance of an expression subtree
+     *
+     * <p>
+     * child expressions are expected to be canonical already ( the builder interns bottom up ) , so comparing a
+     * candidate only looks one level deep before identity matches. the returned instance may be shared by many
+     * statements and must not be modified.
+     * </p>
+     *
+     * @param expr expression
+     * @return the first instance interned with the same structure , {@code expr} itself when it is new , {@code null}
+     * or hash-consing is off
+     */
+    public ExpressionCodeStatement intern(ExpressionCodeStatement expr) {
+        if (!hashConsing || expr == null) {
+            return expr;
+        }
+        // structural hashes are already mixed , high bits pick the stripe and low bits the slot
+        int hash = expr.structuralHash();
+        Stripe stripe = stripes[(hash >>> 16) & mask];
+        synchronized (stripe) {
+            ExpressionCodeStatement pooled = stripe.canonical(expr, hash);
+            if (pooled != null) {
+                stripe.expressionHits++;
+                return pooled;
+            }
+            stripe.expressionMisses++;
+            return expr;
+        }
+    }
+
+    /**
+     * hash-consing on
+     *
+     * @return true when expressions are interned
+     */
+    public boolean isHashConsing() {
+        return hashConsing;
+    }
+
+    /**
+     * distinct expression subtrees
+     *
+     * @return size
+     */
+    public int expressionSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.expressionCount;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * expression lookups that returned a shared instance
+     *
+     * @return hits
+     */
+    public long getExpressionHits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.expressionHits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * expression lookups that added a new subtree
+     *
+     * @return misses
+     */
+    public long getExpressionMisses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.expressionMisses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * distinct symbols
+     *
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.symbols.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * lookups that returned a pooled instance
+     *
+     * @return hits
+     */
+    public long getHits() {
+        long hits = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                hits += stripe.hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * lookups that added a new symbol
+     *
+     * @return misses
+     */
+    public long getMisses() {
+        long misses = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                misses += stripe.misses;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * share of lookups that returned a pooled instance
+     *
+     * @return hit rate between 0 and 1 , 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * one stripe of the table
+     */
+    private static class Stripe {
+
+        /**
+         * symbols
+         */
+        private final Map<String, String> symbols = new HashMap<>();
+
+        /**
+         * hit count
+         */
+        private long hits;
+
+        /**
+         * miss count
+         */
+        private long misses;
+
+        /**
+         * canonical expressions , open addressing by structural hash
+         */
+        private ExpressionCodeStatement[] expressions = new ExpressionCodeStatement[16];
+
+        /**
+         * canonical expression count
+         */
+        private int expressionCount;
+
+        /**
+         * expression hit count
+         */
+        private long expressionHits;
+
+        /**
+         * expression miss count
+         */
+        private long expressionMisses;
+
+        /**
+         * find the canonical instance of an expression , add it when it is new
+         *
+         * @param expr expression
+         * @param hash structural hash
+         * @return canonical instance , {@code null} when {@code expr} was added
+         */
+        private ExpressionCodeStatement canonical(ExpressionCodeStatement expr, int hash) {
+            int mask = expressions.length - 1;
+            int i = hash & mask;
+            for (ExpressionCodeStatement pooled; (pooled = expressions[i]) != null; i = (i + 1) & mask) {
+                if (pooled.structuralHash() == hash && pooled.structurallyEquals(expr)) {
+                    return pooled;
+                }
+            }
+            expressions[i] = expr;
+            if (++expressionCount * 2 > expressions.length) {
+                resize();
+            }
+            return null;
+        }
+
+        /**
+         * double the table
+         */
+        private void resize() {
+            ExpressionCodeStatement[] old = expressions;
+            expressions = new ExpressionCodeStatement[old.length * 2];
+            int mask = expressions.length - 1;
+            for (ExpressionCodeStatement expr : old) {
+                if (expr != null) {
+                    int i = expr.structuralHash() & mask;
+                    while (expressions[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    expressions[i] = expr;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.lexer.BodySkippingTokenSource;
+import cn.easygd.quest.engine.core.lexer.QuestFastLexer;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.IntervalSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * error listener collecting lexer / parser errors instead of printing them
+ *
+ * @author VD
+ */
+public class SyntaxErrorCollector extends BaseErrorListener {
+
+    /**
+     * source name of the errors
+     */
+    private final String sourceName;
+
+    /**
+     * collected errors
+     */
+    private final List<QuestSyntaxError> errors = new ArrayList<>();
+
+    public SyntaxErrorCollector(String sourceName) {
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * replace the error listeners of the parser and its lexer with this collector
+     *
+     * @param parser parser
+     */
+    public void attach(QuestParser parser) {
+        parser.removeErrorListeners();
+        parser.addErrorListener(this);
+        TokenSource tokenSource = parser.getTokenStream().getTokenSource();
+        if (tokenSource instanceof BodySkippingTokenSource) {
+            tokenSource = ((BodySkippingTokenSource) tokenSource).getDelegate();
+        }
+        if (tokenSource instanceof Lexer) {
+            Lexer lexer = (Lexer) tokenSource;
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(this);
+        } else if (tokenSource instanceof QuestFastLexer) {
+            QuestFastLexer lexer = (QuestFastLexer) tokenSource;
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(this);
+        }
+    }
+
+    @Override
+    public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+                            String msg, RecognitionException e) {
+        List<String> expectedTokens = new ArrayList<>();
+        if (recognizer instanceof Parser) {
+            // missing / extraneous token reports come without an exception , the parser state still tells
+            IntervalSet expected = e != null ? e.getExpectedTokens() : ((Parser) recognizer).getExpectedTokens();
+            if (expected != null) {
+                expected.toList().forEach(type -> expectedTokens.add(recognizer.getVocabulary().getDisplayName(type)));
+            }
+        }
+        errors.add(new QuestSyntaxError(sourceName, line, charPositionInLine + 1, msg, expectedTokens));
+    }
+
+    public List<QuestSyntaxError> getErrors() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
@@ -1,12 +1,14 @@
 package cn.easygd.quest.engine.runtime;
 
-import cn.easygd.quest.engine.core.QuestLexer;
 import cn.easygd.quest.engine.core.QuestParser;
-import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.QuestStatementVisitor;
+import cn.easygd.quest.engine.core.QuestVisitorManager;
 import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
 import cn.easygd.quest.engine.utils.ScriptKindHelper;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
 
 /**
  * Quest脚本解析示例
@@ -36,22 +38,21 @@ public class QuestParserExample {
         try {
             System.out.println("开始解析脚本: " + script);
             
-            // 创建词法分析器
-            QuestLexer lexer = new QuestLexer(CharStreams.fromString(script));
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            QuestParser parser = QuestParserPool.acquire(script);
 
-            // 创建语法分析器
-            QuestParser parser = new QuestParser(tokens);
-            
-            // 先解析一次获取kind类型
-            QuestParser.ScriptContext scriptCtx = parser.script();
-            
-            // 使用Visitor提取kind
-            KindType kind = ScriptKindHelper.getScriptKind(scriptCtx);
+            // 通过头部token预判kind
+            KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
             System.out.println("检测到kind类型: " + kind);
+            if (kind == null) {
+                System.err.println("解析错误: 缺少合法的@kind声明");
+                return;
+            }
+
+            // 直接使用kind对应的入口规则解析(SLL优先，失败后回退LL)
+            ParserRuleContext moduleCtx = QuestScriptParser.parse(parser, kind);
 
-            QuestServiceVisitor questServiceVisitor = new QuestServiceVisitor();
-            questServiceVisitor.visit(scriptCtx);
+            QuestStatementVisitor<? extends QuestModule> visitor = QuestVisitorManager.findVisitor(kind);
+            visitor.visit(moduleCtx);
 
             System.out.println("-------");
 
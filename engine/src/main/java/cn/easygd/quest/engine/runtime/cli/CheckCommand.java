@@ -0,0 +1,211 @@
+package cn.easygd.quest.engine.runtime.cli;
+
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptValidator;
+import cn.easygd.quest.engine.core.parser.QuestSyntaxError;
+import cn.easygd.quest.engine.core.parser.QuestValidationResult;
+import cn.easygd.quest.engine.utils.FileUtils;
+import cn.easygd.quest.engine.utils.JsonUtils;
+import org.antlr.v4.runtime.CodePointCharStream;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 脚本校验命令
+ * 只做词法/语法校验，不构建语法树也不生成语句，适用于 CI 的合并前检查
+ *
+ * @author VD
+ */
+@Command(
+        name = "check",
+        aliases = {"ck"},
+        description = "校验文件夹中 Quest 脚本的语法",
+        mixinStandardHelpOptions = true
+)
+public class CheckCommand implements Callable<Integer> {
+
+    @Parameters(index = "0", description = "要校验的文件夹路径")
+    private File inputDirectory;
+
+    @Option(names = {"-o", "--output"}, description = "输出结果文件路径")
+    private File outputFile;
+
+    @Option(names = {"-r", "--recursive"}, description = "递归校验子文件夹")
+    private boolean recursive = false;
+
+    @Option(names = {"-f", "--filter"}, description = "文件过滤模式 (默认: *.quest)")
+    private String fileFilter = "*.quest";
+
+    @Option(names = {"--format"}, description = "输出格式: json|text")
+    private String outputFormat = "text";
+
+    @Option(names = {"-v", "--verbose"}, description = "详细输出，同时列出校验通过的文件")
+    private boolean verbose = false;
+
+    @Option(names = {"--fast-lexer"}, description = "使用手写词法分析器代替 ANTLR 生成的词法分析器，输出相同的 token")
+    private boolean fastLexer = false;
+
+    /**
+     * 执行校验命令
+     *
+     * @return 退出状态码，存在不合法脚本时返回 SOFTWARE
+     */
+    @Override
+    public Integer call() {
+        try {
+            if (!inputDirectory.exists() || !inputDirectory.isDirectory()) {
+                System.err.println("错误: 指定的路径不是有效的文件夹");
+                return CommandLine.ExitCode.USAGE;
+            }
+
+            List<Path> filesToCheck = FileUtils.collectFiles(inputDirectory.toPath(), fileFilter, recursive);
+            if (filesToCheck.isEmpty()) {
+                System.out.println("未找到匹配的文件");
+                return CommandLine.ExitCode.OK;
+            }
+
+            // 预热共享DFA
+            QuestParserPool.warmUp();
+
+            List<QuestValidationResult> results = new ArrayList<>();
+            for (Path file : filesToCheck) {
+                results.add(checkFile(file));
+            }
+
+            outputResults(results);
+            return results.stream().allMatch(QuestValidationResult::isValid)
+                    ? CommandLine.ExitCode.OK : CommandLine.ExitCode.SOFTWARE;
+
+        } catch (Exception e) {
+            System.err.println("校验过程中发生错误: " + e.getMessage());
+            if (verbose) {
+                e.printStackTrace();
+            }
+            return CommandLine.ExitCode.SOFTWARE;
+        }
+    }
+
+    /**
+     * 校验单个文件
+     */
+    private QuestValidationResult checkFile(Path file) {
+        CodePointCharStream input = FileUtils.getFileCharStream(file);
+        if (input == null) {
+            QuestSyntaxError error = new QuestSyntaxError(file.toString(), 0, 0, "读取文件失败", null);
+            return new QuestValidationResult(file.toString(), null, Collections.singletonList(error));
+        }
+        return QuestScriptValidator.validate(input, fastLexer);
+    }
+
+    /**
+     * 输出校验结果
+     */
+    private void outputResults(List<QuestValidationResult> results) throws IOException {
+        String output = "json".equalsIgnoreCase(outputFormat) ? formatAsJson(results) : formatAsText(results);
+
+        System.out.println(output);
+
+        if (outputFile != null) {
+            Path parent = outputFile.getAbsoluteFile().toPath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(outputFile.toPath(), output.getBytes(StandardCharsets.UTF_8));
+            if (verbose) {
+                System.out.println("结果已保存到: " + outputFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * 格式化为文本输出，每个错误一行 file:line:column: message
+     */
+    private String formatAsText(List<QuestValidationResult> results) {
+        StringBuilder sb = new StringBuilder();
+        int invalidFiles = 0;
+        int errorCount = 0;
+
+        for (QuestValidationResult result : results) {
+            if (result.isValid()) {
+                if (verbose) {
+                    sb.append(result.getSourceName()).append(": ✓ ").append(result.getKind().getCode()).append("\n");
+                }
+                continue;
+            }
+            invalidFiles++;
+            errorCount += result.getErrors().size();
+            for (QuestSyntaxError error : result.getErrors()) {
+                sb.append(error).append("\n");
+                if (!error.getExpectedTokens().isEmpty()) {
+                    sb.append("    期望: ").append(String.join(", ", error.getExpectedTokens())).append("\n");
+                }
+            }
+        }
+
+        sb.append("\n=== 校验统计 ===\n");
+        sb.append("总文件数: ").append(results.size()).append("\n");
+        sb.append("校验通过: ").append(results.size() - invalidFiles).append("\n");
+        sb.append("校验失败: ").append(invalidFiles).append("\n");
+        sb.append("错误数: ").append(errorCount);
+        return sb.toString();
+    }
+
+    /**
+     * 格式化为 JSON 输出
+     */
+    private String formatAsJson(List<QuestValidationResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"results\": [\n");
+
+        for (int i = 0; i < results.size(); i++) {
+            QuestValidationResult result = results.get(i);
+            sb.append("    {\n");
+            sb.append("      \"file\": \"").append(JsonUtils.escape(result.getSourceName())).append("\",\n");
+            sb.append("      \"kind\": ").append(result.getKind() != null ? "\"" + result.getKind().getCode() + "\"" : "null").append(",\n");
+            sb.append("      \"valid\": ").append(result.isValid()).append(",\n");
+            sb.append("      \"errors\": [");
+
+            List<QuestSyntaxError> errors = result.getErrors();
+            for (int j = 0; j < errors.size(); j++) {
+                QuestSyntaxError error = errors.get(j);
+                sb.append("\n        {\"line\": ").append(error.getLine())
+                        .append(", \"column\": ").append(error.getColumn())
+                        .append(", \"message\": \"").append(JsonUtils.escape(error.getMessage())).append("\"")
+                        .append(", \"expected\": [");
+                List<String> expectedTokens = error.getExpectedTokens();
+                for (int k = 0; k < expectedTokens.size(); k++) {
+                    sb.append("\"").append(JsonUtils.escape(expectedTokens.get(k))).append("\"");
+                    if (k < expectedTokens.size() - 1) {
+                        sb.append(", ");
+                    }
+                }
+                sb.append("]}");
+                if (j < errors.size() - 1) {
+                    sb.append(",");
+                }
+            }
+            sb.append(errors.isEmpty() ? "]\n" : "\n      ]\n");
+
+            sb.append("    }");
+            if (i < results.size() - 1) {
+                sb.append(",");
+            }
+            sb.append("\n");
+        }
+
+        sb.append("  ]\n}");
+        return sb.toString();
+    }
+}
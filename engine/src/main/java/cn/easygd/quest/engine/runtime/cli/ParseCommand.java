@@ -1,19 +1,30 @@
 package cn.easygd.quest.engine.runtime.cli;
 
-import cn.easygd.quest.engine.core.QuestLexer;
 import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.QuestStatementListener;
 import cn.easygd.quest.engine.core.QuestStatementVisitor;
 import cn.easygd.quest.engine.core.QuestVisitorManager;
 import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.lexer.BodySkippingTokenSource;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.core.parser.QuestStreamingParser;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.core.parser.SyntaxErrorCollector;
 import cn.easygd.quest.engine.runtime.executor.QuestScriptExecutor;
 import cn.easygd.quest.engine.runtime.executor.QuestScriptExecutorManager;
 import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.module.ScriptSource;
 import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.module.ServiceModuleRenderer;
+import cn.easygd.quest.engine.runtime.statement.CodeFormat;
+import cn.easygd.quest.engine.utils.FileUtils;
+import cn.easygd.quest.engine.utils.JsonUtils;
 import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import cn.easygd.quest.engine.utils.Utf8FileSink;
 import cn.easygd.quest.engine.utils.markdown.MarkdownInfo;
-import com.google.common.collect.Lists;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.CodePointCharStream;
+import org.antlr.v4.runtime.ParserRuleContext;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -21,11 +32,13 @@ import picocli.CommandLine.Parameters;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 /**
@@ -49,6 +62,15 @@ public class ParseCommand implements Callable<Integer> {
     @Option(names = {"-o", "--output"}, description = "输出结果文件路径")
     private File outputFile;
 
+    @Option(names = {"--doc-dir"}, description = "生成的说明书输出目录，不指定时不输出")
+    private File docDirectory;
+
+    @Option(names = {"--code-dir"}, description = "服务模块代码输出目录，流程/函数按名称排序写入与脚本同名的.code文件，不指定时不输出")
+    private File codeDirectory;
+
+    @Option(names = {"--render-threads"}, description = "生成服务模块代码的线程数，大于1时每个流程/函数作为ForkJoin任务并行生成，输出与单线程相同 (默认: 1)")
+    private int renderThreads = 1;
+
     @Option(names = {"-r", "--recursive"}, description = "递归解析子文件夹")
     private boolean recursive = false;
 
@@ -64,12 +86,37 @@ public class ParseCommand implements Callable<Integer> {
     @Option(names = {"-v", "--verbose"}, description = "详细输出")
     private boolean verbose = false;
 
+    @Option(names = {"--compact"}, description = "以紧凑数组结构保存语句树，降低大批量解析时的内存占用")
+    private boolean compact = false;
+
+    @Option(names = {"--hash-consing"}, description = "结构相同的表达式子树共享同一实例，降低重复调用和条件的内存占用")
+    private boolean hashConsing = false;
+
+    @Option(names = {"--listener"}, description = "解析过程中直接生成语句，不构建语法树")
+    private boolean listener = false;
+
+    @Option(names = {"--fast-lexer"}, description = "使用手写词法分析器代替 ANTLR 生成的词法分析器，输出相同的 token")
+    private boolean fastLexer = false;
+
+    @Option(names = {"--lazy"}, description = "只解析流程/函数签名，函数体只记录位置并在首次使用时解析(与--compact同用时不生效)")
+    private boolean lazy = false;
+
+    @Option(names = {"--stream"}, description = "流式读取服务脚本，边解析边生成流程/函数语句，不读入整个文件也不保留语法树，适合超大脚本(其他kind按常规方式解析)")
+    private boolean stream = false;
+
     // 统计信息
     private int totalFiles = 0;
     private int parsedFiles = 0;
     private int errorFiles = 0;
     private List<String> errorMessages = new ArrayList<>();
 
+    // 本次运行共享的符号池
+    private SymbolPool symbolPool;
+
+    // 服务模块代码输出，未指定--code-dir时为null
+    private ServiceModuleRenderer codeRenderer;
+    private ForkJoinPool renderPool;
+
     /**
      * 执行解析命令
      *
@@ -90,7 +137,7 @@ public class ParseCommand implements Callable<Integer> {
             }
 
             // 收集要解析的文件
-            List<Path> filesToParse = collectFiles();
+            List<Path> filesToParse = FileUtils.collectFiles(inputDirectory.toPath(), fileFilter, recursive);
 
             if (filesToParse.isEmpty()) {
                 System.out.println("未找到匹配的文件");
@@ -101,44 +148,49 @@ public class ParseCommand implements Callable<Integer> {
                 System.out.println("找到 " + filesToParse.size() + " 个文件待解析");
             }
 
-            List<String> scriptList = Lists.newArrayList();
-
-            for (String script : scriptList) {
-                // 创建词法分析器
-                QuestLexer lexer = new QuestLexer(CharStreams.fromString(script));
-                CommonTokenStream tokens = new CommonTokenStream(lexer);
-
-                // 创建语法分析器
-                QuestParser parser = new QuestParser(tokens);
-                // TODO 错误监听器
-
-                // 先解析一次获取kind类型
-                QuestParser.ScriptContext scriptCtx = parser.script();
-
-                // 提取kind
-                KindType kind = ScriptKindHelper.getScriptKind(scriptCtx);
-                QuestStatementVisitor<? extends QuestModule> visitor = QuestVisitorManager.findVisitor(kind);
-                scriptCtx.accept(visitor);
+            // 预热共享DFA
+            QuestParserPool.warmUp();
+            symbolPool = new SymbolPool(hashConsing);
+            if (codeDirectory != null) {
+                renderPool = renderThreads > 1 ? new ForkJoinPool(renderThreads) : null;
+                codeRenderer = new ServiceModuleRenderer(CodeFormat.DEFAULT, renderPool);
+            }
 
-                // 获取executor
-                QuestScriptExecutor executor = QuestScriptExecutorManager.findExecutor(kind);
-                QuestModule module = visitor.getModule();
-                module.setOriginalScript(script);
-                executor.addModule(module);
+            for (Path file : filesToParse) {
+                totalFiles++;
+                try {
+                    parseFile(file);
+                } catch (Exception e) {
+                    errorFiles++;
+                    errorMessages.add(file + ": " + e.getMessage());
+                    if (verbose) {
+                        e.printStackTrace();
+                    }
+                }
             }
 
             List<QuestScriptExecutor> executorList = QuestScriptExecutorManager.findAllExecutor();
 
             // gen markdown
             List<MarkdownInfo> markdownInfoList = executorList.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
                     .map(QuestScriptExecutor::execute)
+                    .filter(Objects::nonNull)
                     .collect(Collectors.toList());
 
-            // TODO write markdown
-            markdownInfoList.forEach(markdownInfo -> {
-
-            });
-
+            // 说明书构建完成后直接编码写入文件，不经过String和byte[]
+            if (docDirectory != null) {
+                for (MarkdownInfo markdownInfo : markdownInfoList) {
+                    Path docFile = docDirectory.toPath().resolve(inputDirectory.getName() + markdownInfo.fileSuffix());
+                    try (Utf8FileSink sink = Utf8FileSink.open(docFile)) {
+                        markdownInfo.writeTo(sink);
+                    }
+                    if (verbose) {
+                        System.out.println("说明书已保存到: " + docFile.toAbsolutePath());
+                    }
+                }
+            }
 
             // 显示统计信息
             if (showStats) {
@@ -153,36 +205,130 @@ public class ParseCommand implements Callable<Integer> {
                 e.printStackTrace();
             }
             return CommandLine.ExitCode.SOFTWARE;
+        } finally {
+            if (renderPool != null) {
+                renderPool.shutdown();
+            }
         }
     }
 
     /**
-     * 收集要解析的文件
+     * 解析单个文件并交给对应的执行器
      */
-    private List<Path> collectFiles() throws IOException {
-        List<Path> files = new ArrayList<>();
-        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + fileFilter);
-
-        Files.walkFileTree(inputDirectory.toPath(), new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                if (matcher.matches(file.getFileName())) {
-                    files.add(file);
-                }
-                return FileVisitResult.CONTINUE;
-            }
+    private void parseFile(Path file) throws IOException {
+        if (stream && parseServiceStream(file)) {
+            return;
+        }
+        // 直接从内存映射的文件解码，不经过中间 String
+        CodePointCharStream input = FileUtils.getFileCharStream(file);
+        if (input == null) {
+            errorFiles++;
+            errorMessages.add(file + ": 读取文件失败");
+            return;
+        }
 
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-                // 如果不是递归模式，跳过子目录
-                if (!recursive && !dir.equals(inputDirectory.toPath())) {
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-                return FileVisitResult.CONTINUE;
-            }
-        });
+        // 复用当前线程的词法/语法分析器
+        QuestParser parser = QuestParserPool.acquire(input, fastLexer);
+        // 延迟模式下函数体的token不交给语法分析器
+        boolean lazyBodies = lazy && !compact;
+        if (lazyBodies) {
+            BodySkippingTokenSource.attach(parser);
+        }
+        // 收集语法错误，有错误的脚本不再生成语句
+        SyntaxErrorCollector errorCollector = new SyntaxErrorCollector(file.toString());
+        errorCollector.attach(parser);
+
+        // 通过头部token预判kind，头部不合法的脚本直接跳过
+        KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+        if (kind == null) {
+            errorFiles++;
+            errorMessages.add(file + ": 缺少合法的@kind声明");
+            return;
+        }
+        // 监听模式下语句在解析时生成，不保留语法树
+        QuestStatementListener<? extends QuestModule> statementListener = null;
+        if (listener && !lazyBodies) {
+            statementListener = QuestVisitorManager.findListener(kind, compact, symbolPool);
+            statementListener.attach(parser);
+        }
+
+        // 直接使用kind对应的入口规则解析(SLL优先，失败后回退LL)
+        ParserRuleContext moduleCtx = QuestScriptParser.parse(parser, kind);
+        if (errorCollector.hasErrors()) {
+            errorFiles++;
+            errorCollector.getErrors().forEach(error -> errorMessages.add(error.toString()));
+            return;
+        }
+        QuestModule module;
+        if (statementListener != null) {
+            module = statementListener.getModule();
+        } else {
+            QuestStatementVisitor<? extends QuestModule> visitor =
+                    QuestVisitorManager.findVisitor(kind, compact, lazyBodies, symbolPool);
+            moduleCtx.accept(visitor);
+            module = visitor.getModule();
+        }
+        parsedFiles++;
+        if (module instanceof ServiceModule) {
+            writeCode(file, (ServiceModule) module);
+        }
+
+        // 获取executor
+        QuestScriptExecutor executor = QuestScriptExecutorManager.findExecutor(kind);
+        if (executor == null || module == null) {
+            return;
+        }
+        // 只保留文件引用，原始脚本按需重新读取
+        module.setScriptSource(ScriptSource.of(file, input));
+        executor.addModule(module);
+    }
+
+    /**
+     * 流式解析服务脚本，按块读取文件，每个流程/函数解析完即生成语句
+     *
+     * @return 是否已处理，不是服务脚本时返回false，由常规方式解析
+     */
+    private boolean parseServiceStream(Path file) throws IOException {
+        SyntaxErrorCollector errorCollector = new SyntaxErrorCollector(file.toString());
+        ServiceModule module = QuestStreamingParser.parseServiceModule(file, errorCollector);
+        if (errorCollector.hasErrors()) {
+            errorFiles++;
+            errorCollector.getErrors().forEach(error -> errorMessages.add(error.toString()));
+            return true;
+        }
+        if (module == null) {
+            return false;
+        }
+        parsedFiles++;
+        writeCode(file, module);
 
-        return files;
+        QuestScriptExecutor executor = QuestScriptExecutorManager.findExecutor(KindType.SERVICE);
+        if (executor != null) {
+            executor.addModule(module);
+        }
+        return true;
+    }
+
+    /**
+     * 输出服务模块代码到--code-dir，保持脚本相对输入目录的路径，扩展名换为.code
+     */
+    private void writeCode(Path file, ServiceModule module) throws IOException {
+        if (codeRenderer == null) {
+            return;
+        }
+        String relative = inputDirectory.toPath().relativize(file).toString();
+        int dot = relative.lastIndexOf('.');
+        if (dot > relative.lastIndexOf(File.separatorChar)) {
+            relative = relative.substring(0, dot);
+        }
+        Path codeFile = codeDirectory.toPath().resolve(relative + ".code");
+        Files.createDirectories(codeFile.toAbsolutePath().getParent());
+        try (Utf8FileSink sink = Utf8FileSink.open(codeFile)) {
+            codeRenderer.render(module, sink);
+        }
+        if (verbose) {
+            System.out.println("代码已保存到: " + codeFile.toAbsolutePath());
+        }
     }
 
     /**
@@ -261,81 +407,82 @@ public class ParseCommand implements Callable<Integer> {
      * 输出解析结果
      */
     private void outputResults(List<ParsingResult> results) throws IOException {
-        StringBuilder output = new StringBuilder();
+        // 输出到控制台
+        formatResults(results, System.out);
+        System.out.println();
 
+        // 如果指定了输出文件，边格式化边编码写入文件，不生成中间 String 和 byte[]
+        if (outputFile != null) {
+            try (Utf8FileSink sink = Utf8FileSink.open(outputFile.toPath())) {
+                formatResults(results, sink);
+            }
+            if (verbose) {
+                System.out.println("结果已保存到: " + outputFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * 按输出格式格式化解析结果
+     */
+    private void formatResults(List<ParsingResult> results, Appendable out) throws IOException {
         switch (outputFormat.toLowerCase()) {
             case "json":
-                output.append(formatAsJson(results));
+                formatAsJson(results, out);
                 break;
             case "xml":
-                output.append(formatAsXml(results));
+                formatAsXml(results, out);
                 break;
             case "text":
             default:
-                output.append(formatAsText(results));
+                formatAsText(results, out);
                 break;
         }
-
-        // 输出到控制台
-        System.out.println(output.toString());
-
-        // 如果指定了输出文件，写入文件
-        if (outputFile != null) {
-            Files.createDirectories(outputFile.toPath().getParent());
-            Files.write(outputFile.toPath(), output.toString().getBytes());
-            if (verbose) {
-                System.out.println("结果已保存到: " + outputFile.getAbsolutePath());
-            }
-        }
     }
 
     /**
      * 格式化为文本输出
      */
-    private String formatAsText(List<ParsingResult> results) {
-        StringBuilder sb = new StringBuilder();
+    private void formatAsText(List<ParsingResult> results, Appendable sb) throws IOException {
         sb.append("=== Quest 脚本解析结果 ===\n\n");
 
         for (ParsingResult result : results) {
-            sb.append("文件: ").append(result.getFilePath()).append("\n");
+            sb.append("文件: ").append(result.getFilePath().toString()).append("\n");
             if (result.isSuccess()) {
                 sb.append("状态: ✓ 解析成功\n");
                 ServiceModule module = result.getModule();
                 if (module != null) {
                     sb.append("业务模块: ").append(module.getBizModule() != null ? module.getBizModule() : "未定义").append("\n");
-                    sb.append("流程数量: ").append(module.getProcessStatementMap().size()).append("\n");
-                    sb.append("函数数量: ").append(module.getFunctionStatementMap().size()).append("\n");
+                    sb.append("流程数量: ").append(String.valueOf(module.getProcessStatementMap().size())).append("\n");
+                    sb.append("函数数量: ").append(String.valueOf(module.getFunctionStatementMap().size())).append("\n");
                 }
             } else {
                 sb.append("状态: ✗ 解析失败\n");
-                sb.append("错误: ").append(result.getErrorMessage()).append("\n");
+                sb.append("错误: ").append(String.valueOf(result.getErrorMessage())).append("\n");
             }
             sb.append("---\n");
         }
-
-        return sb.toString();
     }
 
     /**
      * 格式化为 JSON 输出
      */
-    private String formatAsJson(List<ParsingResult> results) {
-        StringBuilder sb = new StringBuilder();
+    private void formatAsJson(List<ParsingResult> results, Appendable sb) throws IOException {
         sb.append("{\n  \"results\": [\n");
 
         for (int i = 0; i < results.size(); i++) {
             ParsingResult result = results.get(i);
             sb.append("    {\n");
-            sb.append("      \"file\": \"").append(result.getFilePath().toString().replace("\\", "\\\\")).append("\",\n");
-            sb.append("      \"success\": ").append(result.isSuccess()).append(",\n");
+            sb.append("      \"file\": \"").append(JsonUtils.escape(result.getFilePath().toString())).append("\",\n");
+            sb.append("      \"success\": ").append(String.valueOf(result.isSuccess())).append(",\n");
 
             if (result.isSuccess() && result.getModule() != null) {
                 ServiceModule module = result.getModule();
-                sb.append("      \"bizModule\": \"").append(module.getBizModule() != null ? module.getBizModule() : "").append("\",\n");
-                sb.append("      \"processCount\": ").append(module.getProcessStatementMap().size()).append(",\n");
-                sb.append("      \"functionCount\": ").append(module.getFunctionStatementMap().size()).append("\n");
+                sb.append("      \"bizModule\": \"").append(module.getBizModule() != null ? JsonUtils.escape(module.getBizModule()) : "").append("\",\n");
+                sb.append("      \"processCount\": ").append(String.valueOf(module.getProcessStatementMap().size())).append(",\n");
+                sb.append("      \"functionCount\": ").append(String.valueOf(module.getFunctionStatementMap().size())).append("\n");
             } else {
-                sb.append("      \"error\": \"").append(result.getErrorMessage() != null ? result.getErrorMessage().replace("\"", "\\\"") : "").append("\"\n");
+                sb.append("      \"error\": \"").append(result.getErrorMessage() != null ? JsonUtils.escape(result.getErrorMessage()) : "").append("\"\n");
             }
 
             sb.append("    }");
@@ -346,27 +493,25 @@ public class ParseCommand implements Callable<Integer> {
         }
 
         sb.append("  ]\n}");
-        return sb.toString();
     }
 
     /**
      * 格式化为 XML 输出
      */
-    private String formatAsXml(List<ParsingResult> results) {
-        StringBuilder sb = new StringBuilder();
+    private void formatAsXml(List<ParsingResult> results, Appendable sb) throws IOException {
         sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
         sb.append("<quest-results>\n");
 
         for (ParsingResult result : results) {
             sb.append("  <result>\n");
             sb.append("    <file>").append(result.getFilePath().toString()).append("</file>\n");
-            sb.append("    <success>").append(result.isSuccess()).append("</success>\n");
+            sb.append("    <success>").append(String.valueOf(result.isSuccess())).append("</success>\n");
 
             if (result.isSuccess() && result.getModule() != null) {
                 ServiceModule module = result.getModule();
                 sb.append("    <biz-module>").append(module.getBizModule() != null ? module.getBizModule() : "").append("</biz-module>\n");
-                sb.append("    <process-count>").append(module.getProcessStatementMap().size()).append("</process-count>\n");
-                sb.append("    <function-count>").append(module.getFunctionStatementMap().size()).append("</function-count>\n");
+                sb.append("    <process-count>").append(String.valueOf(module.getProcessStatementMap().size())).append("</process-count>\n");
+                sb.append("    <function-count>").append(String.valueOf(module.getFunctionStatementMap().size())).append("</function-count>\n");
             } else {
                 sb.append("    <error>").append(result.getErrorMessage() != null ? result.getErrorMessage() : "").append("</error>\n");
             }
@@ -375,7 +520,6 @@ public class ParseCommand implements Callable<Integer> {
         }
 
         sb.append("</quest-results>");
-        return sb.toString();
     }
 
     /**
@@ -387,6 +531,14 @@ public class ParseCommand implements Callable<Integer> {
         System.out.println("成功解析: " + parsedFiles);
         System.out.println("解析失败: " + errorFiles);
         System.out.println("成功率: " + String.format("%.2f%%", (parsedFiles * 100.0 / totalFiles)));
+        System.out.println("SLL解析: " + QuestScriptParser.getSllCount());
+        System.out.println("回退LL解析: " + QuestScriptParser.getFallbackCount());
+        System.out.println("符号池: " + symbolPool.size() + " 个符号, 命中率 "
+                + String.format("%.2f%%", symbolPool.getHitRate() * 100));
+        if (symbolPool.isHashConsing()) {
+            System.out.println("共享表达式: " + symbolPool.expressionSize() + " 个, 复用 "
+                    + symbolPool.getExpressionHits() + " 次");
+        }
 
         if (!errorMessages.isEmpty()) {
             System.out.println("\n错误详情:");
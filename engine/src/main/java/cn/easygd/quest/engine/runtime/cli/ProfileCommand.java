@@ -0,0 +1,439 @@
+package cn.easygd.quest.engine.runtime.cli;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.utils.FileUtils;
+import cn.easygd.quest.engine.utils.JsonUtils;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.AmbiguityInfo;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.Interval;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * 语法分析性能剖析命令
+ * 开启 ANTLR 的 profiling ATN 模拟器解析文件夹中的脚本，按规则和决策点统计预测开销
+ *
+ * @author VD
+ */
+@Command(
+        name = "profile",
+        aliases = {"pf"},
+        description = "统计文件夹中 Quest 脚本在各语法决策点上的解析开销",
+        mixinStandardHelpOptions = true
+)
+public class ProfileCommand implements Callable<Integer> {
+
+    /**
+     * 可用的排序字段
+     */
+    private static final List<String> SORT_KEYS =
+            Arrays.asList("time", "invocations", "sll", "ll", "fallback", "ambiguities");
+
+    @Parameters(index = "0", description = "要解析的文件夹路径")
+    private File inputDirectory;
+
+    @Option(names = {"-o", "--output"}, description = "输出结果文件路径")
+    private File outputFile;
+
+    @Option(names = {"-r", "--recursive"}, description = "递归解析子文件夹")
+    private boolean recursive = false;
+
+    @Option(names = {"-f", "--filter"}, description = "文件过滤模式 (默认: *.quest)")
+    private String fileFilter = "*.quest";
+
+    @Option(names = {"--format"}, description = "输出格式: json|text")
+    private String outputFormat = "text";
+
+    private String sortBy = "time";
+
+    @Option(names = {"--limit"}, description = "决策点最多输出条数 (默认: 30, 0 表示全部)")
+    private int limit = 30;
+
+    @Option(names = {"--sll"}, description = "使用 SLL 预测模式剖析 (默认使用 LL，可观察歧义与上下文敏感)")
+    private boolean sll = false;
+
+    @Option(names = {"-v", "--verbose"}, description = "详细输出，附带每个决策点的首个歧义输入")
+    private boolean verbose = false;
+
+    @Spec
+    private CommandSpec spec;
+
+    // 统计信息
+    private int totalFiles = 0;
+    private int errorFiles = 0;
+    private long parseNanos = 0;
+    private final Map<Integer, DecisionStat> decisionStats = new TreeMap<>();
+
+    /**
+     * 设置排序字段，不支持的字段作为参数错误拒绝
+     */
+    @Option(names = {"--sort"}, description = "排序字段: time|invocations|sll|ll|fallback|ambiguities (默认: time)")
+    private void setSortBy(String sortBy) {
+        if (!SORT_KEYS.contains(sortBy.toLowerCase())) {
+            throw new ParameterException(spec.commandLine(), "不支持的排序字段: '" + sortBy
+                    + "'，可选值: " + String.join("|", SORT_KEYS));
+        }
+        this.sortBy = sortBy;
+    }
+
+    /**
+     * 执行剖析命令
+     *
+     * @return 退出状态码
+     */
+    @Override
+    public Integer call() {
+        try {
+            if (!inputDirectory.exists() || !inputDirectory.isDirectory()) {
+                System.err.println("错误: 指定的路径不是有效的文件夹");
+                return CommandLine.ExitCode.USAGE;
+            }
+
+            List<Path> filesToParse = FileUtils.collectFiles(inputDirectory.toPath(), fileFilter, recursive);
+            if (filesToParse.isEmpty()) {
+                System.out.println("未找到匹配的文件");
+                return CommandLine.ExitCode.OK;
+            }
+
+            // 先预热共享DFA，避免首个文件的建图开销淹没真实的决策开销
+            QuestParserPool.warmUp();
+
+            for (Path file : filesToParse) {
+                totalFiles++;
+                profileFile(file);
+            }
+
+            outputResults();
+            return errorFiles > 0 ? CommandLine.ExitCode.SOFTWARE : CommandLine.ExitCode.OK;
+
+        } catch (Exception e) {
+            System.err.println("剖析过程中发生错误: " + e.getMessage());
+            if (verbose) {
+                e.printStackTrace();
+            }
+            return CommandLine.ExitCode.SOFTWARE;
+        }
+    }
+
+    /**
+     * 剖析单个文件，并把决策统计累加到总表
+     */
+    private void profileFile(Path file) throws IOException {
+        String script = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        QuestParser parser = QuestParserPool.acquire(CharStreams.fromString(script, file.toString()));
+        parser.removeErrorListeners();
+
+        KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+        if (kind == null) {
+            errorFiles++;
+            System.err.println(file + ": 缺少合法的@kind声明");
+            return;
+        }
+
+        parser.setProfile(true);
+        parser.getInterpreter().setPredictionMode(sll ? PredictionMode.SLL : PredictionMode.LL);
+
+        // 不经过 SLL/LL 两阶段解析，保证每个决策只被预测一次
+        long start = System.nanoTime();
+        switch (kind) {
+            case SERVICE:
+                parser.serviceScript();
+                break;
+            case PRD:
+                parser.prdScript();
+                break;
+            case ENTITY:
+                parser.entityScript();
+                break;
+        }
+        parseNanos += System.nanoTime() - start;
+
+        if (parser.getNumberOfSyntaxErrors() > 0) {
+            errorFiles++;
+            System.err.println(file + ": 存在 " + parser.getNumberOfSyntaxErrors() + " 处语法错误");
+        }
+
+        TokenStream tokens = parser.getTokenStream();
+        for (DecisionInfo info : parser.getParseInfo().getDecisionInfo()) {
+            if (info.invocations == 0) {
+                continue;
+            }
+            DecisionState state = parser.getATN().getDecisionState(info.decision);
+            decisionStats.computeIfAbsent(info.decision,
+                    decision -> new DecisionStat(decision, QuestParser.ruleNames[state.ruleIndex]))
+                    .add(info, tokens);
+        }
+    }
+
+    /**
+     * 输出剖析结果
+     */
+    private void outputResults() throws IOException {
+        Comparator<DecisionStat> comparator = Comparator.comparingLong(sortKey()).reversed()
+                .thenComparingInt(DecisionStat::getDecision);
+
+        List<DecisionStat> decisions = decisionStats.values().stream()
+                .sorted(comparator)
+                .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                .collect(Collectors.toList());
+
+        // 同一规则下的决策点合并为规则维度的统计
+        Map<String, DecisionStat> ruleMap = new LinkedHashMap<>();
+        decisionStats.values().forEach(stat ->
+                ruleMap.computeIfAbsent(stat.getRuleName(), name -> new DecisionStat(-1, name)).merge(stat));
+        List<DecisionStat> rules = ruleMap.values().stream()
+                .sorted(comparator)
+                .collect(Collectors.toList());
+
+        String output = "json".equalsIgnoreCase(outputFormat) ? formatAsJson(rules, decisions) : formatAsText(rules, decisions);
+
+        System.out.println(output);
+
+        if (outputFile != null) {
+            Path parent = outputFile.getAbsoluteFile().toPath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(outputFile.toPath(), output.getBytes(StandardCharsets.UTF_8));
+            if (verbose) {
+                System.out.println("结果已保存到: " + outputFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * 排序字段
+     */
+    private ToLongFunction<DecisionStat> sortKey() {
+        switch (sortBy.toLowerCase()) {
+            case "invocations":
+                return DecisionStat::getInvocations;
+            case "sll":
+                return DecisionStat::getSllTotalLook;
+            case "ll":
+                return DecisionStat::getLlTotalLook;
+            case "fallback":
+                return DecisionStat::getLlFallback;
+            case "ambiguities":
+                return DecisionStat::getAmbiguities;
+            case "time":
+            default:
+                return DecisionStat::getTimeNanos;
+        }
+    }
+
+    /**
+     * 格式化为文本输出
+     */
+    private String formatAsText(List<DecisionStat> rules, List<DecisionStat> decisions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Quest 语法决策剖析 ===\n");
+        sb.append("文件数: ").append(totalFiles).append("，失败: ").append(errorFiles)
+                .append("，预测模式: ").append(sll ? "SLL" : "LL")
+                .append("，解析耗时: ").append(String.format("%.2fms", parseNanos / 1e6)).append("\n\n");
+
+        String header = String.format("%-10s %-28s %12s %10s %12s %7s %12s %7s %8s %6s %6s%n",
+                "decision", "rule", "invocations", "time(ms)", "SLL_look", "SLL_max", "LL_look", "LL_max", "fallback", "amb", "ctx");
+
+        sb.append("--- 按规则 ---\n").append(header);
+        rules.forEach(stat -> appendTextRow(sb, "-", stat));
+
+        sb.append("\n--- 按决策点 ---\n").append(header);
+        for (DecisionStat stat : decisions) {
+            appendTextRow(sb, "d" + stat.getDecision(), stat);
+            if (verbose && stat.getAmbiguitySample() != null) {
+                sb.append("           歧义示例: ").append(stat.getAmbiguitySample()).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 输出一行文本统计
+     */
+    private void appendTextRow(StringBuilder sb, String decision, DecisionStat stat) {
+        sb.append(String.format("%-10s %-28s %12d %10.2f %12d %7d %12d %7d %8d %6d %6d%n",
+                decision, stat.getRuleName(), stat.getInvocations(), stat.getTimeNanos() / 1e6,
+                stat.getSllTotalLook(), stat.getSllMaxLook(), stat.getLlTotalLook(), stat.getLlMaxLook(),
+                stat.getLlFallback(), stat.getAmbiguities(), stat.getContextSensitivities()));
+    }
+
+    /**
+     * 格式化为 JSON 输出
+     */
+    private String formatAsJson(List<DecisionStat> rules, List<DecisionStat> decisions) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"files\": ").append(totalFiles).append(",\n");
+        sb.append("  \"errorFiles\": ").append(errorFiles).append(",\n");
+        sb.append("  \"predictionMode\": \"").append(sll ? "SLL" : "LL").append("\",\n");
+        sb.append("  \"parseTimeMs\": ").append(String.format("%.3f", parseNanos / 1e6)).append(",\n");
+
+        sb.append("  \"rules\": [\n");
+        for (int i = 0; i < rules.size(); i++) {
+            appendJsonRow(sb, rules.get(i), false);
+            sb.append(i < rules.size() - 1 ? ",\n" : "\n");
+        }
+        sb.append("  ],\n");
+
+        sb.append("  \"decisions\": [\n");
+        for (int i = 0; i < decisions.size(); i++) {
+            appendJsonRow(sb, decisions.get(i), true);
+            sb.append(i < decisions.size() - 1 ? ",\n" : "\n");
+        }
+        sb.append("  ]\n}");
+        return sb.toString();
+    }
+
+    /**
+     * 输出一个 JSON 统计对象
+     */
+    private void appendJsonRow(StringBuilder sb, DecisionStat stat, boolean withDecision) {
+        sb.append("    {");
+        if (withDecision) {
+            sb.append("\"decision\": ").append(stat.getDecision()).append(", ");
+        }
+        sb.append("\"rule\": \"").append(stat.getRuleName()).append("\", ");
+        sb.append("\"invocations\": ").append(stat.getInvocations()).append(", ");
+        sb.append("\"timeMs\": ").append(String.format("%.3f", stat.getTimeNanos() / 1e6)).append(", ");
+        sb.append("\"sllTotalLook\": ").append(stat.getSllTotalLook()).append(", ");
+        sb.append("\"sllMaxLook\": ").append(stat.getSllMaxLook()).append(", ");
+        sb.append("\"llTotalLook\": ").append(stat.getLlTotalLook()).append(", ");
+        sb.append("\"llMaxLook\": ").append(stat.getLlMaxLook()).append(", ");
+        sb.append("\"llFallback\": ").append(stat.getLlFallback()).append(", ");
+        sb.append("\"ambiguities\": ").append(stat.getAmbiguities()).append(", ");
+        sb.append("\"contextSensitivities\": ").append(stat.getContextSensitivities());
+        if (withDecision && stat.getAmbiguitySample() != null) {
+            sb.append(", \"ambiguitySample\": \"").append(JsonUtils.escape(stat.getAmbiguitySample())).append("\"");
+        }
+        sb.append("}");
+    }
+
+    /**
+     * 决策点统计内部类，规则维度的统计复用同一结构
+     */
+    private static class DecisionStat {
+        private final int decision;
+        private final String ruleName;
+        private long invocations;
+        private long timeNanos;
+        private long sllTotalLook;
+        private long sllMaxLook;
+        private long llTotalLook;
+        private long llMaxLook;
+        private long llFallback;
+        private long ambiguities;
+        private long contextSensitivities;
+        private String ambiguitySample;
+
+        public DecisionStat(int decision, String ruleName) {
+            this.decision = decision;
+            this.ruleName = ruleName;
+        }
+
+        /**
+         * 累加一次解析的决策信息，歧义示例取自当前 token 流，必须在下次 acquire 之前调用
+         */
+        public void add(DecisionInfo info, TokenStream tokens) {
+            invocations += info.invocations;
+            timeNanos += info.timeInPrediction;
+            sllTotalLook += info.SLL_TotalLook;
+            sllMaxLook = Math.max(sllMaxLook, info.SLL_MaxLook);
+            llTotalLook += info.LL_TotalLook;
+            llMaxLook = Math.max(llMaxLook, info.LL_MaxLook);
+            llFallback += info.LL_Fallback;
+            ambiguities += info.ambiguities.size();
+            contextSensitivities += info.contextSensitivities.size();
+            if (ambiguitySample == null && !info.ambiguities.isEmpty()) {
+                AmbiguityInfo ambiguity = info.ambiguities.get(0);
+                ambiguitySample = tokens.getText(Interval.of(ambiguity.startIndex, ambiguity.stopIndex))
+                        + " alts=" + ambiguity.ambigAlts;
+            }
+        }
+
+        /**
+         * 合并另一个决策点的统计
+         */
+        public void merge(DecisionStat other) {
+            invocations += other.invocations;
+            timeNanos += other.timeNanos;
+            sllTotalLook += other.sllTotalLook;
+            sllMaxLook = Math.max(sllMaxLook, other.sllMaxLook);
+            llTotalLook += other.llTotalLook;
+            llMaxLook = Math.max(llMaxLook, other.llMaxLook);
+            llFallback += other.llFallback;
+            ambiguities += other.ambiguities;
+            contextSensitivities += other.contextSensitivities;
+        }
+
+        public int getDecision() {
+            return decision;
+        }
+
+        public String getRuleName() {
+            return ruleName;
+        }
+
+        public long getInvocations() {
+            return invocations;
+        }
+
+        public long getTimeNanos() {
+            return timeNanos;
+        }
+
+        public long getSllTotalLook() {
+            return sllTotalLook;
+        }
+
+        public long getSllMaxLook() {
+            return sllMaxLook;
+        }
+
+        public long getLlTotalLook() {
+            return llTotalLook;
+        }
+
+        public long getLlMaxLook() {
+            return llMaxLook;
+        }
+
+        public long getLlFallback() {
+            return llFallback;
+        }
+
+        public long getAmbiguities() {
+            return ambiguities;
+        }
+
+        public long getContextSensitivities() {
+            return contextSensitivities;
+        }
+
+        public String getAmbiguitySample() {
+            return ambiguitySample;
+        }
+    }
+}
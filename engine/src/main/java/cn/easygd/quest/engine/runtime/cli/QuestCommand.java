@@ -28,6 +28,8 @@ import java.util.concurrent.Callable;
         subcommands = {
                 ParseCommand.class,
                 ScannerCommand.class,
+                ProfileCommand.class,
+                CheckCommand.class,
         }
 )
 public class QuestCommand implements Callable<Integer> {
@@ -4,4 +4,24 @@ package cn.easygd.quest.engine.runtime.module;
  * @author VD
  */
 public class EntityModule extends QuestModule {
+
+    /**
+     * structural fingerprint of the entity module tokens
+     */
+    private long fingerprint;
+
+    /**
+     * fingerprint of the tokens of the entity module rule , see
+     * {@link cn.easygd.quest.engine.core.lexer.FingerprintTokenFactory#fingerprint}
+     *
+     * @return fingerprint , 0 when the tokens were not fingerprinted or the module is empty
+     */
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
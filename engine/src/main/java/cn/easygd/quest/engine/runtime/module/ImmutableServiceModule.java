@@ -0,0 +1,132 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.immutable.ImmutableStatement;
+import cn.easygd.quest.engine.runtime.statement.immutable.ImmutableStatements;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * immutable {@link ServiceModule}
+ *
+ * <p>
+ * all state is kept in final fields , statements are {@link ImmutableStatement}s and the statement maps are
+ * unmodifiable copies in the iteration order of the source module. a frozen module is safely published by the final
+ * field rule , it can be handed to concurrent emitters , caches and executors without copies or locks. put methods
+ * and setters throw {@link UnsupportedOperationException}.
+ * </p>
+ *
+ * @author VD
+ */
+public final class ImmutableServiceModule extends ServiceModule {
+
+    /**
+     * prd to service biz
+     */
+    private final String bizModule;
+
+    /**
+     * original script
+     */
+    private final ScriptSource scriptSource;
+
+    /**
+     * process statement map
+     */
+    private final Map<String, ProcessCodeStatement> processStatementMap;
+
+    /**
+     * function statement map
+     */
+    private final Map<String, FunctionCodeStatement> functionStatementMap;
+
+    private ImmutableServiceModule(ServiceModule module, Map<CodeStatement, CodeStatement> frozen) {
+        this.bizModule = module.getBizModule();
+        this.scriptSource = module.getScriptSource();
+        Map<String, ProcessCodeStatement> processes = new LinkedHashMap<>(module.getProcessStatementMap().size() * 2);
+        module.getProcessStatementMap().forEach((name, process) -> processes.put(name, ImmutableStatements.copyOf(process, frozen)));
+        this.processStatementMap = Collections.unmodifiableMap(processes);
+        Map<String, FunctionCodeStatement> functions = new LinkedHashMap<>(module.getFunctionStatementMap().size() * 2);
+        module.getFunctionStatementMap().forEach((name, function) -> functions.put(name, ImmutableStatements.copyOf(function, frozen)));
+        this.functionStatementMap = Collections.unmodifiableMap(functions);
+    }
+
+    /**
+     * immutable copy of a module
+     *
+     * @param module service module
+     * @return immutable module , {@code module} itself when it is immutable or {@code null}
+     */
+    public static ImmutableServiceModule copyOf(ServiceModule module) {
+        return copyOf(module, new IdentityHashMap<>());
+    }
+
+    /**
+     * immutable copy of a module , sharing statement copies with other modules
+     *
+     * @param module service module
+     * @param frozen copies of source statements , see {@link ImmutableStatements#copyOf(CodeStatement, Map)}
+     * @return immutable module , {@code module} itself when it is immutable or {@code null}
+     */
+    public static ImmutableServiceModule copyOf(ServiceModule module, Map<CodeStatement, CodeStatement> frozen) {
+        if (module == null || module instanceof ImmutableServiceModule) {
+            return (ImmutableServiceModule) module;
+        }
+        return new ImmutableServiceModule(module, frozen);
+    }
+
+    @Override
+    public void putProcessStatement(String processName, ProcessCodeStatement processStatement) {
+        throw new UnsupportedOperationException("immutable module");
+    }
+
+    @Override
+    public void putFunctionStatement(String functionName, FunctionCodeStatement functionStatement) {
+        throw new UnsupportedOperationException("immutable module");
+    }
+
+    @Override
+    public Map<String, ProcessCodeStatement> getProcessStatementMap() {
+        return processStatementMap;
+    }
+
+    @Override
+    public Map<String, FunctionCodeStatement> getFunctionStatementMap() {
+        return functionStatementMap;
+    }
+
+    @Override
+    public void setBizModule(String bizModule) {
+        throw new UnsupportedOperationException("immutable module");
+    }
+
+    @Override
+    public String getBizModule() {
+        return bizModule;
+    }
+
+    @Override
+    public String getOriginalScript() {
+        return scriptSource == null ? null : scriptSource.getText();
+    }
+
+    @Override
+    public void setOriginalScript(String originalScript) {
+        throw new UnsupportedOperationException("immutable module");
+    }
+
+    @Override
+    public ScriptSource getScriptSource() {
+        return scriptSource;
+    }
+
+    @Override
+    public void setScriptSource(ScriptSource scriptSource) {
+        throw new UnsupportedOperationException("immutable module");
+    }
+}
@@ -6,15 +6,32 @@ package cn.easygd.quest.engine.runtime.module;
 public abstract class QuestModule {
 
     /**
-     * original script
+     * original script , kept as a reference and materialised on demand
      */
-    private String originalScript;
+    private ScriptSource scriptSource;
 
     public String getOriginalScript() {
-        return originalScript;
+        return scriptSource == null ? null : scriptSource.getText();
     }
 
     public void setOriginalScript(String originalScript) {
-        this.originalScript = originalScript;
+        this.scriptSource = originalScript == null ? null : ScriptSource.of(originalScript);
+    }
+
+    /**
+     * structural fingerprint of the module , equal for scripts that only differ in whitespace and comments
+     *
+     * @return fingerprint , 0 when unknown
+     */
+    public long getFingerprint() {
+        return 0L;
+    }
+
+    public ScriptSource getScriptSource() {
+        return scriptSource;
+    }
+
+    public void setScriptSource(ScriptSource scriptSource) {
+        this.scriptSource = scriptSource;
     }
 }
@@ -0,0 +1,108 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.utils.FileUtils;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.nio.file.Path;
+
+/**
+ * source reference of a script
+ *
+ * <p>
+ * a file backed source only keeps the path and the code point range , the text is decoded again from the file when
+ * {@link #getText()} is called and is not retained. scripts that never lived in a file keep their text.
+ * </p>
+ *
+ * @author VD
+ */
+public class ScriptSource {
+
+    /**
+     * file path , null for in memory scripts
+     */
+    private final Path path;
+
+    /**
+     * first code point index , inclusive
+     */
+    private final int startIndex;
+
+    /**
+     * last code point index , inclusive
+     */
+    private final int stopIndex;
+
+    /**
+     * in memory script text
+     */
+    private final String text;
+
+    private ScriptSource(Path path, int startIndex, int stopIndex, String text) {
+        this.path = path;
+        this.startIndex = startIndex;
+        this.stopIndex = stopIndex;
+        this.text = text;
+    }
+
+    /**
+     * source of an in memory script
+     *
+     * @param text script text
+     * @return source
+     */
+    public static ScriptSource of(String text) {
+        return new ScriptSource(null, 0, text.length() - 1, text);
+    }
+
+    /**
+     * source of a whole file , the range is taken from the char stream decoded from it
+     *
+     * @param path  file path
+     * @param input char stream of the file
+     * @return source
+     */
+    public static ScriptSource of(Path path, CharStream input) {
+        return of(path, 0, input.size() - 1);
+    }
+
+    /**
+     * source of a code point range of a file , the same indexes as {@link org.antlr.v4.runtime.Token#getStartIndex()}
+     *
+     * @param path       file path
+     * @param startIndex first code point index , inclusive
+     * @param stopIndex  last code point index , inclusive
+     * @return source
+     */
+    public static ScriptSource of(Path path, int startIndex, int stopIndex) {
+        return new ScriptSource(path, startIndex, stopIndex, null);
+    }
+
+    /**
+     * materialise the script text , file backed sources read the file again
+     *
+     * @return script text , null when the file can not be read
+     */
+    public String getText() {
+        if (text != null) {
+            return text;
+        }
+        CharStream input = FileUtils.getFileCharStream(path);
+        if (input == null) {
+            return null;
+        }
+        return input.getText(Interval.of(startIndex, stopIndex));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public int getStopIndex() {
+        return stopIndex;
+    }
+}
@@ -5,6 +5,7 @@ import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * @author VD
@@ -46,6 +47,31 @@ public class ServiceModule extends QuestModule {
         functionStatementMap.put(functionName, functionStatement);
     }
 
+    /**
+     * combined from the biz module and the fingerprints of the processes / functions , their statements are not
+     * read and the map order does not count
+     *
+     * @return fingerprint , 0 when a process / function has no fingerprint
+     */
+    @Override
+    public long getFingerprint() {
+        long statements = 0L;
+        for (ProcessCodeStatement process : getProcessStatementMap().values()) {
+            if (process.getFingerprint() == 0L) {
+                return 0L;
+            }
+            statements += mix(process.getFingerprint());
+        }
+        for (FunctionCodeStatement function : getFunctionStatementMap().values()) {
+            if (function.getFingerprint() == 0L) {
+                return 0L;
+            }
+            statements += mix(function.getFingerprint());
+        }
+        long fingerprint = mix(Objects.hashCode(getBizModule()) * 0x9E3779B97F4A7C15L + statements);
+        return fingerprint == 0L ? 1L : fingerprint;
+    }
+
     public Map<String, ProcessCodeStatement> getProcessStatementMap() {
         return processStatementMap;
     }
@@ -61,4 +87,16 @@ public class ServiceModule extends QuestModule {
     public String getBizModule() {
         return bizModule;
     }
+
+    /**
+     * 64 bit finaliser of murmur3
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
 }
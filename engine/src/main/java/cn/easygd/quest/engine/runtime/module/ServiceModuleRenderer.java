@@ -0,0 +1,167 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.runtime.statement.CodeFormat;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * renders the processes and functions of a {@link ServiceModule} into one {@link Appendable}
+ *
+ * <p>
+ * blocks are written in a fixed order whatever the map order of the module : processes sorted by name , then
+ * functions sorted by name , a {@code null} name after the others , one empty line between two blocks. a renderer
+ * with a {@link ForkJoinPool} renders every block as a task of the pool into its own segment and writes the segments
+ * in that order , each as soon as it and the ones before it are done , so the output is the same as the sequential
+ * one. before the blocks are handed to the pool a mutable module is frozen on the calling thread with
+ * {@link ImmutableServiceModule#copyOf(ServiceModule)} : the tasks only read immutable statements , lazy bodies are
+ * built by the copy , and a module changed by the caller afterwards does not change the output. an immutable module
+ * is rendered as is and may be rendered by several renderers at a time.
+ * </p>
+ *
+ * <p>
+ * IO errors of the sink are thrown as {@link UncheckedIOException} like {@link CodeWriter} does. a renderer holds no
+ * state of its own and can be shared between threads.
+ * </p>
+ *
+ * @author VD
+ */
+public class ServiceModuleRenderer {
+
+    /**
+     * layout
+     */
+    private final CodeFormat format;
+
+    /**
+     * pool rendering the blocks , {@code null} to render them one by one on the calling thread
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * sequential renderer , default layout
+     */
+    public ServiceModuleRenderer() {
+        this(CodeFormat.DEFAULT, null);
+    }
+
+    /**
+     * @param format layout
+     * @param pool   pool rendering the blocks in parallel , {@code null} to render them on the calling thread
+     */
+    public ServiceModuleRenderer(CodeFormat format, ForkJoinPool pool) {
+        this.format = Objects.requireNonNull(format, "format");
+        this.pool = pool;
+    }
+
+    /**
+     * render a module
+     *
+     * @param module service module
+     * @return code of the processes and functions
+     */
+    public String render(ServiceModule module) {
+        StringBuilder sb = new StringBuilder();
+        render(module, sb);
+        return sb.toString();
+    }
+
+    /**
+     * render a module into a sink
+     *
+     * @param module service module
+     * @param out    sink
+     */
+    public void render(ServiceModule module, Appendable out) {
+        List<CodeStatement> blocks = blocks(pool == null ? module : ImmutableServiceModule.copyOf(module));
+        if (pool == null || blocks.size() < 2) {
+            for (int i = 0; i < blocks.size(); i++) {
+                separate(out, i);
+                new CodeWriter(out, format).write(blocks.get(i));
+            }
+            if (!blocks.isEmpty()) {
+                append(out, "\n");
+            }
+            return;
+        }
+
+        List<ForkJoinTask<StringBuilder>> segments = new ArrayList<>(blocks.size());
+        for (CodeStatement block : blocks) {
+            segments.add(pool.submit(() -> segment(block)));
+        }
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                StringBuilder segment = segments.get(i).join();
+                // written segments are released at once
+                segments.set(i, null);
+                separate(out, i);
+                append(out, segment);
+            }
+            append(out, "\n");
+        } catch (RuntimeException | Error e) {
+            for (ForkJoinTask<StringBuilder> segment : segments) {
+                if (segment != null) {
+                    segment.cancel(false);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * processes sorted by name , then functions sorted by name
+     */
+    private static List<CodeStatement> blocks(ServiceModule module) {
+        List<CodeStatement> blocks = new ArrayList<>(
+                module.getProcessStatementMap().size() + module.getFunctionStatementMap().size());
+        addSorted(module.getProcessStatementMap(), blocks);
+        addSorted(module.getFunctionStatementMap(), blocks);
+        return blocks;
+    }
+
+    /**
+     * statements of a map sorted by name , a {@code null} name ( a hash map takes one ) sorts last
+     */
+    private static void addSorted(Map<String, ? extends CodeStatement> statements, List<CodeStatement> blocks) {
+        List<String> names = new ArrayList<>(statements.keySet());
+        names.sort(Comparator.nullsLast(Comparator.naturalOrder()));
+        for (String name : names) {
+            blocks.add(statements.get(name));
+        }
+    }
+
+    /**
+     * render one block into its own segment
+     */
+    private StringBuilder segment(CodeStatement block) {
+        StringBuilder segment = new StringBuilder();
+        new CodeWriter(segment, format).write(block);
+        return segment;
+    }
+
+    /**
+     * empty line before every block but the first
+     */
+    private static void separate(Appendable out, int index) {
+        if (index > 0) {
+            append(out, "\n\n");
+        }
+    }
+
+    private static void append(Appendable out, CharSequence text) {
+        try {
+            out.append(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
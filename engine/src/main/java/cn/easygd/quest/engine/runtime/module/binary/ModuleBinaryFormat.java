@@ -0,0 +1,109 @@
+package cn.easygd.quest.engine.runtime.module.binary;
+
+/**
+ * binary module format , constants shared by {@link ModuleBinaryWriter} and {@link ModuleBinaryReader}
+ *
+ * <pre>
+ * stream    : magic "QMOD" , version varint , module*
+ * module    : kind varint , source , body
+ *             kind 1 service : biz string , process count varint , ( node fingerprint )* ,
+ *             function count varint , ( node fingerprint )*
+ *             kind 2 prd / kind 3 entity : nothing more
+ * source    : 0 none | 1 file : path string , start varint , stop varint | 2 text : text string
+ * node      : 0 missing child
+ *             | type ordinal + 1 varint , child count varint , [ token index ] , string* , node*
+ *             token index only for tokens : 0 null , zigzag + 1 otherwise. string count per type see
+ *             StatementSlots#stringCount , children follow depth first
+ * string    : 0 null | 1 inline utf-8 | 2 new utf-8 , appended to the string table | 3 + table index
+ * utf-8     : byte length varint , bytes
+ * fingerprint : 8 bytes , low byte first , since version 2
+ * varint    : unsigned LEB128 , 7 bits per byte , low bits first
+ * </pre>
+ *
+ * <p>
+ * the string table spans the whole stream , names and operators repeated across thousands of modules are written
+ * once. strings longer than {@link #MAX_TABLE_STRING_LENGTH} ( argument lists , script texts ) are written inline.
+ * </p>
+ *
+ * @author VD
+ */
+public final class ModuleBinaryFormat {
+
+    /**
+     * stream magic
+     */
+    static final byte[] MAGIC = {'Q', 'M', 'O', 'D'};
+
+    /**
+     * format version , bumped on every incompatible change
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * oldest version still read , version 1 has no fingerprints
+     */
+    static final int MIN_VERSION = 1;
+
+    /**
+     * service module kind
+     */
+    static final int SERVICE = 1;
+
+    /**
+     * prd module kind
+     */
+    static final int PRD = 2;
+
+    /**
+     * entity module kind
+     */
+    static final int ENTITY = 3;
+
+    /**
+     * no script source
+     */
+    static final int SOURCE_NONE = 0;
+
+    /**
+     * file backed script source
+     */
+    static final int SOURCE_FILE = 1;
+
+    /**
+     * in memory script source
+     */
+    static final int SOURCE_TEXT = 2;
+
+    /**
+     * missing child
+     */
+    static final int NO_NODE = 0;
+
+    /**
+     * null string
+     */
+    static final int STRING_NULL = 0;
+
+    /**
+     * inline string , not in the table
+     */
+    static final int STRING_INLINE = 1;
+
+    /**
+     * new string , appended to the table
+     */
+    static final int STRING_NEW = 2;
+
+    /**
+     * first table reference
+     */
+    static final int STRING_TABLE = 3;
+
+    /**
+     * longest string kept in the string table
+     */
+    static final int MAX_TABLE_STRING_LENGTH = 64;
+
+    private ModuleBinaryFormat() {
+    }
+}
@@ -0,0 +1,411 @@
+package cn.easygd.quest.engine.runtime.module.binary;
+
+import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.module.EntityModule;
+import cn.easygd.quest.engine.runtime.module.PrdModule;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.module.ScriptSource;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.StatementSlots;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static cn.easygd.quest.engine.runtime.module.binary.ModuleBinaryFormat.*;
+
+/**
+ * streaming reader of the binary module format , see {@link ModuleBinaryFormat}
+ *
+ * <p>
+ * modules are read one by one with {@link #read()} , statement trees are rebuilt as regular statement objects with an
+ * explicit work stack. not thread safe.
+ * </p>
+ *
+ * <p>
+ * the stream is not trusted : corrupt or truncated input fails with an {@link IOException} ( a
+ * {@link StreamCorruptedException} or an {@link EOFException} ) , never with a runtime exception. lengths and counts
+ * read from the stream only size buffers up to what was actually read , so a forged length can not allocate more
+ * than the input holds.
+ * </p>
+ *
+ * @author VD
+ */
+public class ModuleBinaryReader implements Closeable {
+
+    /**
+     * statement types by ordinal
+     */
+    private static final StatementType[] TYPES = StatementType.values();
+
+    /**
+     * longest utf-8 string read , in bytes
+     */
+    private static final int MAX_UTF8_LENGTH = 1 << 30;
+
+    /**
+     * largest children list capacity reserved before the children are read
+     */
+    private static final int MAX_INITIAL_CHILDREN = 1024;
+
+    /**
+     * source stream
+     */
+    private final InputStream in;
+
+    /**
+     * read buffer
+     */
+    private final byte[] buffer = new byte[8192];
+
+    /**
+     * next buffer byte
+     */
+    private int position;
+
+    /**
+     * filled buffer bytes
+     */
+    private int limit;
+
+    /**
+     * string table
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * format version of the stream
+     */
+    private final int version;
+
+    /**
+     * statements waiting for their children
+     */
+    private final List<Frame> frames = new ArrayList<>();
+
+    /**
+     * reads and checks the stream header
+     *
+     * @param in source stream , closed with the reader
+     * @throws IOException when the stream is no module stream or has an unsupported version
+     */
+    public ModuleBinaryReader(InputStream in) throws IOException {
+        this.in = in;
+        for (byte b : MAGIC) {
+            if (readByte() != b) {
+                throw new StreamCorruptedException("not a module stream");
+            }
+        }
+        version = readVarint();
+        if (version < MIN_VERSION || version > VERSION) {
+            throw new StreamCorruptedException("unsupported module format version : " + version);
+        }
+    }
+
+    /**
+     * read the next module
+     *
+     * @return module , {@code null} at the end of the stream
+     * @throws IOException when the stream is truncated or corrupt
+     */
+    public QuestModule read() throws IOException {
+        if (position == limit && !fill()) {
+            return null;
+        }
+        int kind = readVarint();
+        QuestModule module;
+        switch (kind) {
+            case SERVICE:
+                ServiceModule serviceModule = new ServiceModule();
+                serviceModule.setScriptSource(readSource());
+                serviceModule.setBizModule(readString());
+                for (int i = readVarint(); i > 0; i--) {
+                    ProcessCodeStatement process = readTree(ProcessCodeStatement.class);
+                    process.setFingerprint(readFingerprint());
+                    serviceModule.putProcessStatement(process.getName(), process);
+                }
+                for (int i = readVarint(); i > 0; i--) {
+                    FunctionCodeStatement function = readTree(FunctionCodeStatement.class);
+                    function.setFingerprint(readFingerprint());
+                    serviceModule.putFunctionStatement(function.getName(), function);
+                }
+                module = serviceModule;
+                break;
+            case PRD:
+                module = new PrdModule();
+                module.setScriptSource(readSource());
+                break;
+            case ENTITY:
+                module = new EntityModule();
+                module.setScriptSource(readSource());
+                break;
+            default:
+                throw new StreamCorruptedException("unknown module kind : " + kind);
+        }
+        return module;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * read a script source reference
+     */
+    private ScriptSource readSource() throws IOException {
+        int source = readVarint();
+        switch (source) {
+            case SOURCE_NONE:
+                return null;
+            case SOURCE_FILE:
+                String path = readString();
+                int startIndex = readVarint();
+                int stopIndex = readVarint();
+                if (path == null) {
+                    throw new StreamCorruptedException("missing script path");
+                }
+                try {
+                    return ScriptSource.of(Paths.get(path), startIndex, stopIndex);
+                } catch (InvalidPathException e) {
+                    throw corrupt("invalid script path : " + path, e);
+                }
+            case SOURCE_TEXT:
+                return ScriptSource.of(readString());
+            default:
+                throw new StreamCorruptedException("unknown script source : " + source);
+        }
+    }
+
+    /**
+     * read a statement tree of the expected root type
+     */
+    private <T extends CodeStatement> T readTree(Class<T> rootType) throws IOException {
+        CodeStatement root = readTree();
+        if (!rootType.isInstance(root)) {
+            throw new StreamCorruptedException("expected " + rootType.getSimpleName() + " , found " + root.type());
+        }
+        return rootType.cast(root);
+    }
+
+    /**
+     * read a statement tree , children are attached when the last one is read
+     */
+    private CodeStatement readTree() throws IOException {
+        CodeStatement statement;
+        do {
+            statement = null;
+            int tag = readVarint();
+            if (tag != NO_NODE) {
+                if (tag < 1 || tag > TYPES.length) {
+                    throw new StreamCorruptedException("unknown statement type : " + tag);
+                }
+                StatementType type = TYPES[tag - 1];
+                int childCount = readVarint();
+                Frame frame = new Frame(type, childCount);
+                if (type == StatementType.TOKEN) {
+                    int tokenIndex = readVarint();
+                    frame.tokenIndex = tokenIndex == 0 ? null : ((tokenIndex - 1) >>> 1) ^ -((tokenIndex - 1) & 1);
+                    frame.strings.add(null);
+                }
+                for (int i = stringCount(type, childCount) - frame.strings.size(); i > 0; i--) {
+                    frame.strings.add(readString());
+                }
+                if (childCount > 0) {
+                    frames.add(frame);
+                    continue;
+                }
+                statement = frame.pack();
+            }
+            // hand the finished statement to the waiting parents
+            while (!frames.isEmpty()) {
+                Frame parent = frames.get(frames.size() - 1);
+                parent.children.add(statement);
+                if (parent.children.size() < parent.childCount) {
+                    break;
+                }
+                frames.remove(frames.size() - 1);
+                statement = parent.pack();
+            }
+        } while (!frames.isEmpty());
+        if (statement == null) {
+            throw new StreamCorruptedException("missing root statement");
+        }
+        return statement;
+    }
+
+    /**
+     * string slots of a node , only types with a slot layout are written
+     */
+    private static int stringCount(StatementType type, int childCount) throws StreamCorruptedException {
+        try {
+            return StatementSlots.stringCount(type, childCount);
+        } catch (IllegalArgumentException e) {
+            throw corrupt("unknown statement type : " + type, e);
+        }
+    }
+
+    /**
+     * read the fingerprint of a process / function , 0 in version 1 streams
+     */
+    private long readFingerprint() throws IOException {
+        if (version < 2) {
+            return 0L;
+        }
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 8) {
+            value |= (readByte() & 0xFFL) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * read a string reference
+     */
+    private String readString() throws IOException {
+        int reference = readVarint();
+        switch (reference) {
+            case STRING_NULL:
+                return null;
+            case STRING_INLINE:
+                return readUtf8();
+            case STRING_NEW:
+                String value = readUtf8();
+                strings.add(value);
+                return value;
+            default:
+                int index = reference - STRING_TABLE;
+                if (index >= strings.size()) {
+                    throw new StreamCorruptedException("unknown string : " + index);
+                }
+                return strings.get(index);
+        }
+    }
+
+    /**
+     * read utf-8 bytes with their length
+     */
+    private String readUtf8() throws IOException {
+        int length = readVarint();
+        if (length > MAX_UTF8_LENGTH) {
+            throw new StreamCorruptedException("string too long : " + length);
+        }
+        if (length <= limit - position) {
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        // the array grows with the bytes read , not with the length the stream claims
+        byte[] bytes = new byte[Math.min(length, buffer.length * 8)];
+        int read = 0;
+        while (read < length) {
+            if (position == limit && !fill()) {
+                throw new EOFException("truncated module stream");
+            }
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, bytes.length * 2L));
+            }
+            int n = Math.min(limit - position, bytes.length - read);
+            System.arraycopy(buffer, position, bytes, read, n);
+            position += n;
+            read += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * read an unsigned varint , at most 31 bits
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 28; shift += 7) {
+            byte b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        // the fifth byte holds bits 28 to 30 , anything above would overflow into the sign
+        byte b = readByte();
+        if ((b & 0xF8) != 0) {
+            throw new StreamCorruptedException("malformed varint");
+        }
+        return value | b << 28;
+    }
+
+    /**
+     * read one byte
+     */
+    private byte readByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("truncated module stream");
+        }
+        return buffer[position++];
+    }
+
+    private static StreamCorruptedException corrupt(String message, Exception cause) {
+        StreamCorruptedException e = new StreamCorruptedException(message);
+        e.initCause(cause);
+        return e;
+    }
+
+    /**
+     * refill the buffer
+     *
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * statement waiting for its children
+     */
+    private static class Frame {
+
+        private final StatementType type;
+
+        private final int childCount;
+
+        private final List<String> strings = new ArrayList<>(4);
+
+        private final List<CodeStatement> children;
+
+        private Integer tokenIndex;
+
+        private Frame(StatementType type, int childCount) {
+            this.type = type;
+            this.childCount = childCount;
+            this.children = new ArrayList<>(Math.min(childCount, MAX_INITIAL_CHILDREN));
+        }
+
+        /**
+         * build the statement , children of the wrong type or count are rejected by the casts of
+         * {@link StatementSlots#pack}
+         */
+        private CodeStatement pack() throws StreamCorruptedException {
+            try {
+                return StatementSlots.pack(type, tokenIndex, strings, children);
+            } catch (ClassCastException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw corrupt("malformed " + type + " statement", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package cn.easygd.quest.engine.runtime.module.binary;
+
+import cn.easygd.quest.engine.runtime.module.EntityModule;
+import cn.easygd.quest.engine.runtime.module.PrdModule;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.module.ScriptSource;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.StatementSlots;
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cn.easygd.quest.engine.runtime.module.binary.ModuleBinaryFormat.*;
+
+/**
+ * streaming writer of the binary module format , see {@link ModuleBinaryFormat}
+ *
+ * <p>
+ * modules are appended one by one with {@link #write(QuestModule)} , statement trees are written depth first with
+ * an explicit work stack. deferred bodies are built before they are written. not thread safe.
+ * </p>
+ *
+ * @author VD
+ */
+public class ModuleBinaryWriter implements Closeable, Flushable {
+
+    /**
+     * target stream
+     */
+    private final OutputStream out;
+
+    /**
+     * write buffer
+     */
+    private final byte[] buffer = new byte[8192];
+
+    /**
+     * used buffer bytes
+     */
+    private int position;
+
+    /**
+     * string table , string to index
+     */
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * work stack , statements to write , {@code null} for a missing child
+     */
+    private final List<CodeStatement> work = new ArrayList<>();
+
+    /**
+     * child slots of the statement being written
+     */
+    private final List<CodeStatement> children = new ArrayList<>();
+
+    /**
+     * string slots of the statement being written
+     */
+    private final List<String> slots = new ArrayList<>();
+
+    /**
+     * modules written
+     */
+    private int moduleCount;
+
+    /**
+     * writes the stream header
+     *
+     * @param out target stream , closed with the writer
+     * @throws IOException when the header can not be written
+     */
+    public ModuleBinaryWriter(OutputStream out) throws IOException {
+        this.out = out;
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeVarint(VERSION);
+    }
+
+    /**
+     * append a module
+     *
+     * @param module service , prd or entity module
+     * @throws IOException              when the module can not be written
+     * @throws IllegalArgumentException when the module kind or a statement type is not supported
+     */
+    public void write(QuestModule module) throws IOException {
+        if (module instanceof ServiceModule) {
+            writeVarint(SERVICE);
+            writeSource(module.getScriptSource());
+            ServiceModule serviceModule = (ServiceModule) module;
+            writeString(serviceModule.getBizModule());
+            writeVarint(serviceModule.getProcessStatementMap().size());
+            for (ProcessCodeStatement process : serviceModule.getProcessStatementMap().values()) {
+                writeTree(process);
+                writeFixed64(process.getFingerprint());
+            }
+            writeVarint(serviceModule.getFunctionStatementMap().size());
+            for (FunctionCodeStatement function : serviceModule.getFunctionStatementMap().values()) {
+                writeTree(function);
+                writeFixed64(function.getFingerprint());
+            }
+        } else if (module instanceof PrdModule) {
+            writeVarint(PRD);
+            writeSource(module.getScriptSource());
+        } else if (module instanceof EntityModule) {
+            writeVarint(ENTITY);
+            writeSource(module.getScriptSource());
+        } else {
+            throw new IllegalArgumentException("unsupported module : " + module);
+        }
+        moduleCount++;
+    }
+
+    /**
+     * modules written
+     *
+     * @return count
+     */
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    /**
+     * distinct strings in the string table
+     *
+     * @return size
+     */
+    public int getStringTableSize() {
+        return strings.size();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * write a script source reference
+     */
+    private void writeSource(ScriptSource source) throws IOException {
+        if (source == null) {
+            writeVarint(SOURCE_NONE);
+        } else if (source.getPath() != null) {
+            writeVarint(SOURCE_FILE);
+            writeString(source.getPath().toString());
+            writeVarint(source.getStartIndex());
+            writeVarint(source.getStopIndex());
+        } else {
+            writeVarint(SOURCE_TEXT);
+            writeString(source.getText());
+        }
+    }
+
+    /**
+     * write a statement tree depth first
+     */
+    private void writeTree(CodeStatement root) throws IOException {
+        work.add(root);
+        while (!work.isEmpty()) {
+            CodeStatement statement = work.remove(work.size() - 1);
+            if (statement == null) {
+                writeVarint(NO_NODE);
+                continue;
+            }
+            children.clear();
+            slots.clear();
+            StatementSlots.unpack(statement, children, slots);
+
+            writeVarint(statement.type().ordinal() + 1);
+            writeVarint(children.size());
+            int first = 0;
+            if (statement instanceof TokenCodeStatement) {
+                Integer tokenIndex = ((TokenCodeStatement) statement).getTokenIndex();
+                writeVarint(tokenIndex == null ? 0 : ((tokenIndex << 1) ^ (tokenIndex >> 31)) + 1);
+                first = 1;
+            }
+            for (int i = first; i < slots.size(); i++) {
+                writeString(slots.get(i));
+            }
+            // reversed , the first child is written next
+            for (int i = children.size() - 1; i >= 0; i--) {
+                work.add(children.get(i));
+            }
+        }
+    }
+
+    /**
+     * write a string reference
+     */
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarint(STRING_NULL);
+            return;
+        }
+        if (value.length() > MAX_TABLE_STRING_LENGTH) {
+            writeVarint(STRING_INLINE);
+            writeUtf8(value);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarint(STRING_TABLE + index);
+            return;
+        }
+        strings.put(value, strings.size());
+        writeVarint(STRING_NEW);
+        writeUtf8(value);
+    }
+
+    /**
+     * write utf-8 bytes with their length
+     */
+    private void writeUtf8(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * write an unsigned varint
+     */
+    private void writeVarint(int value) throws IOException {
+        if (buffer.length - position < 5) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * write 8 bytes , low byte first
+     */
+    private void writeFixed64(long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            writeByte((byte) value);
+            value >>>= 8;
+        }
+    }
+
+    /**
+     * write one byte
+     */
+    private void writeByte(byte value) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = value;
+    }
+}
@@ -0,0 +1,85 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import java.util.Objects;
+
+/**
+ * layout of the code rendered by a {@link CodeWriter} , immutable
+ *
+ * @author VD
+ */
+public final class CodeFormat {
+
+    /**
+     * 4 spaces , braces at the end of the line
+     */
+    public static final CodeFormat DEFAULT = new CodeFormat(4, BraceStyle.END_OF_LINE);
+
+    /**
+     * spaces per indent level
+     */
+    private final int indentWidth;
+
+    /**
+     * brace style
+     */
+    private final BraceStyle braceStyle;
+
+    private CodeFormat(int indentWidth, BraceStyle braceStyle) {
+        this.indentWidth = indentWidth;
+        this.braceStyle = braceStyle;
+    }
+
+    /**
+     * @param indentWidth spaces per indent level , 0 for no indentation
+     * @param braceStyle  brace style
+     * @return code format
+     * @throws IllegalArgumentException when the indent width is negative
+     */
+    public static CodeFormat of(int indentWidth, BraceStyle braceStyle) {
+        if (indentWidth < 0) {
+            throw new IllegalArgumentException("indent width must not be negative : " + indentWidth);
+        }
+        return new CodeFormat(indentWidth, Objects.requireNonNull(braceStyle, "brace style"));
+    }
+
+    public int getIndentWidth() {
+        return indentWidth;
+    }
+
+    public BraceStyle getBraceStyle() {
+        return braceStyle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CodeFormat)) {
+            return false;
+        }
+        CodeFormat that = (CodeFormat) o;
+        return indentWidth == that.indentWidth && braceStyle == that.braceStyle;
+    }
+
+    @Override
+    public int hashCode() {
+        return indentWidth * 31 + braceStyle.hashCode();
+    }
+
+    /**
+     * where an opening brace and a clause following a closing brace ( {@code else} ) go
+     */
+    public enum BraceStyle {
+
+        /**
+         * {@code if (a) {} else {}} , on the line of the statement
+         */
+        END_OF_LINE,
+
+        /**
+         * on a line of their own , aligned with the statement
+         */
+        NEXT_LINE
+    }
+}
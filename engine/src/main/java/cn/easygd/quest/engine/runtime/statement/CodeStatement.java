@@ -1,6 +1,7 @@
 package cn.easygd.quest.engine.runtime.statement;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.immutable.ImmutableStatement;
 
 /**
  * @author VD
@@ -12,11 +13,40 @@ import cn.easygd.quest.engine.runtime.enums.StatementType;
 public abstract class CodeStatement {
 
     /**
-     * build content
+     * cached rendering , only kept for immutable statement lists ( {@link ImmutableStatement} ) , see
+     * {@link CodeWriter}. always null on the mutable statements built by the parser. written racily like
+     * {@link String#hashCode()} , the rendering is published safely by its final fields
+     */
+    CodeWriter.Rendered rendered;
+
+    /**
+     * build content , laid out by {@link CodeFormat#DEFAULT} , see {@link #emit(CodeWriter)}
      *
      * @return content
      */
-    public abstract String buildContent();
+    public String buildContent() {
+        StringBuilder sb = new StringBuilder();
+        emit(new CodeWriter(sb));
+        return sb.toString();
+    }
+
+    /**
+     * write the content of the statement and its children into a writer
+     *
+     * @param writer code writer
+     */
+    public void emit(CodeWriter writer) {
+        writer.write(this);
+    }
+
+    /**
+     * write the content of this statement in output order , its own text with {@link CodeWriter#append(CharSequence)}
+     * and its children with {@link CodeWriter#append(CodeStatement)} , the writer renders the children later , see
+     * {@link CodeWriter}
+     *
+     * @param writer code writer
+     */
+    protected abstract void unfold(CodeWriter writer);
 
     /**
      * statement type
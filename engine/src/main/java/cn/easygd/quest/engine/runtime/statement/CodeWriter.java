@@ -0,0 +1,494 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import cn.easygd.quest.engine.runtime.statement.immutable.ImmutableStatement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * code writer , renders statement trees into one {@link Appendable}
+ *
+ * <p>
+ * every statement writes its own text with {@link #append(CharSequence)} and hands its children over with
+ * {@link #append(CodeStatement)} , see {@link CodeStatement#unfold(CodeWriter)}. text goes straight into the sink
+ * until the first child is handed over , the rest of the statement is queued behind the child on an explicit work
+ * stack. so every char is copied into the sink once whatever the nesting depth , no intermediate strings are built
+ * for the children , and the java stack depth does not grow with the nesting depth of the script.
+ * </p>
+ *
+ * <p>
+ * the writer lays the code out while it writes , in the same pass : statements mark their blocks with
+ * {@link #openBlock()} / {@link #closeBlock()} and the clauses after a block with {@link #clause(CharSequence)} , the
+ * writer places the braces by the {@link CodeFormat} and indents every line it starts by the open blocks. the
+ * indentation is written before the first char of a line , so empty lines stay empty.
+ * </p>
+ *
+ * <p>
+ * renderings of immutable statement lists ( processes , functions and blocks , see {@link ImmutableStatement} ) are
+ * memoised on the statement : the text written for one is kept as a slice of one string shared by all statements
+ * rendered by the same {@link #write(CodeStatement)} , and written again as it is the next time the statement is met
+ * with the same format at the same line position , whatever writer , depth or parent. mutable statements are rendered
+ * every time , without parent links a change below a statement could not reach its cached rendering.
+ * </p>
+ *
+ * <p>
+ * the visitors and listeners build mutable statements , so a module as parsed gets nothing from the memo : rendering
+ * it several times ( markdown , java , json ...) walks the whole tree every time. freeze it first with
+ * {@link cn.easygd.quest.engine.runtime.module.ImmutableServiceModule#copyOf} , as
+ * {@link cn.easygd.quest.engine.runtime.module.ServiceModuleRenderer} does when it renders on a pool. the first render
+ * of the copy records the text and is a little slower than rendering the mutable module , the ones after it mostly
+ * copy cached text.
+ * </p>
+ *
+ * <p>
+ * a {@code null} text or child is rendered as {@code "null"} like {@link String#format} did. IO errors of the sink
+ * are thrown as {@link UncheckedIOException}. a writer is not thread safe and must not be used again by the
+ * statements it is writing.
+ * </p>
+ *
+ * @author VD
+ */
+public class CodeWriter {
+
+    /**
+     * sink
+     */
+    private final Appendable out;
+
+    /**
+     * layout
+     */
+    private final CodeFormat format;
+
+    /**
+     * work stack , texts , marks and statements still to write
+     */
+    private final Deque<Object> stack = new ArrayDeque<>();
+
+    /**
+     * texts , marks and children queued by the statement being unfolded , in output order
+     */
+    private final List<Object> queued = new ArrayList<>();
+
+    /**
+     * the statement being unfolded handed over a child , its text is queued from now on
+     */
+    private boolean queueing;
+
+    /**
+     * open blocks
+     */
+    private int depth;
+
+    /**
+     * nothing written on the current line yet , its indentation is pending
+     */
+    private boolean lineStart = true;
+
+    /**
+     * spaces , grown to the deepest indentation written
+     */
+    private final StringBuilder spaces = new StringBuilder();
+
+    /**
+     * memoised statements being rendered , their text is recorded
+     */
+    private int recording;
+
+    /**
+     * text written while recording , since the start of the current {@link #write(CodeStatement)}
+     */
+    private final StringBuilder record = new StringBuilder();
+
+    /**
+     * memoised statements rendered by the current {@link #write(CodeStatement)} , cached once it is done
+     */
+    private final List<Capture> captured = new ArrayList<>();
+
+    /**
+     * @param out sink
+     */
+    public CodeWriter(Appendable out) {
+        this(out, CodeFormat.DEFAULT);
+    }
+
+    /**
+     * @param out    sink
+     * @param format layout
+     */
+    public CodeWriter(Appendable out, CodeFormat format) {
+        this.out = out;
+        this.format = Objects.requireNonNull(format, "format");
+    }
+
+    /**
+     * write a statement tree into the sink
+     *
+     * @param statement root statement
+     * @return this writer
+     */
+    public CodeWriter write(CodeStatement statement) {
+        stack.push(statement != null ? statement : "null");
+        while (!stack.isEmpty()) {
+            Object top = stack.pop();
+            if (top instanceof CodeStatement) {
+                unfold((CodeStatement) top);
+            } else if (top instanceof Capture) {
+                Capture capture = (Capture) top;
+                recording--;
+                capture.end = record.length();
+                captured.add(capture);
+            } else {
+                writeOut(top);
+            }
+        }
+        cache();
+        return this;
+    }
+
+    /**
+     * append text of the statement being unfolded , a line break in the text starts an indented line
+     *
+     * @param text text
+     * @return this writer
+     */
+    public CodeWriter append(CharSequence text) {
+        return add(text != null ? text : "null");
+    }
+
+    /**
+     * append a child of the statement being unfolded , it is written after the text appended so far
+     *
+     * @param statement child statement
+     * @return this writer
+     */
+    public CodeWriter append(CodeStatement statement) {
+        queueing = true;
+        queued.add(statement != null ? statement : "null");
+        return this;
+    }
+
+    /**
+     * open a block : write the opening brace by the brace style , the lines up to {@link #closeBlock()} are indented
+     * one more level
+     *
+     * @return this writer
+     */
+    public CodeWriter openBlock() {
+        return add(Mark.OPEN);
+    }
+
+    /**
+     * close the block opened last : write the closing brace on a line of its own
+     *
+     * @return this writer
+     */
+    public CodeWriter closeBlock() {
+        return add(Mark.CLOSE);
+    }
+
+    /**
+     * continue a statement after a closed block , as {@code else} , on the line of the closing brace or on the next
+     * one by the brace style
+     *
+     * @param keyword clause keyword
+     * @return this writer
+     */
+    public CodeWriter clause(CharSequence keyword) {
+        return add(new Clause(keyword != null ? keyword : "null"));
+    }
+
+    /**
+     * write a statement , from its cached rendering when there is one
+     */
+    private void unfold(CodeStatement statement) {
+        // statement lists : a cached expression or if costs as much to write as to render
+        boolean memoised = statement instanceof ImmutableStatement && statement instanceof CollectCodeStatement;
+        if (memoised) {
+            Rendered rendered = statement.rendered;
+            if (rendered != null && rendered.lineStart == lineStart && rendered.format.equals(format)) {
+                try {
+                    writeRendered(rendered);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            recording++;
+        }
+        // taken before the statement opens a block of its own
+        int start = record.length();
+        boolean startOfLine = lineStart;
+        int indent = depth * format.getIndentWidth();
+        statement.unfold(this);
+        queueing = false;
+        if (memoised) {
+            if (queued.isEmpty()) {
+                // empty , written as fast from its fields
+                recording--;
+            } else {
+                stack.push(new Capture(statement, start, startOfLine, indent));
+            }
+        }
+        for (int i = queued.size() - 1; i >= 0; i--) {
+            stack.push(queued.get(i));
+        }
+        queued.clear();
+    }
+
+    /**
+     * cache the renderings recorded by the current {@link #write(CodeStatement)}
+     */
+    private void cache() {
+        if (captured.isEmpty()) {
+            return;
+        }
+        String text = record.toString();
+        for (Capture capture : captured) {
+            capture.statement.rendered = new Rendered(format, capture.lineStart, capture.indent, text,
+                    capture.start, capture.end);
+        }
+        captured.clear();
+        record.setLength(0);
+    }
+
+    /**
+     * write or queue a text or mark
+     */
+    private CodeWriter add(Object item) {
+        if (queueing) {
+            queued.add(item);
+        } else {
+            writeOut(item);
+        }
+        return this;
+    }
+
+    /**
+     * write a text or mark into the sink
+     */
+    private void writeOut(Object item) {
+        try {
+            if (item == Mark.OPEN) {
+                if (!lineStart) {
+                    if (format.getBraceStyle() == CodeFormat.BraceStyle.NEXT_LINE) {
+                        newLine();
+                    } else {
+                        put(' ');
+                    }
+                }
+                indent();
+                put('{');
+                newLine();
+                depth++;
+            } else if (item == Mark.CLOSE) {
+                if (!lineStart) {
+                    newLine();
+                }
+                depth--;
+                indent();
+                put('}');
+            } else if (item instanceof Clause) {
+                if (!lineStart) {
+                    if (format.getBraceStyle() == CodeFormat.BraceStyle.NEXT_LINE) {
+                        newLine();
+                    } else {
+                        put(' ');
+                    }
+                }
+                writeText(((Clause) item).keyword);
+            } else {
+                writeText((CharSequence) item);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * write a text , indenting the lines it starts
+     */
+    private void writeText(CharSequence text) throws IOException {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '\n') {
+                if (i > start) {
+                    indent();
+                    put(text, start, i);
+                }
+                newLine();
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            indent();
+            put(text, start, length);
+        }
+    }
+
+    /**
+     * write a cached rendering , its lines are moved from the indentation it was rendered at to the current one
+     */
+    private void writeRendered(Rendered rendered) throws IOException {
+        String text = rendered.text;
+        int end = rendered.end;
+        int i = rendered.start;
+        boolean startOfLine = rendered.lineStart;
+        while (i < end) {
+            if (startOfLine) {
+                // empty lines have no indentation
+                for (int skip = rendered.indent; skip > 0 && i < end && text.charAt(i) == ' '; skip--) {
+                    i++;
+                }
+                startOfLine = false;
+            }
+            int lineEnd = text.indexOf('\n', i);
+            if (lineEnd < 0 || lineEnd > end) {
+                lineEnd = end;
+            }
+            if (lineEnd > i) {
+                indent();
+                put(text, i, lineEnd);
+            }
+            if (lineEnd < end) {
+                newLine();
+                startOfLine = true;
+            }
+            i = lineEnd + 1;
+        }
+    }
+
+    /**
+     * end the current line
+     */
+    private void newLine() throws IOException {
+        put('\n');
+        lineStart = true;
+    }
+
+    /**
+     * write the pending indentation of the current line
+     */
+    private void indent() throws IOException {
+        if (!lineStart) {
+            return;
+        }
+        lineStart = false;
+        int width = depth * format.getIndentWidth();
+        if (width <= 0) {
+            return;
+        }
+        while (spaces.length() < width) {
+            spaces.append(' ');
+        }
+        put(spaces, 0, width);
+    }
+
+    /**
+     * write a char into the sink
+     */
+    private void put(char c) throws IOException {
+        out.append(c);
+        if (recording > 0) {
+            record.append(c);
+        }
+    }
+
+    /**
+     * write chars into the sink
+     */
+    private void put(CharSequence text, int start, int end) throws IOException {
+        out.append(text, start, end);
+        if (recording > 0) {
+            record.append(text, start, end);
+        }
+    }
+
+    /**
+     * rendering of a memoised statement , a slice of the text recorded by one {@link #write(CodeStatement)}
+     */
+    static final class Rendered {
+
+        /**
+         * layout rendered with
+         */
+        private final CodeFormat format;
+
+        /**
+         * rendered at the start of a line
+         */
+        private final boolean lineStart;
+
+        /**
+         * indentation of the lines at the depth rendered at
+         */
+        private final int indent;
+
+        /**
+         * shared text
+         */
+        private final String text;
+
+        private final int start;
+
+        private final int end;
+
+        private Rendered(CodeFormat format, boolean lineStart, int indent, String text, int start, int end) {
+            this.format = format;
+            this.lineStart = lineStart;
+            this.indent = indent;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * end of a memoised statement being recorded , on the work stack behind its content
+     */
+    private static final class Capture {
+
+        private final CodeStatement statement;
+
+        private final int start;
+
+        private final boolean lineStart;
+
+        private final int indent;
+
+        private int end;
+
+        private Capture(CodeStatement statement, int start, boolean lineStart, int indent) {
+            this.statement = statement;
+            this.start = start;
+            this.lineStart = lineStart;
+            this.indent = indent;
+        }
+    }
+
+    /**
+     * block marks
+     */
+    private enum Mark {
+        OPEN,
+        CLOSE
+    }
+
+    /**
+     * clause after a block
+     */
+    private static final class Clause {
+
+        private final CharSequence keyword;
+
+        private Clause(CharSequence keyword) {
+            this.keyword = keyword;
+        }
+    }
+}
@@ -2,10 +2,16 @@ package cn.easygd.quest.engine.runtime.statement;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * @author VD
+ *
+ * <p>
+ * the statements can be deferred ( see {@link #defer(Supplier)} ) , they are then built on the first
+ * {@link #getContent()} / {@link #buildContent()} or change , at most once even when several threads ask at the same
+ * time.
+ * </p>
  */
 public abstract class CollectCodeStatement extends CodeStatement{
 
@@ -15,24 +21,73 @@ public abstract class CollectCodeStatement extends CodeStatement{
     protected List<CodeStatement> content = new ArrayList<>();
 
     /**
-     * build content
+     * deferred statements , {@code null} once they are built
+     */
+    private volatile Supplier<List<CodeStatement>> deferred;
+
+    /**
+     * write content , children joined by line breaks
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return content.stream().map(CodeStatement::buildContent).collect(Collectors.joining("\n"));
+    protected void unfold(CodeWriter writer) {
+        List<CodeStatement> children = getContent();
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                writer.append("\n");
+            }
+            writer.append(children.get(i));
+        }
+    }
+
+    /**
+     * defer the statements , they are built by {@code body} when first needed and added before any statement added
+     * later
+     *
+     * @param body builds the statements
+     */
+    public void defer(Supplier<List<CodeStatement>> body) {
+        this.deferred = body;
+    }
+
+    /**
+     * statements built
+     *
+     * @return false while the statements are deferred
+     */
+    public boolean isMaterialised() {
+        return deferred == null;
+    }
+
+    /**
+     * build deferred statements
+     */
+    private void materialise() {
+        if (deferred == null) {
+            return;
+        }
+        synchronized (this) {
+            Supplier<List<CodeStatement>> body = deferred;
+            if (body != null) {
+                this.content.addAll(0, body.get());
+                deferred = null;
+            }
+        }
     }
 
     public void add(CodeStatement content) {
+        materialise();
         this.content.add(content);
     }
 
     public void addAll(List<CodeStatement> content) {
+        materialise();
         this.content.addAll(content);
     }
 
     public List<CodeStatement> getContent() {
+        materialise();
         return content;
     }
 
@@ -0,0 +1,342 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * slot layout of the statement types
+ *
+ * <p>
+ * every statement type has a fixed order of child statements and strings , collections ( process , function , block
+ * ) have one child slot per statement. storage formats ( {@code CompactStatementTree} , the binary module format )
+ * keep a statement as its type and slots , {@link #unpack} reads the slots of a statement and {@link #pack} builds a
+ * statement from them again.
+ * </p>
+ *
+ * @author VD
+ */
+public final class StatementSlots {
+
+    private StatementSlots() {
+    }
+
+    /**
+     * child statements and strings of a statement in slot order , a missing child / string keeps its slot as
+     * {@code null}
+     *
+     * @param statement statement
+     * @param children  child slots
+     * @param strings   string slots , the first slot of a token is {@code null} , its token index is not a string
+     * @throws IllegalArgumentException when the statement type has no slot layout
+     */
+    public static void unpack(CodeStatement statement, List<CodeStatement> children, List<String> strings) {
+        switch (statement.type()) {
+            case PROCESS:
+                strings.add(((ProcessCodeStatement) statement).getName());
+                children.addAll(((CollectCodeStatement) statement).getContent());
+                break;
+            case FUNCTION:
+                FunctionCodeStatement function = (FunctionCodeStatement) statement;
+                Collections.addAll(strings, function.getUsageLevel(), function.getReturnType(), function.getName(),
+                        function.getParameters());
+                children.addAll(function.getContent());
+                break;
+            case BLOCK:
+                children.addAll(((BlockCodeStatement) statement).getContent());
+                break;
+            case VARIABLE:
+                VariableCodeStatement variable = (VariableCodeStatement) statement;
+                Collections.addAll(strings, variable.getVariableType(), variable.getVariableName());
+                children.add(variable.getExpr());
+                break;
+            case IF:
+                IfCodeStatement ifStatement = (IfCodeStatement) statement;
+                Collections.addAll(children, ifStatement.getCondition(), ifStatement.getBlock(), ifStatement.getElseBlock());
+                break;
+            case FOR:
+                ForCodeStatement forStatement = (ForCodeStatement) statement;
+                Collections.addAll(children, forStatement.getForControl(), forStatement.getForBlock());
+                break;
+            case WHILE:
+                WhileCodeStatement whileStatement = (WhileCodeStatement) statement;
+                Collections.addAll(children, whileStatement.getCondition(), whileStatement.getBlock());
+                break;
+            case EXPRESSION:
+                children.add(((ExprStrCodeStatement) statement).getExpr());
+                break;
+            case RETURN:
+                children.add(((ReturnCodeStatement) statement).getReturnValue());
+                break;
+            case NOTE:
+                strings.add(((NoteCodeStatement) statement).getNote());
+                break;
+            case TYPE:
+                strings.add(((TypeCodeStatement) statement).getContent());
+                break;
+            case TOKEN:
+                TokenCodeStatement token = (TokenCodeStatement) statement;
+                // first slot stands for the token index
+                Collections.addAll(strings, null, token.getToken(), token.getValue());
+                break;
+            case FOR_CONTROL:
+                if (statement instanceof ForControlExprCodeStatement) {
+                    ForControlExprCodeStatement control = (ForControlExprCodeStatement) statement;
+                    Collections.addAll(children, control.getLeftExpr(), control.getRightExpr(), control.getConditionExpr());
+                } else {
+                    ForVariableDeclCodeStatement control = (ForVariableDeclCodeStatement) statement;
+                    Collections.addAll(strings, control.getVariableName(), control.getVariableType(),
+                            control.getVariableValue());
+                }
+                break;
+            case PRIMARY_EXPR:
+                strings.add(((PrimaryExprCodeStatement) statement).getPrimary());
+                break;
+            case ASSIGNMENT_EXPR:
+                AssignmentExprCodeStatement assignment = (AssignmentExprCodeStatement) statement;
+                Collections.addAll(strings, assignment.getVariable(), assignment.getAssignmentOperator());
+                children.add(assignment.getExpr());
+                break;
+            case BINARY_EXPR:
+                BinaryExprCodeStatement binary = (BinaryExprCodeStatement) statement;
+                strings.add(binary.getBinaryOperator());
+                Collections.addAll(children, binary.getLeftExpr(), binary.getRightExpr());
+                break;
+            case POSTFIX_EXPR:
+                PostFixExprCodeStatement postfix = (PostFixExprCodeStatement) statement;
+                strings.add(postfix.getPostfix());
+                children.add(postfix.getExpr());
+                break;
+            case PREFIX_EXPR:
+                PrefixExprCodeStatement prefix = (PrefixExprCodeStatement) statement;
+                strings.add(prefix.getPrefix());
+                children.add(prefix.getExpr());
+                break;
+            case TERNARY_EXPR:
+                TernaryExprCodeStatement ternary = (TernaryExprCodeStatement) statement;
+                Collections.addAll(children, ternary.getCondition(), ternary.getTrueExpr(), ternary.getFalseExpr());
+                break;
+            case CAST_EXPR:
+                CastExprCodeStatement cast = (CastExprCodeStatement) statement;
+                strings.add(cast.getCastType());
+                children.add(cast.getExpr());
+                break;
+            case ARRAY_ACCESS_EXPR:
+                ArrayExprCodeStatement array = (ArrayExprCodeStatement) statement;
+                Collections.addAll(children, array.getLeftExpr(), array.getRightExpr());
+                break;
+            case CLASS_METHOD_INVOKE_EXPR:
+                ClassMethodInvokeExprCodeStatement classMethod = (ClassMethodInvokeExprCodeStatement) statement;
+                Collections.addAll(strings, classMethod.getClassName(), classMethod.getMethodName(),
+                        classMethod.getArguments());
+                break;
+            case FUNCTION_INVOKE_EXPR:
+                FunctionInvokeCodeStatement functionInvoke = (FunctionInvokeCodeStatement) statement;
+                Collections.addAll(strings, functionInvoke.getFunctionName(), functionInvoke.getArguments());
+                break;
+            case NEW_EXPR:
+                NewExprCodeStatement newExpr = (NewExprCodeStatement) statement;
+                Collections.addAll(strings, newExpr.getClassType(), newExpr.getArguments());
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported statement type : " + statement.type());
+        }
+    }
+
+    /**
+     * string slot count of a statement type
+     *
+     * @param type       statement type
+     * @param childCount child slot count , tells the two for control layouts apart
+     * @return string slot count
+     * @throws IllegalArgumentException when the statement type has no slot layout
+     */
+    public static int stringCount(StatementType type, int childCount) {
+        switch (type) {
+            case PROCESS:
+            case NOTE:
+            case TYPE:
+            case PRIMARY_EXPR:
+            case BINARY_EXPR:
+            case POSTFIX_EXPR:
+            case PREFIX_EXPR:
+            case CAST_EXPR:
+                return 1;
+            case VARIABLE:
+            case ASSIGNMENT_EXPR:
+            case FUNCTION_INVOKE_EXPR:
+            case NEW_EXPR:
+                return 2;
+            case TOKEN:
+            case CLASS_METHOD_INVOKE_EXPR:
+                return 3;
+            case FUNCTION:
+                return 4;
+            case FOR_CONTROL:
+                return childCount > 0 ? 0 : 3;
+            case BLOCK:
+            case IF:
+            case FOR:
+            case WHILE:
+            case EXPRESSION:
+            case RETURN:
+            case TERNARY_EXPR:
+            case ARRAY_ACCESS_EXPR:
+                return 0;
+            default:
+                throw new IllegalArgumentException("unsupported statement type : " + type);
+        }
+    }
+
+    /**
+     * build a statement from its slots , the inverse of {@link #unpack}
+     *
+     * @param type       statement type
+     * @param tokenIndex token index of a token , ignored for other types
+     * @param strings    string slots
+     * @param children   child slots , a for control without children is a variable declaration
+     * @return statement
+     * @throws IllegalArgumentException when the statement type has no slot layout
+     */
+    public static CodeStatement pack(StatementType type, Integer tokenIndex, List<String> strings,
+                                     List<CodeStatement> children) {
+        switch (type) {
+            case PROCESS:
+                ProcessCodeStatement process = new ProcessCodeStatement();
+                process.setName(strings.get(0));
+                process.addAll(children);
+                return process;
+            case FUNCTION:
+                FunctionCodeStatement function = new FunctionCodeStatement();
+                function.setUsageLevel(strings.get(0));
+                function.setReturnType(strings.get(1));
+                function.setName(strings.get(2));
+                function.setParameters(strings.get(3));
+                function.addAll(children);
+                return function;
+            case BLOCK:
+                BlockCodeStatement block = new BlockCodeStatement();
+                block.addAll(children);
+                return block;
+            case VARIABLE:
+                VariableCodeStatement variable = new VariableCodeStatement();
+                variable.setVariableType(strings.get(0));
+                variable.setVariableName(strings.get(1));
+                variable.setExpr((ExpressionCodeStatement) children.get(0));
+                return variable;
+            case IF:
+                IfCodeStatement ifStatement = new IfCodeStatement();
+                ifStatement.setCondition((ExpressionCodeStatement) children.get(0));
+                ifStatement.setBlock((BlockCodeStatement) children.get(1));
+                ifStatement.setElseBlock((BlockCodeStatement) children.get(2));
+                return ifStatement;
+            case FOR:
+                ForCodeStatement forStatement = new ForCodeStatement();
+                forStatement.setForControl((ForControlCodeStatement) children.get(0));
+                forStatement.setForBlock((BlockCodeStatement) children.get(1));
+                return forStatement;
+            case WHILE:
+                WhileCodeStatement whileStatement = new WhileCodeStatement();
+                whileStatement.setCondition((ExpressionCodeStatement) children.get(0));
+                whileStatement.setBlock((BlockCodeStatement) children.get(1));
+                return whileStatement;
+            case EXPRESSION:
+                ExprStrCodeStatement exprStr = new ExprStrCodeStatement();
+                exprStr.setExpr((ExpressionCodeStatement) children.get(0));
+                return exprStr;
+            case RETURN:
+                ReturnCodeStatement returnStatement = new ReturnCodeStatement();
+                returnStatement.setReturnValue((ExpressionCodeStatement) children.get(0));
+                return returnStatement;
+            case NOTE:
+                NoteCodeStatement note = new NoteCodeStatement();
+                note.setNote(strings.get(0));
+                return note;
+            case TYPE:
+                TypeCodeStatement typeStatement = new TypeCodeStatement();
+                typeStatement.add(strings.get(0));
+                return typeStatement;
+            case TOKEN:
+                TokenCodeStatement token = new TokenCodeStatement();
+                token.setTokenIndex(tokenIndex);
+                token.setToken(strings.get(1));
+                token.setValue(strings.get(2));
+                return token;
+            case FOR_CONTROL:
+                if (!children.isEmpty()) {
+                    ForControlExprCodeStatement control = new ForControlExprCodeStatement();
+                    control.setLeftExpr((ExpressionCodeStatement) children.get(0));
+                    control.setRightExpr((ExpressionCodeStatement) children.get(1));
+                    control.setConditionExpr((ExpressionCodeStatement) children.get(2));
+                    return control;
+                }
+                ForVariableDeclCodeStatement decl = new ForVariableDeclCodeStatement();
+                decl.setVariableName(strings.get(0));
+                decl.setVariableType(strings.get(1));
+                decl.setVariableValue(strings.get(2));
+                return decl;
+            case PRIMARY_EXPR:
+                PrimaryExprCodeStatement primary = new PrimaryExprCodeStatement();
+                primary.setPrimary(strings.get(0));
+                return primary;
+            case ASSIGNMENT_EXPR:
+                AssignmentExprCodeStatement assignment = new AssignmentExprCodeStatement();
+                assignment.setVariable(strings.get(0));
+                assignment.setAssignmentOperator(strings.get(1));
+                assignment.setExpr((ExpressionCodeStatement) children.get(0));
+                return assignment;
+            case BINARY_EXPR:
+                BinaryExprCodeStatement binary = new BinaryExprCodeStatement();
+                binary.setBinaryOperator(strings.get(0));
+                binary.setLeftExpr((ExpressionCodeStatement) children.get(0));
+                binary.setRightExpr((ExpressionCodeStatement) children.get(1));
+                return binary;
+            case POSTFIX_EXPR:
+                PostFixExprCodeStatement postfix = new PostFixExprCodeStatement();
+                postfix.setPostfix(strings.get(0));
+                postfix.setExpr((ExpressionCodeStatement) children.get(0));
+                return postfix;
+            case PREFIX_EXPR:
+                PrefixExprCodeStatement prefix = new PrefixExprCodeStatement();
+                prefix.setPrefix(strings.get(0));
+                prefix.setExpr((ExpressionCodeStatement) children.get(0));
+                return prefix;
+            case TERNARY_EXPR:
+                TernaryExprCodeStatement ternary = new TernaryExprCodeStatement();
+                ternary.setCondition((ExpressionCodeStatement) children.get(0));
+                ternary.setTrueExpr((ExpressionCodeStatement) children.get(1));
+                ternary.setFalseExpr((ExpressionCodeStatement) children.get(2));
+                return ternary;
+            case CAST_EXPR:
+                CastExprCodeStatement cast = new CastExprCodeStatement();
+                cast.setCastType(strings.get(0));
+                cast.setExpr((ExpressionCodeStatement) children.get(0));
+                return cast;
+            case ARRAY_ACCESS_EXPR:
+                ArrayExprCodeStatement array = new ArrayExprCodeStatement();
+                array.setLeftExpr((ExpressionCodeStatement) children.get(0));
+                array.setRightExpr((ExpressionCodeStatement) children.get(1));
+                return array;
+            case CLASS_METHOD_INVOKE_EXPR:
+                ClassMethodInvokeExprCodeStatement classMethod = new ClassMethodInvokeExprCodeStatement();
+                classMethod.setClassName(strings.get(0));
+                classMethod.setMethodName(strings.get(1));
+                classMethod.setArguments(strings.get(2));
+                return classMethod;
+            case FUNCTION_INVOKE_EXPR:
+                FunctionInvokeCodeStatement functionInvoke = new FunctionInvokeCodeStatement();
+                functionInvoke.setFunctionName(strings.get(0));
+                functionInvoke.setArguments(strings.get(1));
+                return functionInvoke;
+            case NEW_EXPR:
+                NewExprCodeStatement newExpr = new NewExprCodeStatement();
+                newExpr.setClassType(strings.get(0));
+                newExpr.setArguments(strings.get(1));
+                return newExpr;
+            default:
+                throw new IllegalArgumentException("unsupported statement type : " + type);
+        }
+    }
+}
@@ -31,16 +31,16 @@ public class TokenCodeStatement extends CodeStatement {
     private String value;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        if (SPACE_TOKEN_INDEX.contains(tokenIndex)) {
-            return String.format("%s ", value);
+    protected void unfold(CodeWriter writer) {
+        writer.append(getValue());
+        if (SPACE_TOKEN_INDEX.contains(getTokenIndex())) {
+            writer.append(" ");
         }
-        return value;
     }
 
     /**
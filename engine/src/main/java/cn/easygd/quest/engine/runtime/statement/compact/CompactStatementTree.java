@@ -0,0 +1,397 @@
+package cn.easygd.quest.engine.runtime.statement.compact;
+
+import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.StatementSlots;
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+
+import java.util.*;
+
+/**
+ * array backed statement tree
+ *
+ * <p>
+ * instead of one object per statement with its own strings and child list , the nodes of a module are stored in
+ * parallel int arrays : kind ( {@link StatementType} ordinal ) , first child slot , child count and first string slot.
+ * child slots hold node indexes , {@link #NONE} for a missing optional child ( else block , return value ... ) , so a
+ * child keeps its position. string slots hold indexes into a string pool shared by all nodes of the tree , a name
+ * repeated across processes is stored once.
+ * </p>
+ *
+ * <p>
+ * statements are appended as regular objects and handed back as read only flyweight views ( see
+ * {@link CompactViews} ) , which extend the regular statement classes and read their getters from the arrays. every
+ * getter creates a new view of the child node , only the arrays stay reachable from the module.
+ * </p>
+ *
+ * <p>
+ * appending is not thread safe , views can be read concurrently once the tree is published.
+ * </p>
+ *
+ * @author VD
+ */
+public class CompactStatementTree {
+
+    /**
+     * missing child / string
+     */
+    public static final int NONE = -1;
+
+    /**
+     * token index slot of a {@code null} token index
+     */
+    private static final int NO_TOKEN_INDEX = Integer.MIN_VALUE;
+
+    /**
+     * statement types by ordinal
+     */
+    private static final StatementType[] TYPES = StatementType.values();
+
+    /**
+     * node kind , statement type ordinal
+     */
+    private int[] kinds = new int[64];
+
+    /**
+     * first child slot of the node
+     */
+    private int[] firstChild = new int[64];
+
+    /**
+     * child count of the node
+     */
+    private int[] childCount = new int[64];
+
+    /**
+     * first string slot of the node
+     */
+    private int[] firstString = new int[64];
+
+    /**
+     * node count
+     */
+    private int nodeCount;
+
+    /**
+     * child slots , node indexes
+     */
+    private int[] childSlots = new int[64];
+
+    /**
+     * used child slots
+     */
+    private int childSlotCount;
+
+    /**
+     * string slots , pool indexes ( the raw token index for the first slot of a token )
+     */
+    private int[] stringSlots = new int[64];
+
+    /**
+     * used string slots
+     */
+    private int stringSlotCount;
+
+    /**
+     * string pool
+     */
+    private String[] pool = new String[64];
+
+    /**
+     * pool size
+     */
+    private int poolSize;
+
+    /**
+     * pool index by string , only needed while appending , dropped by {@link #trim()}
+     */
+    private Map<String, Integer> poolIndex = new HashMap<>();
+
+    /**
+     * append a process
+     *
+     * @param process process statement
+     * @return read only view of the process
+     */
+    public ProcessCodeStatement add(ProcessCodeStatement process) {
+        return new CompactViews.Process(this, encode(process), process.getFingerprint());
+    }
+
+    /**
+     * append a function
+     *
+     * @param function function statement
+     * @return read only view of the function
+     */
+    public FunctionCodeStatement add(FunctionCodeStatement function) {
+        return new CompactViews.Function(this, encode(function), function.getFingerprint());
+    }
+
+    /**
+     * shrink the arrays to their used size and drop the append index , appending afterwards is still possible
+     */
+    public void trim() {
+        kinds = Arrays.copyOf(kinds, nodeCount);
+        firstChild = Arrays.copyOf(firstChild, nodeCount);
+        childCount = Arrays.copyOf(childCount, nodeCount);
+        firstString = Arrays.copyOf(firstString, nodeCount);
+        childSlots = Arrays.copyOf(childSlots, childSlotCount);
+        stringSlots = Arrays.copyOf(stringSlots, stringSlotCount);
+        pool = Arrays.copyOf(pool, poolSize);
+        poolIndex = null;
+    }
+
+    /**
+     * node count
+     *
+     * @return node count
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * distinct strings
+     *
+     * @return pool size
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * encode a statement tree , children are appended with an explicit work stack
+     *
+     * @param root root statement
+     * @return root node
+     */
+    private int encode(CodeStatement root) {
+        List<CodeStatement> children = new ArrayList<>();
+        List<String> strings = new ArrayList<>();
+        Deque<CodeStatement> pending = new ArrayDeque<>();
+        int[] pendingNodes = new int[16];
+
+        int rootNode = nodeCount++;
+        ensureNodeCapacity();
+        pending.push(root);
+        pendingNodes[0] = rootNode;
+
+        while (!pending.isEmpty()) {
+            CodeStatement statement = pending.pop();
+            int node = pendingNodes[pending.size()];
+
+            children.clear();
+            strings.clear();
+            StatementSlots.unpack(statement, children, strings);
+
+            kinds[node] = statement.type().ordinal();
+            firstString[node] = stringSlotCount;
+            for (int i = 0; i < strings.size(); i++) {
+                if (i == 0 && statement instanceof TokenCodeStatement) {
+                    Integer tokenIndex = ((TokenCodeStatement) statement).getTokenIndex();
+                    appendString(tokenIndex == null ? NO_TOKEN_INDEX : tokenIndex);
+                } else {
+                    appendString(intern(strings.get(i)));
+                }
+            }
+
+            firstChild[node] = childSlotCount;
+            childCount[node] = children.size();
+            ensureChildCapacity(children.size());
+            childSlotCount += children.size();
+            for (int i = 0; i < children.size(); i++) {
+                CodeStatement child = children.get(i);
+                if (child == null) {
+                    childSlots[firstChild[node] + i] = NONE;
+                    continue;
+                }
+                int childNode = nodeCount++;
+                ensureNodeCapacity();
+                childSlots[firstChild[node] + i] = childNode;
+                if (pending.size() == pendingNodes.length) {
+                    pendingNodes = Arrays.copyOf(pendingNodes, pendingNodes.length * 2);
+                }
+                pendingNodes[pending.size()] = childNode;
+                pending.push(child);
+            }
+        }
+        return rootNode;
+    }
+
+    /**
+     * view of a node
+     *
+     * @param node node index , {@link #NONE} for a missing child
+     * @param <S>  statement type
+     * @return view , {@code null} for a missing child
+     */
+    @SuppressWarnings("unchecked")
+    <S extends CodeStatement> S view(int node) {
+        if (node == NONE) {
+            return null;
+        }
+        switch (TYPES[kinds[node]]) {
+            // processes and functions are roots , their views are created by add with the fingerprint
+            case PROCESS:
+                return (S) new CompactViews.Process(this, node, 0L);
+            case FUNCTION:
+                return (S) new CompactViews.Function(this, node, 0L);
+            case BLOCK:
+                return (S) new CompactViews.Block(this, node);
+            case VARIABLE:
+                return (S) new CompactViews.Variable(this, node);
+            case IF:
+                return (S) new CompactViews.If(this, node);
+            case FOR:
+                return (S) new CompactViews.For(this, node);
+            case WHILE:
+                return (S) new CompactViews.While(this, node);
+            case EXPRESSION:
+                return (S) new CompactViews.ExprStr(this, node);
+            case RETURN:
+                return (S) new CompactViews.Return(this, node);
+            case NOTE:
+                return (S) new CompactViews.Note(this, node);
+            case TYPE:
+                return (S) new CompactViews.Type(this, node);
+            case TOKEN:
+                return (S) new CompactViews.Token(this, node);
+            case FOR_CONTROL:
+                return childCount[node] > 0 ? (S) new CompactViews.ForControlExpr(this, node)
+                        : (S) new CompactViews.ForVariableDecl(this, node);
+            case PRIMARY_EXPR:
+                return (S) new CompactViews.PrimaryExpr(this, node);
+            case ASSIGNMENT_EXPR:
+                return (S) new CompactViews.AssignmentExpr(this, node);
+            case BINARY_EXPR:
+                return (S) new CompactViews.BinaryExpr(this, node);
+            case POSTFIX_EXPR:
+                return (S) new CompactViews.PostfixExpr(this, node);
+            case PREFIX_EXPR:
+                return (S) new CompactViews.PrefixExpr(this, node);
+            case TERNARY_EXPR:
+                return (S) new CompactViews.TernaryExpr(this, node);
+            case CAST_EXPR:
+                return (S) new CompactViews.CastExpr(this, node);
+            case ARRAY_ACCESS_EXPR:
+                return (S) new CompactViews.ArrayExpr(this, node);
+            case CLASS_METHOD_INVOKE_EXPR:
+                return (S) new CompactViews.ClassMethodInvokeExpr(this, node);
+            case FUNCTION_INVOKE_EXPR:
+                return (S) new CompactViews.FunctionInvokeExpr(this, node);
+            case NEW_EXPR:
+                return (S) new CompactViews.NewExpr(this, node);
+            default:
+                throw new IllegalStateException("unsupported statement type : " + TYPES[kinds[node]]);
+        }
+    }
+
+    /**
+     * view of a child
+     *
+     * @param node  node index
+     * @param index child position
+     * @param <S>   statement type
+     * @return view , {@code null} for a missing child
+     */
+    <S extends CodeStatement> S child(int node, int index) {
+        return view(childSlots[firstChild[node] + index]);
+    }
+
+    /**
+     * views of all children , the list creates a view on every {@link List#get(int)}
+     *
+     * @param node node index
+     * @return unmodifiable child list
+     */
+    List<CodeStatement> children(int node) {
+        int first = firstChild[node];
+        int count = childCount[node];
+        return new AbstractList<CodeStatement>() {
+            @Override
+            public CodeStatement get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return view(childSlots[first + index]);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * string of a node
+     *
+     * @param node  node index
+     * @param index string position
+     * @return string
+     */
+    String string(int node, int index) {
+        int slot = stringSlots[firstString[node] + index];
+        return slot == NONE ? null : pool[slot];
+    }
+
+    /**
+     * token index of a token node
+     *
+     * @param node node index
+     * @return token index
+     */
+    Integer tokenIndex(int node) {
+        int slot = stringSlots[firstString[node]];
+        return slot == NO_TOKEN_INDEX ? null : slot;
+    }
+
+    /**
+     * pool index of a string
+     */
+    private int intern(String text) {
+        if (text == null) {
+            return NONE;
+        }
+        if (poolIndex == null) {
+            poolIndex = new HashMap<>(poolSize * 2);
+            for (int i = 0; i < poolSize; i++) {
+                poolIndex.put(pool[i], i);
+            }
+        }
+        Integer index = poolIndex.get(text);
+        if (index != null) {
+            return index;
+        }
+        if (poolSize == pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(16, poolSize * 2));
+        }
+        pool[poolSize] = text;
+        poolIndex.put(text, poolSize);
+        return poolSize++;
+    }
+
+    private void appendString(int slot) {
+        if (stringSlotCount == stringSlots.length) {
+            stringSlots = Arrays.copyOf(stringSlots, Math.max(16, stringSlotCount * 2));
+        }
+        stringSlots[stringSlotCount++] = slot;
+    }
+
+    private void ensureChildCapacity(int extra) {
+        if (childSlotCount + extra > childSlots.length) {
+            childSlots = Arrays.copyOf(childSlots, Math.max(childSlotCount + extra, childSlots.length * 2));
+        }
+    }
+
+    private void ensureNodeCapacity() {
+        if (nodeCount > kinds.length) {
+            int capacity = Math.max(nodeCount, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            firstString = Arrays.copyOf(firstString, capacity);
+        }
+    }
+}
@@ -0,0 +1,1006 @@
+package cn.easygd.quest.engine.runtime.statement.compact;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+
+import java.util.List;
+
+/**
+ * read only flyweight views of {@link CompactStatementTree} nodes
+ *
+ * <p>
+ * a view only holds the tree and its node index , the getters read the arrays and return new views for children.
+ * setters throw {@link UnsupportedOperationException} , build a regular statement tree to change statements.
+ * </p>
+ *
+ * @author VD
+ */
+final class CompactViews {
+
+    private CompactViews() {
+    }
+
+    /**
+     * setters of views
+     */
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("compact statement view is read only");
+    }
+
+    /**
+     * process view
+     */
+    static final class Process extends ProcessCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        private final long fingerprint;
+
+        Process(CompactStatementTree tree, int node, long fingerprint) {
+            this.tree = tree;
+            this.node = node;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public void setFingerprint(long fingerprint) {
+            throw readOnly();
+        }
+
+        @Override
+        public List<CodeStatement> getContent() {
+            return tree.children(node);
+        }
+
+        @Override
+        public void add(CodeStatement content) {
+            throw readOnly();
+        }
+
+        @Override
+        public void addAll(List<CodeStatement> content) {
+            throw readOnly();
+        }
+
+        @Override
+        public String getName() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public void setName(String name) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * function view
+     */
+    static final class Function extends FunctionCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        private final long fingerprint;
+
+        Function(CompactStatementTree tree, int node, long fingerprint) {
+            this.tree = tree;
+            this.node = node;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public void setFingerprint(long fingerprint) {
+            throw readOnly();
+        }
+
+        @Override
+        public List<CodeStatement> getContent() {
+            return tree.children(node);
+        }
+
+        @Override
+        public void add(CodeStatement content) {
+            throw readOnly();
+        }
+
+        @Override
+        public void addAll(List<CodeStatement> content) {
+            throw readOnly();
+        }
+
+        @Override
+        public String getUsageLevel() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getReturnType() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public String getName() {
+            return tree.string(node, 2);
+        }
+
+        @Override
+        public String getParameters() {
+            return tree.string(node, 3);
+        }
+
+        @Override
+        public void setUsageLevel(String usageLevel) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setReturnType(String returnType) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setName(String name) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setParameters(String parameters) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * block view
+     */
+    static final class Block extends BlockCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Block(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public List<CodeStatement> getContent() {
+            return tree.children(node);
+        }
+
+        @Override
+        public void add(CodeStatement content) {
+            throw readOnly();
+        }
+
+        @Override
+        public void addAll(List<CodeStatement> content) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * variable statement view
+     */
+    static final class Variable extends VariableCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Variable(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getVariableType() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getVariableName() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setVariableType(String variableType) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setVariableName(String variableName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * if statement view
+     */
+    static final class If extends IfCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        If(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getCondition() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public BlockCodeStatement getBlock() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public BlockCodeStatement getElseBlock() {
+            return tree.child(node, 2);
+        }
+
+        @Override
+        public void setCondition(ExpressionCodeStatement condition) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBlock(BlockCodeStatement block) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setElseBlock(BlockCodeStatement elseBlock) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * for statement view
+     */
+    static final class For extends ForCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        For(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ForControlCodeStatement getForControl() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public BlockCodeStatement getForBlock() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public void setForControl(ForControlCodeStatement forControl) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setForBlock(BlockCodeStatement forBlock) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * while statement view
+     */
+    static final class While extends WhileCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        While(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getCondition() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public BlockCodeStatement getBlock() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public void setCondition(ExpressionCodeStatement condition) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBlock(BlockCodeStatement block) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * expression statement view
+     */
+    static final class ExprStr extends ExprStrCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        ExprStr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * return statement view
+     */
+    static final class Return extends ReturnCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Return(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getReturnValue() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setReturnValue(ExpressionCodeStatement returnValue) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * note statement view
+     */
+    static final class Note extends NoteCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Note(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getNote() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public void setNote(String note) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * type view
+     */
+    static final class Type extends TypeCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Type(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getContent() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public void add(String content) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * token view
+     */
+    static final class Token extends TokenCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        Token(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public Integer getTokenIndex() {
+            return tree.tokenIndex(node);
+        }
+
+        @Override
+        public String getToken() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public String getValue() {
+            return tree.string(node, 2);
+        }
+
+        @Override
+        public void setTokenIndex(Integer tokenIndex) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setToken(String token) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setValue(String value) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * for control expression view
+     */
+    static final class ForControlExpr extends ForControlExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        ForControlExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getLeftExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getRightExpr() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public ExpressionCodeStatement getConditionExpr() {
+            return tree.child(node, 2);
+        }
+
+        @Override
+        public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setRightExpr(ExpressionCodeStatement rightExpr) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setConditionExpr(ExpressionCodeStatement conditionExpr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * for variable declaration view
+     */
+    static final class ForVariableDecl extends ForVariableDeclCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        ForVariableDecl(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getVariableName() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getVariableType() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public String getVariableValue() {
+            return tree.string(node, 2);
+        }
+
+        @Override
+        public void setVariableName(String variableName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setVariableType(String variableType) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setVariableValue(String variableValue) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * primary expression view
+     */
+    static final class PrimaryExpr extends PrimaryExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        PrimaryExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getPrimary() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public void setPrimary(String primary) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * assignment expression view
+     */
+    static final class AssignmentExpr extends AssignmentExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        AssignmentExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getVariable() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getAssignmentOperator() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setVariable(String variable) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setAssignmentOperator(String assignmentOperator) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * binary expression view
+     */
+    static final class BinaryExpr extends BinaryExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        BinaryExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getBinaryOperator() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getLeftExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getRightExpr() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setBinaryOperator(String binaryOperator) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setRightExpr(ExpressionCodeStatement rightExpr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * postfix expression view
+     */
+    static final class PostfixExpr extends PostFixExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        PostfixExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getPostfix() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setPostfix(String postfix) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * prefix expression view
+     */
+    static final class PrefixExpr extends PrefixExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        PrefixExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getPrefix() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setPrefix(String prefix) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * ternary expression view
+     */
+    static final class TernaryExpr extends TernaryExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        TernaryExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getCondition() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getTrueExpr() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public ExpressionCodeStatement getFalseExpr() {
+            return tree.child(node, 2);
+        }
+
+        @Override
+        public void setCondition(ExpressionCodeStatement condition) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setTrueExpr(ExpressionCodeStatement trueExpr) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setFalseExpr(ExpressionCodeStatement falseExpr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * cast expression view
+     */
+    static final class CastExpr extends CastExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        CastExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getCastType() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public void setCastType(String castType) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setExpr(ExpressionCodeStatement expr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * array access expression view
+     */
+    static final class ArrayExpr extends ArrayExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        ArrayExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public ExpressionCodeStatement getLeftExpr() {
+            return tree.child(node, 0);
+        }
+
+        @Override
+        public ExpressionCodeStatement getRightExpr() {
+            return tree.child(node, 1);
+        }
+
+        @Override
+        public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setRightExpr(ExpressionCodeStatement rightExpr) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * class method invoke expression view
+     */
+    static final class ClassMethodInvokeExpr extends ClassMethodInvokeExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        ClassMethodInvokeExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getClassName() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getMethodName() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public String getArguments() {
+            return tree.string(node, 2);
+        }
+
+        @Override
+        public void setClassName(String className) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setMethodName(String methodName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setArguments(String arguments) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * function invoke expression view
+     */
+    static final class FunctionInvokeExpr extends FunctionInvokeCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        FunctionInvokeExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getArguments() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public void setFunctionName(String functionName) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setArguments(String arguments) {
+            throw readOnly();
+        }
+    }
+
+    /**
+     * new expression view
+     */
+    static final class NewExpr extends NewExprCodeStatement {
+
+        private final CompactStatementTree tree;
+
+        private final int node;
+
+        NewExpr(CompactStatementTree tree, int node) {
+            this.tree = tree;
+            this.node = node;
+        }
+
+        @Override
+        public String getClassType() {
+            return tree.string(node, 0);
+        }
+
+        @Override
+        public String getArguments() {
+            return tree.string(node, 1);
+        }
+
+        @Override
+        public void setClassType(String classType) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setArguments(String arguments) {
+            throw readOnly();
+        }
+    }
+}
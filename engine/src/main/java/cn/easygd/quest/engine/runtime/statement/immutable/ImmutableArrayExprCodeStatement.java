@@ -0,0 +1,83 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ArrayExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+/**
+ * immutable {@link ArrayExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableArrayExprCodeStatement extends ArrayExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * left expression
+     */
+    private final ExpressionCodeStatement leftExpr;
+
+    /**
+     * right expression
+     */
+    private final ExpressionCodeStatement rightExpr;
+
+    private ImmutableArrayExprCodeStatement(Builder builder) {
+        this.leftExpr = ImmutableStatements.copyOf(builder.leftExpr);
+        this.rightExpr = ImmutableStatements.copyOf(builder.rightExpr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getLeftExpr() {
+        return leftExpr;
+    }
+
+    @Override
+    public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getRightExpr() {
+        return rightExpr;
+    }
+
+    @Override
+    public void setRightExpr(ExpressionCodeStatement rightExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement leftExpr;
+
+        private ExpressionCodeStatement rightExpr;
+
+        private Builder() {
+        }
+
+        public Builder leftExpr(ExpressionCodeStatement leftExpr) {
+            this.leftExpr = leftExpr;
+            return this;
+        }
+
+        public Builder rightExpr(ExpressionCodeStatement rightExpr) {
+            this.rightExpr = rightExpr;
+            return this;
+        }
+
+        public ImmutableArrayExprCodeStatement build() {
+            return new ImmutableArrayExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.AssignmentExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+/**
+ * immutable {@link AssignmentExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableAssignmentExprCodeStatement extends AssignmentExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * variable
+     */
+    private final String variable;
+
+    /**
+     * assignment operator
+     */
+    private final String assignmentOperator;
+
+    /**
+     * expression
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutableAssignmentExprCodeStatement(Builder builder) {
+        this.variable = builder.variable;
+        this.assignmentOperator = builder.assignmentOperator;
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getVariable() {
+        return variable;
+    }
+
+    @Override
+    public void setVariable(String variable) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getAssignmentOperator() {
+        return assignmentOperator;
+    }
+
+    @Override
+    public void setAssignmentOperator(String assignmentOperator) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String variable;
+
+        private String assignmentOperator;
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder variable(String variable) {
+            this.variable = variable;
+            return this;
+        }
+
+        public Builder assignmentOperator(String assignmentOperator) {
+            this.assignmentOperator = assignmentOperator;
+            return this;
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutableAssignmentExprCodeStatement build() {
+            return new ImmutableAssignmentExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.BinaryExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+/**
+ * immutable {@link BinaryExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableBinaryExprCodeStatement extends BinaryExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * left expression
+     */
+    private final ExpressionCodeStatement leftExpr;
+
+    /**
+     * binary operator
+     */
+    private final String binaryOperator;
+
+    /**
+     * right expression
+     */
+    private final ExpressionCodeStatement rightExpr;
+
+    private ImmutableBinaryExprCodeStatement(Builder builder) {
+        this.leftExpr = ImmutableStatements.copyOf(builder.leftExpr);
+        this.binaryOperator = builder.binaryOperator;
+        this.rightExpr = ImmutableStatements.copyOf(builder.rightExpr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getLeftExpr() {
+        return leftExpr;
+    }
+
+    @Override
+    public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getBinaryOperator() {
+        return binaryOperator;
+    }
+
+    @Override
+    public void setBinaryOperator(String binaryOperator) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getRightExpr() {
+        return rightExpr;
+    }
+
+    @Override
+    public void setRightExpr(ExpressionCodeStatement rightExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement leftExpr;
+
+        private String binaryOperator;
+
+        private ExpressionCodeStatement rightExpr;
+
+        private Builder() {
+        }
+
+        public Builder leftExpr(ExpressionCodeStatement leftExpr) {
+            this.leftExpr = leftExpr;
+            return this;
+        }
+
+        public Builder binaryOperator(String binaryOperator) {
+            this.binaryOperator = binaryOperator;
+            return this;
+        }
+
+        public Builder rightExpr(ExpressionCodeStatement rightExpr) {
+            this.rightExpr = rightExpr;
+            return this;
+        }
+
+        public ImmutableBinaryExprCodeStatement build() {
+            return new ImmutableBinaryExprCodeStatement(this);
+        }
+    }
+}
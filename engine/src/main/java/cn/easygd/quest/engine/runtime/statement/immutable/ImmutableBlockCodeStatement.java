@@ -0,0 +1,80 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.BlockCodeStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * immutable {@link BlockCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableBlockCodeStatement extends BlockCodeStatement implements ImmutableStatement {
+
+    /**
+     * statement list
+     */
+    private final List<CodeStatement> statements;
+
+    private ImmutableBlockCodeStatement(Builder builder) {
+        this.statements = ImmutableStatements.freezeAll(builder.statements);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<CodeStatement> getContent() {
+        return statements;
+    }
+
+    @Override
+    public void add(CodeStatement content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void addAll(List<CodeStatement> content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void defer(Supplier<List<CodeStatement>> body) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private final List<CodeStatement> statements = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(CodeStatement statement) {
+            statements.add(statement);
+            return this;
+        }
+
+        public Builder addAll(List<CodeStatement> statements) {
+            this.statements.addAll(statements);
+            return this;
+        }
+
+        public ImmutableBlockCodeStatement build() {
+            return new ImmutableBlockCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.CastExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+/**
+ * immutable {@link CastExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableCastExprCodeStatement extends CastExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * cast type
+     */
+    private final String castType;
+
+    /**
+     * expression
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutableCastExprCodeStatement(Builder builder) {
+        this.castType = builder.castType;
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getCastType() {
+        return castType;
+    }
+
+    @Override
+    public void setCastType(String castType) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String castType;
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder castType(String castType) {
+            this.castType = castType;
+            return this;
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutableCastExprCodeStatement build() {
+            return new ImmutableCastExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ClassMethodInvokeExprCodeStatement;
+
+/**
+ * immutable {@link ClassMethodInvokeExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableClassMethodInvokeExprCodeStatement extends ClassMethodInvokeExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * service name
+     */
+    private final String className;
+
+    /**
+     * method name
+     */
+    private final String methodName;
+
+    /**
+     * arguments
+     */
+    private final String arguments;
+
+    private ImmutableClassMethodInvokeExprCodeStatement(Builder builder) {
+        this.className = builder.className;
+        this.methodName = builder.methodName;
+        this.arguments = builder.arguments;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public void setClassName(String className) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public void setMethodName(String methodName) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public void setArguments(String arguments) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String className;
+
+        private String methodName;
+
+        private String arguments;
+
+        private Builder() {
+        }
+
+        public Builder className(String className) {
+            this.className = className;
+            return this;
+        }
+
+        public Builder methodName(String methodName) {
+            this.methodName = methodName;
+            return this;
+        }
+
+        public Builder arguments(String arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+
+        public ImmutableClassMethodInvokeExprCodeStatement build() {
+            return new ImmutableClassMethodInvokeExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExprStrCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+
+/**
+ * immutable {@link ExprStrCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableExprStrCodeStatement extends ExprStrCodeStatement implements ImmutableStatement {
+
+    /**
+     * expr
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutableExprStrCodeStatement(Builder builder) {
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutableExprStrCodeStatement build() {
+            return new ImmutableExprStrCodeStatement(this);
+        }
+    }
+}
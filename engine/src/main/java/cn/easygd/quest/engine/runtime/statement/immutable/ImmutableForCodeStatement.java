@@ -0,0 +1,84 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.BlockCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ForCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ForControlCodeStatement;
+
+/**
+ * immutable {@link ForCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableForCodeStatement extends ForCodeStatement implements ImmutableStatement {
+
+    /**
+     * for control
+     */
+    private final ForControlCodeStatement forControl;
+
+    /**
+     * for block
+     */
+    private final BlockCodeStatement forBlock;
+
+    private ImmutableForCodeStatement(Builder builder) {
+        this.forControl = ImmutableStatements.copyOf(builder.forControl);
+        this.forBlock = ImmutableStatements.copyOf(builder.forBlock);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ForControlCodeStatement getForControl() {
+        return forControl;
+    }
+
+    @Override
+    public void setForControl(ForControlCodeStatement forControl) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public BlockCodeStatement getForBlock() {
+        return forBlock;
+    }
+
+    @Override
+    public void setForBlock(BlockCodeStatement forBlock) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ForControlCodeStatement forControl;
+
+        private BlockCodeStatement forBlock;
+
+        private Builder() {
+        }
+
+        public Builder forControl(ForControlCodeStatement forControl) {
+            this.forControl = forControl;
+            return this;
+        }
+
+        public Builder forBlock(BlockCodeStatement forBlock) {
+            this.forBlock = forBlock;
+            return this;
+        }
+
+        public ImmutableForCodeStatement build() {
+            return new ImmutableForCodeStatement(this);
+        }
+    }
+}
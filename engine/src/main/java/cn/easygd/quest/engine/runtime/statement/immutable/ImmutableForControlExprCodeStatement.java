@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ForControlExprCodeStatement;
+
+/**
+ * immutable {@link ForControlExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableForControlExprCodeStatement extends ForControlExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * left expr
+     */
+    private final ExpressionCodeStatement leftExpr;
+
+    /**
+     * right expr
+     */
+    private final ExpressionCodeStatement rightExpr;
+
+    /**
+     * condition expr
+     */
+    private final ExpressionCodeStatement conditionExpr;
+
+    private ImmutableForControlExprCodeStatement(Builder builder) {
+        this.leftExpr = ImmutableStatements.copyOf(builder.leftExpr);
+        this.rightExpr = ImmutableStatements.copyOf(builder.rightExpr);
+        this.conditionExpr = ImmutableStatements.copyOf(builder.conditionExpr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getLeftExpr() {
+        return leftExpr;
+    }
+
+    @Override
+    public void setLeftExpr(ExpressionCodeStatement leftExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getRightExpr() {
+        return rightExpr;
+    }
+
+    @Override
+    public void setRightExpr(ExpressionCodeStatement rightExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getConditionExpr() {
+        return conditionExpr;
+    }
+
+    @Override
+    public void setConditionExpr(ExpressionCodeStatement conditionExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement leftExpr;
+
+        private ExpressionCodeStatement rightExpr;
+
+        private ExpressionCodeStatement conditionExpr;
+
+        private Builder() {
+        }
+
+        public Builder leftExpr(ExpressionCodeStatement leftExpr) {
+            this.leftExpr = leftExpr;
+            return this;
+        }
+
+        public Builder rightExpr(ExpressionCodeStatement rightExpr) {
+            this.rightExpr = rightExpr;
+            return this;
+        }
+
+        public Builder conditionExpr(ExpressionCodeStatement conditionExpr) {
+            this.conditionExpr = conditionExpr;
+            return this;
+        }
+
+        public ImmutableForControlExprCodeStatement build() {
+            return new ImmutableForControlExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ForVariableDeclCodeStatement;
+
+/**
+ * immutable {@link ForVariableDeclCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableForVariableDeclCodeStatement extends ForVariableDeclCodeStatement implements ImmutableStatement {
+
+    /**
+     * variable name
+     */
+    private final String variableName;
+
+    /**
+     * variable type
+     */
+    private final String variableType;
+
+    /**
+     * variable value
+     */
+    private final String variableValue;
+
+    private ImmutableForVariableDeclCodeStatement(Builder builder) {
+        this.variableName = builder.variableName;
+        this.variableType = builder.variableType;
+        this.variableValue = builder.variableValue;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getVariableName() {
+        return variableName;
+    }
+
+    @Override
+    public void setVariableName(String variableName) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getVariableType() {
+        return variableType;
+    }
+
+    @Override
+    public void setVariableType(String variableType) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getVariableValue() {
+        return variableValue;
+    }
+
+    @Override
+    public void setVariableValue(String variableValue) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String variableName;
+
+        private String variableType;
+
+        private String variableValue;
+
+        private Builder() {
+        }
+
+        public Builder variableName(String variableName) {
+            this.variableName = variableName;
+            return this;
+        }
+
+        public Builder variableType(String variableType) {
+            this.variableType = variableType;
+            return this;
+        }
+
+        public Builder variableValue(String variableValue) {
+            this.variableValue = variableValue;
+            return this;
+        }
+
+        public ImmutableForVariableDeclCodeStatement build() {
+            return new ImmutableForVariableDeclCodeStatement(this);
+        }
+    }
+}
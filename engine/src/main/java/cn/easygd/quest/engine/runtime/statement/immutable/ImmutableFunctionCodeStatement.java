@@ -0,0 +1,195 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * immutable {@link FunctionCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableFunctionCodeStatement extends FunctionCodeStatement implements ImmutableStatement {
+
+    /**
+     * statement list
+     */
+    private final List<CodeStatement> statements;
+
+    /**
+     * 使用级别
+     */
+    private final String usageLevel;
+
+    /**
+     * 返回值类型
+     */
+    private final String returnType;
+
+    /**
+     * 函数名
+     */
+    private final String name;
+
+    /**
+     * 参数
+     */
+    private final String parameters;
+
+    /**
+     * structural fingerprint of the source
+     */
+    private final long fingerprint;
+
+    private ImmutableFunctionCodeStatement(Builder builder) {
+        this.statements = ImmutableStatements.freezeAll(builder.statements);
+        this.usageLevel = builder.usageLevel;
+        this.returnType = builder.returnType;
+        this.name = builder.name;
+        this.parameters = builder.parameters;
+        this.fingerprint = builder.fingerprint;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<CodeStatement> getContent() {
+        return statements;
+    }
+
+    @Override
+    public void add(CodeStatement content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void addAll(List<CodeStatement> content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void defer(Supplier<List<CodeStatement>> body) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getUsageLevel() {
+        return usageLevel;
+    }
+
+    @Override
+    public void setUsageLevel(String usageLevel) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getReturnType() {
+        return returnType;
+    }
+
+    @Override
+    public void setReturnType(String returnType) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public void setParameters(String parameters) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void setFingerprint(long fingerprint) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private final List<CodeStatement> statements = new ArrayList<>();
+
+        private String usageLevel = "public";
+
+        private String returnType;
+
+        private String name;
+
+        private String parameters;
+
+        private long fingerprint;
+
+        private Builder() {
+        }
+
+        public Builder add(CodeStatement statement) {
+            statements.add(statement);
+            return this;
+        }
+
+        public Builder addAll(List<CodeStatement> statements) {
+            this.statements.addAll(statements);
+            return this;
+        }
+
+        public Builder usageLevel(String usageLevel) {
+            this.usageLevel = usageLevel;
+            return this;
+        }
+
+        public Builder returnType(String returnType) {
+            this.returnType = returnType;
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder parameters(String parameters) {
+            this.parameters = parameters;
+            return this;
+        }
+
+        public Builder fingerprint(long fingerprint) {
+            this.fingerprint = fingerprint;
+            return this;
+        }
+
+        public ImmutableFunctionCodeStatement build() {
+            return new ImmutableFunctionCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.FunctionInvokeCodeStatement;
+
+/**
+ * immutable {@link FunctionInvokeCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableFunctionInvokeCodeStatement extends FunctionInvokeCodeStatement implements ImmutableStatement {
+
+    /**
+     * function name
+     */
+    private final String functionName;
+
+    /**
+     * arguments
+     */
+    private final String arguments;
+
+    private ImmutableFunctionInvokeCodeStatement(Builder builder) {
+        this.functionName = builder.functionName;
+        this.arguments = builder.arguments;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    @Override
+    public void setFunctionName(String functionName) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public void setArguments(String arguments) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String functionName;
+
+        private String arguments;
+
+        private Builder() {
+        }
+
+        public Builder functionName(String functionName) {
+            this.functionName = functionName;
+            return this;
+        }
+
+        public Builder arguments(String arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+
+        public ImmutableFunctionInvokeCodeStatement build() {
+            return new ImmutableFunctionInvokeCodeStatement(this);
+        }
+    }
+}
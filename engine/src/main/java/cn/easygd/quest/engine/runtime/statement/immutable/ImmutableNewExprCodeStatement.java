@@ -0,0 +1,82 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.NewExprCodeStatement;
+
+/**
+ * immutable {@link NewExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableNewExprCodeStatement extends NewExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * class type
+     */
+    private final String classType;
+
+    /**
+     * arguments
+     */
+    private final String arguments;
+
+    private ImmutableNewExprCodeStatement(Builder builder) {
+        this.classType = builder.classType;
+        this.arguments = builder.arguments;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getClassType() {
+        return classType;
+    }
+
+    @Override
+    public void setClassType(String classType) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public void setArguments(String arguments) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String classType;
+
+        private String arguments;
+
+        private Builder() {
+        }
+
+        public Builder classType(String classType) {
+            this.classType = classType;
+            return this;
+        }
+
+        public Builder arguments(String arguments) {
+            this.arguments = arguments;
+            return this;
+        }
+
+        public ImmutableNewExprCodeStatement build() {
+            return new ImmutableNewExprCodeStatement(this);
+        }
+    }
+}
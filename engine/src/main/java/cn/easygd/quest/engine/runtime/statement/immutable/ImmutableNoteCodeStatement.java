@@ -0,0 +1,59 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.NoteCodeStatement;
+
+/**
+ * immutable {@link NoteCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableNoteCodeStatement extends NoteCodeStatement implements ImmutableStatement {
+
+    /**
+     * note
+     */
+    private final String note;
+
+    private ImmutableNoteCodeStatement(Builder builder) {
+        this.note = builder.note;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getNote() {
+        return note;
+    }
+
+    @Override
+    public void setNote(String note) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String note;
+
+        private Builder() {
+        }
+
+        public Builder note(String note) {
+            this.note = note;
+            return this;
+        }
+
+        public ImmutableNoteCodeStatement build() {
+            return new ImmutableNoteCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.PostFixExprCodeStatement;
+
+/**
+ * immutable {@link PostFixExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutablePostFixExprCodeStatement extends PostFixExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * postfix
+     */
+    private final String postfix;
+
+    /**
+     * expression
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutablePostFixExprCodeStatement(Builder builder) {
+        this.postfix = builder.postfix;
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getPostfix() {
+        return postfix;
+    }
+
+    @Override
+    public void setPostfix(String postfix) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String postfix;
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder postfix(String postfix) {
+            this.postfix = postfix;
+            return this;
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutablePostFixExprCodeStatement build() {
+            return new ImmutablePostFixExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.PrefixExprCodeStatement;
+
+/**
+ * immutable {@link PrefixExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutablePrefixExprCodeStatement extends PrefixExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * prefix
+     */
+    private final String prefix;
+
+    /**
+     * expression
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutablePrefixExprCodeStatement(Builder builder) {
+        this.prefix = builder.prefix;
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getPrefix() {
+        return prefix;
+    }
+
+    @Override
+    public void setPrefix(String prefix) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String prefix;
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder prefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutablePrefixExprCodeStatement build() {
+            return new ImmutablePrefixExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.PrimaryExprCodeStatement;
+
+/**
+ * immutable {@link PrimaryExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutablePrimaryExprCodeStatement extends PrimaryExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * primary
+     */
+    private final String primary;
+
+    private ImmutablePrimaryExprCodeStatement(Builder builder) {
+        this.primary = builder.primary;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public void setPrimary(String primary) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String primary;
+
+        private Builder() {
+        }
+
+        public Builder primary(String primary) {
+            this.primary = primary;
+            return this;
+        }
+
+        public ImmutablePrimaryExprCodeStatement build() {
+            return new ImmutablePrimaryExprCodeStatement(this);
+        }
+    }
+}
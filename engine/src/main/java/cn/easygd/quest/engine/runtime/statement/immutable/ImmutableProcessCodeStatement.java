@@ -0,0 +1,126 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * immutable {@link ProcessCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableProcessCodeStatement extends ProcessCodeStatement implements ImmutableStatement {
+
+    /**
+     * statement list
+     */
+    private final List<CodeStatement> statements;
+
+    /**
+     * process name
+     */
+    private final String name;
+
+    /**
+     * structural fingerprint of the source
+     */
+    private final long fingerprint;
+
+    private ImmutableProcessCodeStatement(Builder builder) {
+        this.statements = ImmutableStatements.freezeAll(builder.statements);
+        this.name = builder.name;
+        this.fingerprint = builder.fingerprint;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public List<CodeStatement> getContent() {
+        return statements;
+    }
+
+    @Override
+    public void add(CodeStatement content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void addAll(List<CodeStatement> content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public void defer(Supplier<List<CodeStatement>> body) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setName(String name) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public void setFingerprint(long fingerprint) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private final List<CodeStatement> statements = new ArrayList<>();
+
+        private String name;
+
+        private long fingerprint;
+
+        private Builder() {
+        }
+
+        public Builder add(CodeStatement statement) {
+            statements.add(statement);
+            return this;
+        }
+
+        public Builder addAll(List<CodeStatement> statements) {
+            this.statements.addAll(statements);
+            return this;
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder fingerprint(long fingerprint) {
+            this.fingerprint = fingerprint;
+            return this;
+        }
+
+        public ImmutableProcessCodeStatement build() {
+            return new ImmutableProcessCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ReturnCodeStatement;
+
+/**
+ * immutable {@link ReturnCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableReturnCodeStatement extends ReturnCodeStatement implements ImmutableStatement {
+
+    /**
+     * return value
+     */
+    private final ExpressionCodeStatement returnValue;
+
+    private ImmutableReturnCodeStatement(Builder builder) {
+        this.returnValue = ImmutableStatements.copyOf(builder.returnValue);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getReturnValue() {
+        return returnValue;
+    }
+
+    @Override
+    public void setReturnValue(ExpressionCodeStatement returnValue) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement returnValue;
+
+        private Builder() {
+        }
+
+        public Builder returnValue(ExpressionCodeStatement returnValue) {
+            this.returnValue = returnValue;
+            return this;
+        }
+
+        public ImmutableReturnCodeStatement build() {
+            return new ImmutableReturnCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+/**
+ * marker of immutable statements
+ *
+ * <p>
+ * an immutable statement keeps its state in final fields , its children are immutable statements as well ( builders
+ * freeze them with {@link ImmutableStatements#copyOf} ) and child lists are unmodifiable , setters and
+ * {@code add} / {@code addAll} throw {@link UnsupportedOperationException}. the only other state is the structural
+ * hash cache of expressions , a single int that is computed idempotently , and the cached rendering of statement
+ * lists kept by the code writer , an immutable object that is replaced as a whole.
+ * </p>
+ *
+ * <p>
+ * safe publication : by the final field rule of the java memory model , a thread that gets hold of an immutable
+ * statement sees it and everything reachable through its final fields fully built , even when the reference was
+ * handed over through a data race. once built , trees and modules ( see {@code ImmutableServiceModule} ) can be shared
+ * between emitters , caches and executors without copies or locks.
+ * </p>
+ *
+ * @author VD
+ */
+public interface ImmutableStatement {
+}
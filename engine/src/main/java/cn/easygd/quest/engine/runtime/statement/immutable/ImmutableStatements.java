@@ -0,0 +1,368 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * conversion of statement trees to {@link ImmutableStatement}s
+ *
+ * <p>
+ * {@link #copyOf(CodeStatement)} copies a tree bottom up with an explicit work stack , deep nesting does not grow the
+ * java stack. immutable subtrees are kept as they are and a statement shared by several parents ( hash-consed
+ * expressions ) is copied once , so sharing survives the copy. mutable beans , compact views and immutable statements
+ * can be mixed in the source tree.
+ * </p>
+ *
+ * @author VD
+ */
+public final class ImmutableStatements {
+
+    private ImmutableStatements() {
+    }
+
+    /**
+     * immutable copy of a statement tree
+     *
+     * @param statement root statement
+     * @param <S>       statement type , the immutable variant of a statement class extends it
+     * @return immutable statement , {@code statement} itself when it is immutable or {@code null}
+     * @throws IllegalArgumentException when the tree holds a statement type without immutable variant
+     */
+    public static <S extends CodeStatement> S copyOf(S statement) {
+        return copyOf(statement, new IdentityHashMap<>());
+    }
+
+    /**
+     * immutable copy of a statement tree , sharing copies with other trees
+     *
+     * <p>
+     * {@code frozen} maps source statements to their copies , pass the same identity map for all trees of a module or
+     * a batch to keep statements shared between trees ( hash-consed expressions ) shared in the copies as well.
+     * </p>
+     *
+     * @param statement root statement
+     * @param frozen    copies of source statements , identity keyed , updated with the new copies
+     * @param <S>       statement type , the immutable variant of a statement class extends it
+     * @return immutable statement , {@code statement} itself when it is immutable or {@code null}
+     * @throws IllegalArgumentException when the tree holds a statement type without immutable variant
+     */
+    @SuppressWarnings("unchecked")
+    public static <S extends CodeStatement> S copyOf(S statement, Map<CodeStatement, CodeStatement> frozen) {
+        if (statement == null || statement instanceof ImmutableStatement) {
+            return statement;
+        }
+        CodeStatement copy = frozen.get(statement);
+        if (copy != null) {
+            return (S) copy;
+        }
+        // children are read once per frame , compact views hand out a new instance per getter call
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(statement));
+
+        while (!stack.isEmpty()) {
+            Frame top = stack.peek();
+            if (top.next < top.children.size()) {
+                CodeStatement child = top.children.get(top.next++);
+                if (child != null && !(child instanceof ImmutableStatement) && !frozen.containsKey(child)) {
+                    stack.push(new Frame(child));
+                }
+                continue;
+            }
+            List<CodeStatement> children = top.children;
+            for (int i = 0; i < children.size(); i++) {
+                CodeStatement child = children.get(i);
+                if (child != null && !(child instanceof ImmutableStatement)) {
+                    children.set(i, frozen.get(child));
+                }
+            }
+            frozen.put(top.statement, freeze(top.statement, children));
+            stack.pop();
+        }
+        return (S) frozen.get(statement);
+    }
+
+    /**
+     * immutable copy of a statement list
+     *
+     * @param statements statements
+     * @return unmodifiable list of immutable statements
+     */
+    static List<CodeStatement> freezeAll(List<CodeStatement> statements) {
+        List<CodeStatement> copy = new ArrayList<>(statements.size());
+        for (CodeStatement statement : statements) {
+            copy.add(copyOf(statement));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * setters of immutable statements
+     */
+    static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("immutable statement");
+    }
+
+    /**
+     * child statements of a statement
+     */
+    private static void children(CodeStatement statement, List<CodeStatement> children) {
+        switch (statement.type()) {
+            case PROCESS:
+            case FUNCTION:
+            case BLOCK:
+                children.addAll(((CollectCodeStatement) statement).getContent());
+                break;
+            case VARIABLE:
+                children.add(((VariableCodeStatement) statement).getExpr());
+                break;
+            case IF:
+                IfCodeStatement ifStatement = (IfCodeStatement) statement;
+                Collections.addAll(children, ifStatement.getCondition(), ifStatement.getBlock(), ifStatement.getElseBlock());
+                break;
+            case FOR:
+                ForCodeStatement forStatement = (ForCodeStatement) statement;
+                Collections.addAll(children, forStatement.getForControl(), forStatement.getForBlock());
+                break;
+            case WHILE:
+                WhileCodeStatement whileStatement = (WhileCodeStatement) statement;
+                Collections.addAll(children, whileStatement.getCondition(), whileStatement.getBlock());
+                break;
+            case EXPRESSION:
+                children.add(((ExprStrCodeStatement) statement).getExpr());
+                break;
+            case RETURN:
+                children.add(((ReturnCodeStatement) statement).getReturnValue());
+                break;
+            case FOR_CONTROL:
+                if (statement instanceof ForControlExprCodeStatement) {
+                    ForControlExprCodeStatement control = (ForControlExprCodeStatement) statement;
+                    Collections.addAll(children, control.getLeftExpr(), control.getRightExpr(), control.getConditionExpr());
+                }
+                break;
+            case ASSIGNMENT_EXPR:
+                children.add(((AssignmentExprCodeStatement) statement).getExpr());
+                break;
+            case BINARY_EXPR:
+                BinaryExprCodeStatement binary = (BinaryExprCodeStatement) statement;
+                Collections.addAll(children, binary.getLeftExpr(), binary.getRightExpr());
+                break;
+            case POSTFIX_EXPR:
+                children.add(((PostFixExprCodeStatement) statement).getExpr());
+                break;
+            case PREFIX_EXPR:
+                children.add(((PrefixExprCodeStatement) statement).getExpr());
+                break;
+            case TERNARY_EXPR:
+                TernaryExprCodeStatement ternary = (TernaryExprCodeStatement) statement;
+                Collections.addAll(children, ternary.getCondition(), ternary.getTrueExpr(), ternary.getFalseExpr());
+                break;
+            case CAST_EXPR:
+                children.add(((CastExprCodeStatement) statement).getExpr());
+                break;
+            case ARRAY_ACCESS_EXPR:
+                ArrayExprCodeStatement array = (ArrayExprCodeStatement) statement;
+                Collections.addAll(children, array.getLeftExpr(), array.getRightExpr());
+                break;
+            default:
+                // leaves
+                break;
+        }
+    }
+
+    /**
+     * immutable copy of one statement
+     *
+     * @param statement statement
+     * @param children  frozen children in the order of {@link #children(CodeStatement, List)}
+     * @return immutable statement
+     */
+    private static CodeStatement freeze(CodeStatement statement, List<CodeStatement> children) {
+        switch (statement.type()) {
+            case PROCESS:
+                ProcessCodeStatement process = (ProcessCodeStatement) statement;
+                return ImmutableProcessCodeStatement.builder()
+                        .name(process.getName())
+                        .fingerprint(process.getFingerprint())
+                        .addAll(children)
+                        .build();
+            case FUNCTION:
+                FunctionCodeStatement function = (FunctionCodeStatement) statement;
+                return ImmutableFunctionCodeStatement.builder()
+                        .usageLevel(function.getUsageLevel())
+                        .returnType(function.getReturnType())
+                        .name(function.getName())
+                        .parameters(function.getParameters())
+                        .fingerprint(function.getFingerprint())
+                        .addAll(children)
+                        .build();
+            case BLOCK:
+                return ImmutableBlockCodeStatement.builder()
+                        .addAll(children)
+                        .build();
+            case VARIABLE:
+                VariableCodeStatement variable = (VariableCodeStatement) statement;
+                return ImmutableVariableCodeStatement.builder()
+                        .variableType(variable.getVariableType())
+                        .variableName(variable.getVariableName())
+                        .expr(child(children, 0))
+                        .build();
+            case IF:
+                return ImmutableIfCodeStatement.builder()
+                        .condition(child(children, 0))
+                        .block(child(children, 1))
+                        .elseBlock(child(children, 2))
+                        .build();
+            case FOR:
+                return ImmutableForCodeStatement.builder()
+                        .forControl(child(children, 0))
+                        .forBlock(child(children, 1))
+                        .build();
+            case WHILE:
+                return ImmutableWhileCodeStatement.builder()
+                        .condition(child(children, 0))
+                        .block(child(children, 1))
+                        .build();
+            case EXPRESSION:
+                return ImmutableExprStrCodeStatement.builder()
+                        .expr(child(children, 0))
+                        .build();
+            case RETURN:
+                return ImmutableReturnCodeStatement.builder()
+                        .returnValue(child(children, 0))
+                        .build();
+            case NOTE:
+                return ImmutableNoteCodeStatement.builder()
+                        .note(((NoteCodeStatement) statement).getNote())
+                        .build();
+            case TYPE:
+                return ImmutableTypeCodeStatement.builder()
+                        .content(((TypeCodeStatement) statement).getContent())
+                        .build();
+            case TOKEN:
+                TokenCodeStatement token = (TokenCodeStatement) statement;
+                return ImmutableTokenCodeStatement.builder()
+                        .tokenIndex(token.getTokenIndex())
+                        .token(token.getToken())
+                        .value(token.getValue())
+                        .build();
+            case FOR_CONTROL:
+                if (statement instanceof ForControlExprCodeStatement) {
+                    ForControlExprCodeStatement control = (ForControlExprCodeStatement) statement;
+                    return ImmutableForControlExprCodeStatement.builder()
+                            .leftExpr(child(children, 0))
+                            .rightExpr(child(children, 1))
+                            .conditionExpr(child(children, 2))
+                            .build();
+                }
+                ForVariableDeclCodeStatement decl = (ForVariableDeclCodeStatement) statement;
+                return ImmutableForVariableDeclCodeStatement.builder()
+                        .variableName(decl.getVariableName())
+                        .variableType(decl.getVariableType())
+                        .variableValue(decl.getVariableValue())
+                        .build();
+            case PRIMARY_EXPR:
+                return ImmutablePrimaryExprCodeStatement.builder()
+                        .primary(((PrimaryExprCodeStatement) statement).getPrimary())
+                        .build();
+            case ASSIGNMENT_EXPR:
+                AssignmentExprCodeStatement assignment = (AssignmentExprCodeStatement) statement;
+                return ImmutableAssignmentExprCodeStatement.builder()
+                        .variable(assignment.getVariable())
+                        .assignmentOperator(assignment.getAssignmentOperator())
+                        .expr(child(children, 0))
+                        .build();
+            case BINARY_EXPR:
+                BinaryExprCodeStatement binary = (BinaryExprCodeStatement) statement;
+                return ImmutableBinaryExprCodeStatement.builder()
+                        .leftExpr(child(children, 0))
+                        .binaryOperator(binary.getBinaryOperator())
+                        .rightExpr(child(children, 1))
+                        .build();
+            case POSTFIX_EXPR:
+                PostFixExprCodeStatement postfix = (PostFixExprCodeStatement) statement;
+                return ImmutablePostFixExprCodeStatement.builder()
+                        .postfix(postfix.getPostfix())
+                        .expr(child(children, 0))
+                        .build();
+            case PREFIX_EXPR:
+                PrefixExprCodeStatement prefix = (PrefixExprCodeStatement) statement;
+                return ImmutablePrefixExprCodeStatement.builder()
+                        .prefix(prefix.getPrefix())
+                        .expr(child(children, 0))
+                        .build();
+            case TERNARY_EXPR:
+                return ImmutableTernaryExprCodeStatement.builder()
+                        .condition(child(children, 0))
+                        .trueExpr(child(children, 1))
+                        .falseExpr(child(children, 2))
+                        .build();
+            case CAST_EXPR:
+                CastExprCodeStatement cast = (CastExprCodeStatement) statement;
+                return ImmutableCastExprCodeStatement.builder()
+                        .castType(cast.getCastType())
+                        .expr(child(children, 0))
+                        .build();
+            case ARRAY_ACCESS_EXPR:
+                return ImmutableArrayExprCodeStatement.builder()
+                        .leftExpr(child(children, 0))
+                        .rightExpr(child(children, 1))
+                        .build();
+            case CLASS_METHOD_INVOKE_EXPR:
+                ClassMethodInvokeExprCodeStatement classMethod = (ClassMethodInvokeExprCodeStatement) statement;
+                return ImmutableClassMethodInvokeExprCodeStatement.builder()
+                        .className(classMethod.getClassName())
+                        .methodName(classMethod.getMethodName())
+                        .arguments(classMethod.getArguments())
+                        .build();
+            case FUNCTION_INVOKE_EXPR:
+                FunctionInvokeCodeStatement functionInvoke = (FunctionInvokeCodeStatement) statement;
+                return ImmutableFunctionInvokeCodeStatement.builder()
+                        .functionName(functionInvoke.getFunctionName())
+                        .arguments(functionInvoke.getArguments())
+                        .build();
+            case NEW_EXPR:
+                NewExprCodeStatement newExpr = (NewExprCodeStatement) statement;
+                return ImmutableNewExprCodeStatement.builder()
+                        .classType(newExpr.getClassType())
+                        .arguments(newExpr.getArguments())
+                        .build();
+            default:
+                throw new IllegalArgumentException("no immutable variant for statement type " + statement.type());
+        }
+    }
+
+    /**
+     * frozen child at a position
+     */
+    @SuppressWarnings("unchecked")
+    private static <C extends CodeStatement> C child(List<CodeStatement> children, int index) {
+        return (C) children.get(index);
+    }
+
+    /**
+     * statement being copied with its children , read once
+     */
+    private static class Frame {
+
+        private final CodeStatement statement;
+
+        private final List<CodeStatement> children = new ArrayList<>();
+
+        private int next;
+
+        private Frame(CodeStatement statement) {
+            this.statement = statement;
+            children(statement, children);
+        }
+    }
+}
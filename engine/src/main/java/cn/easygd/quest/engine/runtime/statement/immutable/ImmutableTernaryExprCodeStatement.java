@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.TernaryExprCodeStatement;
+
+/**
+ * immutable {@link TernaryExprCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableTernaryExprCodeStatement extends TernaryExprCodeStatement implements ImmutableStatement {
+
+    /**
+     * condition
+     */
+    private final ExpressionCodeStatement condition;
+
+    /**
+     * true expression
+     */
+    private final ExpressionCodeStatement trueExpr;
+
+    /**
+     * false expression
+     */
+    private final ExpressionCodeStatement falseExpr;
+
+    private ImmutableTernaryExprCodeStatement(Builder builder) {
+        this.condition = ImmutableStatements.copyOf(builder.condition);
+        this.trueExpr = ImmutableStatements.copyOf(builder.trueExpr);
+        this.falseExpr = ImmutableStatements.copyOf(builder.falseExpr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getCondition() {
+        return condition;
+    }
+
+    @Override
+    public void setCondition(ExpressionCodeStatement condition) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getTrueExpr() {
+        return trueExpr;
+    }
+
+    @Override
+    public void setTrueExpr(ExpressionCodeStatement trueExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getFalseExpr() {
+        return falseExpr;
+    }
+
+    @Override
+    public void setFalseExpr(ExpressionCodeStatement falseExpr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement condition;
+
+        private ExpressionCodeStatement trueExpr;
+
+        private ExpressionCodeStatement falseExpr;
+
+        private Builder() {
+        }
+
+        public Builder condition(ExpressionCodeStatement condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public Builder trueExpr(ExpressionCodeStatement trueExpr) {
+            this.trueExpr = trueExpr;
+            return this;
+        }
+
+        public Builder falseExpr(ExpressionCodeStatement falseExpr) {
+            this.falseExpr = falseExpr;
+            return this;
+        }
+
+        public ImmutableTernaryExprCodeStatement build() {
+            return new ImmutableTernaryExprCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.TokenCodeStatement;
+
+/**
+ * immutable {@link TokenCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableTokenCodeStatement extends TokenCodeStatement implements ImmutableStatement {
+
+    /**
+     * token index
+     */
+    private final Integer tokenIndex;
+
+    /**
+     * token
+     */
+    private final String token;
+
+    /**
+     * token value
+     */
+    private final String value;
+
+    private ImmutableTokenCodeStatement(Builder builder) {
+        this.tokenIndex = builder.tokenIndex;
+        this.token = builder.token;
+        this.value = builder.value;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public Integer getTokenIndex() {
+        return tokenIndex;
+    }
+
+    @Override
+    public void setTokenIndex(Integer tokenIndex) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public void setToken(String token) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(String value) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private Integer tokenIndex;
+
+        private String token;
+
+        private String value;
+
+        private Builder() {
+        }
+
+        public Builder tokenIndex(Integer tokenIndex) {
+            this.tokenIndex = tokenIndex;
+            return this;
+        }
+
+        public Builder token(String token) {
+            this.token = token;
+            return this;
+        }
+
+        public Builder value(String value) {
+            this.value = value;
+            return this;
+        }
+
+        public ImmutableTokenCodeStatement build() {
+            return new ImmutableTokenCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.TypeCodeStatement;
+
+/**
+ * immutable {@link TypeCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableTypeCodeStatement extends TypeCodeStatement implements ImmutableStatement {
+
+    /**
+     * content
+     */
+    private final String content;
+
+    private ImmutableTypeCodeStatement(Builder builder) {
+        this.content = builder.content;
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getContent() {
+        return content;
+    }
+
+    @Override
+    public void add(String content) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String content;
+
+        private Builder() {
+        }
+
+        public Builder content(String content) {
+            this.content = content;
+            return this;
+        }
+
+        public ImmutableTypeCodeStatement build() {
+            return new ImmutableTypeCodeStatement(this);
+        }
+    }
+}
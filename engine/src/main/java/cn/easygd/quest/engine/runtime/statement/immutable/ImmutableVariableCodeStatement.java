@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.VariableCodeStatement;
+
+/**
+ * immutable {@link VariableCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableVariableCodeStatement extends VariableCodeStatement implements ImmutableStatement {
+
+    /**
+     * variable type
+     */
+    private final String variableType;
+
+    /**
+     * variable name
+     */
+    private final String variableName;
+
+    /**
+     * variable expression
+     */
+    private final ExpressionCodeStatement expr;
+
+    private ImmutableVariableCodeStatement(Builder builder) {
+        this.variableType = builder.variableType;
+        this.variableName = builder.variableName;
+        this.expr = ImmutableStatements.copyOf(builder.expr);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String getVariableType() {
+        return variableType;
+    }
+
+    @Override
+    public void setVariableType(String variableType) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public String getVariableName() {
+        return variableName;
+    }
+
+    @Override
+    public void setVariableName(String variableName) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public ExpressionCodeStatement getExpr() {
+        return expr;
+    }
+
+    @Override
+    public void setExpr(ExpressionCodeStatement expr) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private String variableType;
+
+        private String variableName;
+
+        private ExpressionCodeStatement expr;
+
+        private Builder() {
+        }
+
+        public Builder variableType(String variableType) {
+            this.variableType = variableType;
+            return this;
+        }
+
+        public Builder variableName(String variableName) {
+            this.variableName = variableName;
+            return this;
+        }
+
+        public Builder expr(ExpressionCodeStatement expr) {
+            this.expr = expr;
+            return this;
+        }
+
+        public ImmutableVariableCodeStatement build() {
+            return new ImmutableVariableCodeStatement(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package cn.easygd.quest.engine.runtime.statement.immutable;
+
+import cn.easygd.quest.engine.runtime.statement.service.BlockCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.WhileCodeStatement;
+
+/**
+ * immutable {@link WhileCodeStatement} , see {@link ImmutableStatement}
+ *
+ * @author VD
+ */
+public final class ImmutableWhileCodeStatement extends WhileCodeStatement implements ImmutableStatement {
+
+    /**
+     * condition
+     */
+    private final ExpressionCodeStatement condition;
+
+    /**
+     * block
+     */
+    private final BlockCodeStatement block;
+
+    private ImmutableWhileCodeStatement(Builder builder) {
+        this.condition = ImmutableStatements.copyOf(builder.condition);
+        this.block = ImmutableStatements.copyOf(builder.block);
+    }
+
+    /**
+     * new builder
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public ExpressionCodeStatement getCondition() {
+        return condition;
+    }
+
+    @Override
+    public void setCondition(ExpressionCodeStatement condition) {
+        throw ImmutableStatements.immutable();
+    }
+
+    @Override
+    public BlockCodeStatement getBlock() {
+        return block;
+    }
+
+    @Override
+    public void setBlock(BlockCodeStatement block) {
+        throw ImmutableStatements.immutable();
+    }
+
+    /**
+     * builder , not thread safe , child statements are frozen by {@link #build()}
+     */
+    public static final class Builder {
+
+        private ExpressionCodeStatement condition;
+
+        private BlockCodeStatement block;
+
+        private Builder() {
+        }
+
+        public Builder condition(ExpressionCodeStatement condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public Builder block(BlockCodeStatement block) {
+            this.block = block;
+            return this;
+        }
+
+        public ImmutableWhileCodeStatement build() {
+            return new ImmutableWhileCodeStatement(this);
+        }
+    }
+}
@@ -2,19 +2,19 @@ package cn.easygd.quest.engine.runtime.statement.prd;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
  */
 public class BusinessCodeStatement extends CodeStatement {
     /**
-     * build content
+     * no content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return "";
+    protected void unfold(CodeWriter writer) {
     }
 
     /**
@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -18,13 +21,16 @@ public class ArrayExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement rightExpr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s[%s]", leftExpr.buildContent(), rightExpr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getLeftExpr())
+                .append("[")
+                .append(getRightExpr())
+                .append("]");
     }
 
     /**
@@ -37,6 +43,17 @@ public class ArrayExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.ARRAY_ACCESS_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getLeftExpr());
+        parts.add(getRightExpr());
+    }
+
     public ExpressionCodeStatement getLeftExpr() {
         return leftExpr;
     }
@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -23,13 +26,17 @@ public class AssignmentExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s %s", variable, assignmentOperator, expr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getVariable())
+                .append(" ")
+                .append(getAssignmentOperator())
+                .append(" ")
+                .append(getExpr());
     }
 
     /**
@@ -42,6 +49,18 @@ public class AssignmentExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.ASSIGNMENT_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getVariable());
+        parts.add(getAssignmentOperator());
+        parts.add(getExpr());
+    }
+
     public String getVariable() {
         return variable;
     }
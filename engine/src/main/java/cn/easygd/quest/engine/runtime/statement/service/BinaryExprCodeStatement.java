@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -23,13 +26,17 @@ public class BinaryExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement rightExpr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s %s", leftExpr.buildContent(), binaryOperator, rightExpr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getLeftExpr())
+                .append(" ")
+                .append(getBinaryOperator())
+                .append(" ")
+                .append(getRightExpr());
     }
 
     /**
@@ -42,6 +49,18 @@ public class BinaryExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.BINARY_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getLeftExpr());
+        parts.add(getBinaryOperator());
+        parts.add(getRightExpr());
+    }
+
     public ExpressionCodeStatement getLeftExpr() {
         return leftExpr;
     }
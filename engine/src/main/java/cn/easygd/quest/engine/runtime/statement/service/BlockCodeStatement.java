@@ -1,24 +1,24 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
-import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
 
-import java.util.stream.Collectors;
-
 /**
  * @author VD
  */
 public class BlockCodeStatement extends CollectCodeStatement {
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("{\n%s\n}", content.stream().map(CodeStatement::buildContent).collect(Collectors.joining("\n")));
+    protected void unfold(CodeWriter writer) {
+        writer.openBlock();
+        super.unfold(writer);
+        writer.closeBlock();
     }
 
     /**
@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -18,13 +21,16 @@ public class CastExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("(%s)%s", castType, expr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append("(")
+                .append(getCastType())
+                .append(")")
+                .append(getExpr());
     }
 
     /**
@@ -37,6 +43,17 @@ public class CastExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.CAST_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getCastType());
+        parts.add(getExpr());
+    }
+
     public String getCastType() {
         return castType;
     }
@@ -1,8 +1,11 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
+
 /**
  * @author VD
  */
@@ -24,17 +27,21 @@ public class ClassMethodInvokeExprCodeStatement extends ExpressionCodeStatement
     private String arguments;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        String arguments = getArguments();
+        writer.append(getClassName())
+                .append(".")
+                .append(getMethodName())
+                .append("(");
         if (StringUtils.isNotBlank(arguments)) {
-            return String.format("%s.%s(%s)", className, methodName, arguments);
-        } else {
-            return String.format("%s.%s()", className, methodName);
+            writer.append(arguments);
         }
+        writer.append(")");
     }
 
     /**
@@ -47,6 +54,18 @@ public class ClassMethodInvokeExprCodeStatement extends ExpressionCodeStatement
         return StatementType.CLASS_METHOD_INVOKE_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getClassName());
+        parts.add(getMethodName());
+        parts.add(getArguments());
+    }
+
     public void setClassName(String className) {
         this.className = className;
     }
@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
@@ -14,13 +15,14 @@ public class ExprStrCodeStatement extends CodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s;", expr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getExpr())
+                .append(";");
     }
 
     /**
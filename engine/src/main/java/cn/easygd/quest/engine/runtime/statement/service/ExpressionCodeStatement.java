@@ -2,9 +2,161 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
 /**
  * @author VD
+ *
+ * <p>
+ * expressions compare by structure : two expressions are structurally equal when they have the same type and their
+ * structure parts ( see {@link #structure(List)} ) are equal texts or structurally equal child expressions , so equal
+ * expressions always render the same content. hash and equality walk the tree with explicit stacks , deep nesting does
+ * not grow the java stack.
+ * </p>
+ *
+ * <p>
+ * the structural hash is cached on first use , an expression must not be changed once it is hashed. expressions
+ * shared by hash-consing ( see {@code SymbolPool#intern(ExpressionCodeStatement)} ) are read only anyway.
+ * </p>
  */
 public abstract class ExpressionCodeStatement extends CodeStatement {
 
+    /**
+     * cached structural hash , 0 until computed
+     */
+    private int structuralHash;
+
+    /**
+     * structure parts in a fixed order , a part is a {@link String} field or a child {@link ExpressionCodeStatement} ,
+     * either may be {@code null}
+     *
+     * @param parts structure parts
+     */
+    protected abstract void structure(List<Object> parts);
+
+    /**
+     * structural hash
+     *
+     * @return hash of the type and structure parts
+     */
+    public int structuralHash() {
+        int hash = structuralHash;
+        if (hash == 0) {
+            hash = hashTree(this);
+        }
+        return hash;
+    }
+
+    /**
+     * structural equality
+     *
+     * @param other other expression
+     * @return true when both have the same type and structurally equal structure parts
+     */
+    public boolean structurallyEquals(ExpressionCodeStatement other) {
+        if (other == null) {
+            return false;
+        }
+        Deque<ExpressionCodeStatement> stack = new ArrayDeque<>();
+        List<Object> left = new ArrayList<>();
+        List<Object> right = new ArrayList<>();
+        stack.push(this);
+        stack.push(other);
+
+        while (!stack.isEmpty()) {
+            ExpressionCodeStatement b = stack.pop();
+            ExpressionCodeStatement a = stack.pop();
+            if (a == b) {
+                continue;
+            }
+            if (a == null || b == null || a.type() != b.type() || a.structuralHash() != b.structuralHash()) {
+                return false;
+            }
+            left.clear();
+            right.clear();
+            a.structure(left);
+            b.structure(right);
+            if (left.size() != right.size()) {
+                return false;
+            }
+            for (int i = 0; i < left.size(); i++) {
+                Object x = left.get(i);
+                Object y = right.get(i);
+                if (x instanceof ExpressionCodeStatement && y instanceof ExpressionCodeStatement) {
+                    stack.push((ExpressionCodeStatement) x);
+                    stack.push((ExpressionCodeStatement) y);
+                } else if (!Objects.equals(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * hash every unhashed expression of a tree , children first
+     *
+     * @param root root expression
+     * @return structural hash of the root
+     */
+    private static int hashTree(ExpressionCodeStatement root) {
+        Deque<ExpressionCodeStatement> stack = new ArrayDeque<>();
+        List<Object> parts = new ArrayList<>();
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            ExpressionCodeStatement expr = stack.peek();
+            if (expr.structuralHash != 0) {
+                stack.pop();
+                continue;
+            }
+            parts.clear();
+            expr.structure(parts);
+            boolean ready = true;
+            for (Object part : parts) {
+                if (part instanceof ExpressionCodeStatement && ((ExpressionCodeStatement) part).structuralHash == 0) {
+                    stack.push((ExpressionCodeStatement) part);
+                    ready = false;
+                }
+            }
+            if (!ready) {
+                continue;
+            }
+
+            int hash = expr.type().ordinal();
+            for (Object part : parts) {
+                int partHash;
+                if (part instanceof ExpressionCodeStatement) {
+                    partHash = ((ExpressionCodeStatement) part).structuralHash;
+                } else {
+                    partHash = Objects.hashCode(part);
+                }
+                hash = 31 * hash + mix(partHash);
+            }
+            hash = mix(hash);
+            // 0 marks an unhashed expression
+            expr.structuralHash = hash == 0 ? 1 : hash;
+            stack.pop();
+        }
+        return root.structuralHash;
+    }
+
+    /**
+     * scramble a hash , plain {@code 31 * h + x} sums of similar identifiers ( {@code v1 + v2} , {@code v2 + v1} ...)
+     * collide far too often
+     *
+     * @param hash hash
+     * @return mixed hash
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
 }
@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
@@ -19,13 +20,16 @@ public class ForCodeStatement extends CodeStatement {
     private BlockCodeStatement forBlock;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("for (%s) %s", forControl.buildContent(), forBlock.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append("for (")
+                .append(getForControl())
+                .append(")")
+                .append(getForBlock());
     }
 
     /**
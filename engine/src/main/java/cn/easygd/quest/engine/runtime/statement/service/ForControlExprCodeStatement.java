@@ -1,6 +1,7 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
@@ -23,13 +24,17 @@ public class ForControlExprCodeStatement extends ForControlCodeStatement {
     private ExpressionCodeStatement conditionExpr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s ; %s ; %s", leftExpr.buildContent(), conditionExpr.buildContent(), rightExpr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getLeftExpr())
+                .append(" ; ")
+                .append(getConditionExpr())
+                .append(" ; ")
+                .append(getRightExpr());
     }
 
     /**
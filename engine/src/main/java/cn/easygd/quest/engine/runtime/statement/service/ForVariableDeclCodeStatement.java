@@ -1,6 +1,7 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
@@ -23,13 +24,17 @@ public class ForVariableDeclCodeStatement extends ForControlCodeStatement {
     private String variableValue;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s : %s", variableType, variableName, variableValue);
+    protected void unfold(CodeWriter writer) {
+        writer.append(getVariableType())
+                .append(" ")
+                .append(getVariableName())
+                .append(" : ")
+                .append(getVariableValue());
     }
 
     /**
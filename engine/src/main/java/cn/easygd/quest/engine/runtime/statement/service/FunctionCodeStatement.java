@@ -1,6 +1,7 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import cn.easygd.quest.engine.runtime.statement.CollectCodeStatement;
 
 /**
@@ -29,13 +30,28 @@ public class FunctionCodeStatement extends CollectCodeStatement {
     private String parameters;
 
     /**
-     * build content
+     * structural fingerprint of the source , 0 when unknown , as the one of {@link ProcessCodeStatement}
+     */
+    private long fingerprint;
+
+    /**
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s %s(%s) {\n%s\n}", usageLevel, returnType, name, parameters, super.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getUsageLevel())
+                .append(" ")
+                .append(getReturnType())
+                .append(" ")
+                .append(getName())
+                .append("(")
+                .append(getParameters())
+                .append(")")
+                .openBlock();
+        super.unfold(writer);
+        writer.closeBlock();
     }
 
     /**
@@ -79,4 +95,12 @@ public class FunctionCodeStatement extends CollectCodeStatement {
     public void setParameters(String parameters) {
         this.parameters = parameters;
     }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
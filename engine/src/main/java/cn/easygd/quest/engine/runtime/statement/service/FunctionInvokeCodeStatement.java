@@ -1,8 +1,11 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
+
 /**
  * @author VD
  */
@@ -19,17 +22,19 @@ public class FunctionInvokeCodeStatement extends ExpressionCodeStatement {
     private String arguments;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        String arguments = getArguments();
+        writer.append(getFunctionName())
+                .append("(");
         if (StringUtils.isNotBlank(arguments)) {
-            return String.format("%s(%s)", functionName, arguments);
-        } else {
-            return String.format("%s()", functionName);
+            writer.append(arguments);
         }
+        writer.append(")");
     }
 
     /**
@@ -42,6 +47,17 @@ public class FunctionInvokeCodeStatement extends ExpressionCodeStatement {
         return StatementType.FUNCTION_INVOKE_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getFunctionName());
+        parts.add(getArguments());
+    }
+
     public void setFunctionName(String functionName) {
         this.functionName = functionName;
     }
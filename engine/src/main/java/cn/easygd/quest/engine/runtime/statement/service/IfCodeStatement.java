@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 import java.util.Objects;
 
@@ -26,16 +27,20 @@ public class IfCodeStatement extends CodeStatement {
     private BlockCodeStatement elseBlock;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        writer.append("if (")
+                .append(getCondition())
+                .append(")")
+                .append(getBlock());
+        BlockCodeStatement elseBlock = getElseBlock();
         if (Objects.nonNull(elseBlock)) {
-            return String.format("if (%s) %s else %s", condition.buildContent(), block.buildContent(), elseBlock.buildContent());
-        } else {
-            return String.format("if (%s) %s", condition.buildContent(), block.buildContent());
+            writer.clause("else")
+                    .append(elseBlock);
         }
     }
 
@@ -1,8 +1,11 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.List;
+
 /**
  * @author VD
  */
@@ -19,18 +22,20 @@ public class NewExprCodeStatement extends ExpressionCodeStatement {
     private String arguments;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        String arguments = getArguments();
+        writer.append("new ")
+                .append(getClassType())
+                .append("(");
         if (StringUtils.isNotBlank(arguments)) {
-            arguments = arguments.replaceAll(",", ", ");
-            return String.format("new %s(%s)", classType, arguments);
-        } else {
-            return String.format("new %s()", classType);
+            writer.append(arguments.replaceAll(",", ", "));
         }
+        writer.append(")");
     }
 
     /**
@@ -43,6 +48,17 @@ public class NewExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.NEW_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getClassType());
+        parts.add(getArguments());
+    }
+
     public String getClassType() {
         return classType;
     }
@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -18,13 +21,15 @@ public class PostFixExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s", expr.buildContent(), postfix);
+    protected void unfold(CodeWriter writer) {
+        writer.append(getExpr())
+                .append(" ")
+                .append(getPostfix());
     }
 
     /**
@@ -37,6 +42,17 @@ public class PostFixExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.POSTFIX_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getExpr());
+        parts.add(getPostfix());
+    }
+
     public String getPostfix() {
         return postfix;
     }
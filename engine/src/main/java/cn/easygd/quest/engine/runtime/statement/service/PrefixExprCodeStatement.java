@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -18,13 +21,15 @@ public class PrefixExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s %s", prefix, expr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getPrefix())
+                .append(" ")
+                .append(getExpr());
     }
 
     /**
@@ -37,6 +42,17 @@ public class PrefixExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.PREFIX_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getPrefix());
+        parts.add(getExpr());
+    }
+
     public void setPrefix(String prefix) {
         this.prefix = prefix;
     }
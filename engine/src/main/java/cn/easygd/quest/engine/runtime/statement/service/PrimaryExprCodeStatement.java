@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -13,13 +16,13 @@ public class PrimaryExprCodeStatement extends ExpressionCodeStatement {
     private String primary;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return primary;
+    protected void unfold(CodeWriter writer) {
+        writer.append(getPrimary());
     }
 
     /**
@@ -32,6 +35,16 @@ public class PrimaryExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.PRIMARY_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getPrimary());
+    }
+
     public String getPrimary() {
         return primary;
     }
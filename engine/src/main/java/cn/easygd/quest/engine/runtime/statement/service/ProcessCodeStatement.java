@@ -13,6 +13,13 @@ public class ProcessCodeStatement extends CollectCodeStatement {
      */
     private String name;
 
+    /**
+     * structural fingerprint of the source , equal for sources that only differ in whitespace and comments , 0 when
+     * unknown ( built by hand ). set by the statement builders from the tokens , not updated when the statement is
+     * changed later
+     */
+    private long fingerprint;
+
     /**
      * statement type
      *
@@ -30,4 +37,12 @@ public class ProcessCodeStatement extends CollectCodeStatement {
     public void setName(String name) {
         this.name = name;
     }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
 }
@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 import java.util.Objects;
 
@@ -16,16 +17,19 @@ public class ReturnCodeStatement extends CodeStatement {
     private ExpressionCodeStatement returnValue;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        ExpressionCodeStatement returnValue = getReturnValue();
         if (Objects.nonNull(returnValue)) {
-            return String.format("return %s;", returnValue.buildContent());
+            writer.append("return ")
+                    .append(returnValue)
+                    .append(";");
         } else {
-            return "return;";
+            writer.append("return;");
         }
     }
 
@@ -1,6 +1,9 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
+
+import java.util.List;
 
 /**
  * @author VD
@@ -23,13 +26,17 @@ public class TernaryExprCodeStatement extends ExpressionCodeStatement {
     private ExpressionCodeStatement falseExpr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("%s ? %s : %s", condition.buildContent(), trueExpr.buildContent(), falseExpr.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append(getCondition())
+                .append(" ? ")
+                .append(getTrueExpr())
+                .append(" : ")
+                .append(getFalseExpr());
     }
 
     /**
@@ -42,6 +49,18 @@ public class TernaryExprCodeStatement extends ExpressionCodeStatement {
         return StatementType.TERNARY_EXPR;
     }
 
+    /**
+     * structure parts
+     *
+     * @param parts structure parts
+     */
+    @Override
+    protected void structure(List<Object> parts) {
+        parts.add(getCondition());
+        parts.add(getTrueExpr());
+        parts.add(getFalseExpr());
+    }
+
     public ExpressionCodeStatement getCondition() {
         return condition;
     }
@@ -1,6 +1,7 @@
 package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 import cn.easygd.quest.engine.runtime.statement.StringCodeStatement;
 
 /**
@@ -9,13 +10,13 @@ import cn.easygd.quest.engine.runtime.statement.StringCodeStatement;
 public class TypeCodeStatement extends StringCodeStatement {
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return content;
+    protected void unfold(CodeWriter writer) {
+        writer.append(getContent());
     }
 
     /**
@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 import java.util.Objects;
 
@@ -26,16 +27,22 @@ public class VariableCodeStatement extends CodeStatement {
     private ExpressionCodeStatement expr;
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
+    protected void unfold(CodeWriter writer) {
+        writer.append(getVariableType())
+                .append(" ")
+                .append(getVariableName());
+        ExpressionCodeStatement expr = getExpr();
         if (Objects.nonNull(expr)) {
-            return String.format("%s %s = %s;", variableType, variableName, expr.buildContent());
+            writer.append(" = ")
+                    .append(expr)
+                    .append(";");
         } else {
-            return String.format("%s %s;", variableType, variableName);
+            writer.append(";");
         }
     }
 
@@ -2,6 +2,7 @@ package cn.easygd.quest.engine.runtime.statement.service;
 
 import cn.easygd.quest.engine.runtime.enums.StatementType;
 import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.CodeWriter;
 
 /**
  * @author VD
@@ -20,13 +21,16 @@ public class WhileCodeStatement extends CodeStatement {
 
 
     /**
-     * build content
+     * write content
      *
-     * @return content
+     * @param writer code writer
      */
     @Override
-    public String buildContent() {
-        return String.format("while (%s) %s", condition.buildContent(), block.buildContent());
+    protected void unfold(CodeWriter writer) {
+        writer.append("while (")
+                .append(getCondition())
+                .append(")")
+                .append(getBlock());
     }
 
     /**
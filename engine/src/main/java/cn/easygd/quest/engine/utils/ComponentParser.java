@@ -1,12 +1,13 @@
 package cn.easygd.quest.engine.utils;
 
 import cn.easygd.quest.api.annotation.QuestComponent;
-import cn.easygd.quest.engine.core.QuestLexer;
 import cn.easygd.quest.engine.core.QuestParser;
 import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
 import cn.easygd.quest.engine.runtime.module.ServiceModule;
-import org.antlr.v4.runtime.CharStreams;
-import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
@@ -170,19 +171,21 @@ public class ComponentParser {
      */
     public static ServiceModule parseScript(String scriptContent) {
         try {
-            // 创建词法分析器
-            QuestLexer lexer = new QuestLexer(CharStreams.fromString(scriptContent));
-            CommonTokenStream tokens = new CommonTokenStream(lexer);
+            QuestParser parser = QuestParserPool.acquire(scriptContent);
 
-            // 创建语法分析器
-            QuestParser parser = new QuestParser(tokens);
+            // 通过头部token预判kind，非服务脚本不再解析
+            KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+            if (kind != KindType.SERVICE) {
+                System.err.println("解析脚本时发生错误: 不是服务类型的脚本");
+                return null;
+            }
 
-            // 解析脚本
-            QuestParser.ScriptContext scriptCtx = parser.script();
+            // 解析脚本(SLL优先，失败后回退LL)
+            ParserRuleContext moduleCtx = QuestScriptParser.parse(parser, kind);
 
             // 使用Visitor解析
             QuestServiceVisitor visitor = new QuestServiceVisitor();
-            visitor.visit(scriptCtx);
+            visitor.visit(moduleCtx);
 
             return visitor.getModule();
         } catch (Exception e) {
@@ -3,12 +3,32 @@ package cn.easygd.quest.engine.utils;
 import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 import org.apache.commons.io.FilenameUtils;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -44,6 +64,11 @@ public class FileUtils {
      */
     public static final String FILE_PREFIX = "file:";
 
+    /**
+     * 解码时的字符缓冲区大小
+     */
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
     /**
      * 判断路径是否为绝对路径
      *
@@ -194,4 +219,89 @@ public class FileUtils {
         }
         return null;
     }
+
+    /**
+     * 收集文件夹中文件名匹配 glob 模式的文件，按路径排序
+     *
+     * @param directory 文件夹
+     * @param filter    文件名 glob 模式，如 *.quest
+     * @param recursive 是否递归子文件夹
+     * @return 文件列表
+     * @throws IOException 遍历文件夹失败
+     */
+    public static List<Path> collectFiles(Path directory, String filter, boolean recursive) throws IOException {
+        List<Path> files = new ArrayList<>();
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + filter);
+
+        java.nio.file.Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (matcher.matches(file.getFileName())) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                // 如果不是递归模式，跳过子目录
+                if (!recursive && !dir.equals(directory)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * 获取文件字符流，通过内存映射直接解码为 ANTLR 的码点缓冲区，不生成中间 String
+     *
+     * @param path 文件路径
+     * @return 文件字符流
+     */
+    public static CodePointCharStream getFileCharStream(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return CodePointCharStream.fromBuffer(decode(bytes), path.toString());
+        } catch (Exception e) {
+            log.warn("file to char stream fail , path : [{}]", path, e);
+        }
+        return null;
+    }
+
+    /**
+     * UTF-8 解码到码点缓冲区，非法字节按 ANTLR 的 CharStreams 一样替换为 U+FFFD
+     *
+     * @param bytes 字节
+     * @return 码点缓冲区
+     * @throws CharacterCodingException 解码失败
+     */
+    private static CodePointBuffer decode(ByteBuffer bytes) throws CharacterCodingException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // 码点数不会超过字节数
+        CodePointBuffer.Builder builder = CodePointBuffer.builder(bytes.remaining());
+        CharBuffer chars = CharBuffer.allocate(Math.min(DECODE_BUFFER_SIZE, bytes.remaining() + 1));
+
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            // 被切开的代理对由 builder 在下一次 append 时拼接
+            chars.flip();
+            builder.append(chars);
+            chars.compact();
+        } while (result.isOverflow());
+
+        decoder.flush(chars);
+        chars.flip();
+        builder.append(chars);
+        return builder.build();
+    }
 }
@@ -0,0 +1,55 @@
+package cn.easygd.quest.engine.utils;
+
+/**
+ * JSON 工具类
+ *
+ * @author VD
+ */
+public class JsonUtils {
+
+    /**
+     * JSON 字符串转义，转义引号、反斜杠和控制字符，结果可直接放在双引号之间
+     *
+     * @param text 文本
+     * @return 转义后的文本
+     */
+    public static String escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String escaped;
+            switch (c) {
+                case '"':
+                    escaped = "\\\"";
+                    break;
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                default:
+                    escaped = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+                    break;
+            }
+            if (escaped == null) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            // 没有需要转义的字符时直接返回原文本
+            if (sb == null) {
+                sb = new StringBuilder(text.length() + 16).append(text, 0, i);
+            }
+            sb.append(escaped);
+        }
+        return sb != null ? sb.toString() : text;
+    }
+}
@@ -1,7 +1,9 @@
 package cn.easygd.quest.engine.utils;
 
+import cn.easygd.quest.engine.core.QuestLexer;
 import cn.easygd.quest.engine.core.QuestParser;
 import cn.easygd.quest.engine.core.enums.KindType;
+import org.antlr.v4.runtime.TokenStream;
 
 /**
  * @author VD
@@ -17,4 +19,25 @@ public class ScriptKindHelper {
     public static KindType getScriptKind(QuestParser.ScriptContext scriptCtx) {
         return KindType.getByCode(scriptCtx.kindDeclaration().kindType().getText());
     }
+
+    /**
+     * 通过头部token(@kind X;)预判脚本的Kind类型，不消费token
+     *
+     * @param tokens token流
+     * @return Kind类型，头部不合法时返回null
+     */
+    public static KindType sniffScriptKind(TokenStream tokens) {
+        if (tokens.LA(1) != QuestLexer.AT || tokens.LA(2) != QuestLexer.KIND || tokens.LA(4) != QuestLexer.SEMI) {
+            return null;
+        }
+        switch (tokens.LA(3)) {
+            case QuestLexer.SERVICE:
+            case QuestLexer.PRD:
+            case QuestLexer.ENTITY:
+                // 中文别名在词法阶段已被替换为英文
+                return KindType.getByCode(tokens.LT(3).getText());
+            default:
+                return null;
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package cn.easygd.quest.engine.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * UTF-8 文件输出，字符在追加时直接编码进池化的直接内存缓冲区，缓冲区写满后通过 {@link FileChannel} 写入文件
+ *
+ * <p>
+ * 可作为 {@code CodeWriter} 的输出目标，内容边生成边写入，内存中只有一个缓冲区，不保留整份文档，
+ * 也不经过 String 和 byte[] 中间拷贝；markdown 文档仍在其 content 中整份构建，写入时只省去 String 和 byte[] 拷贝；直接内存缓冲区写入通道时也无需再拷贝到 JDK 的临时缓冲区。关闭时缓冲区归还到池中，
+ * 供后续输出复用。非线程安全。
+ * </p>
+ *
+ * <p>
+ * 不成对的代理字符与 {@link String#getBytes} 一样写为 {@code '?'}。
+ * </p>
+ *
+ * @author VD
+ */
+public final class Utf8FileSink implements Appendable, Flushable, Closeable {
+
+    /**
+     * 缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 池中最多保留的缓冲区数
+     */
+    private static final int POOL_SIZE = 8;
+
+    /**
+     * 缓冲区池
+     */
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * 文件通道
+     */
+    private final FileChannel channel;
+
+    /**
+     * 编码缓冲区，关闭后为 null
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * 等待低代理的高代理字符，0 表示没有
+     */
+    private char highSurrogate;
+
+    /**
+     * 已写入通道的字节数
+     */
+    private long written;
+
+    private Utf8FileSink(FileChannel channel) {
+        this.channel = channel;
+        ByteBuffer pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /**
+     * 打开文件输出，文件已存在时清空，父目录不存在时创建
+     *
+     * @param path 文件路径
+     * @return 文件输出
+     * @throws IOException 打开文件失败
+     */
+    public static Utf8FileSink open(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new Utf8FileSink(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    @Override
+    public Utf8FileSink append(CharSequence csq) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Utf8FileSink append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            csq = "null";
+        }
+        ByteBuffer buffer = checkOpen();
+        for (int i = start; i < end; i++) {
+            char c = csq.charAt(i);
+            // ASCII 快速路径
+            if (c < 0x80 && highSurrogate == 0 && buffer.hasRemaining()) {
+                buffer.put((byte) c);
+            } else {
+                encode(c);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8FileSink append(char c) throws IOException {
+        checkOpen();
+        encode(c);
+        return this;
+    }
+
+    /**
+     * 已写入文件的字节数，不含缓冲区中尚未写出的部分
+     *
+     * @return 字节数
+     */
+    public long getWrittenBytes() {
+        return written;
+    }
+
+    /**
+     * 把缓冲区写入文件，不强制落盘
+     *
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        drain();
+    }
+
+    /**
+     * 写出剩余内容并关闭文件，缓冲区归还到池中
+     *
+     * @throws IOException 写入或关闭失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                buffer.put((byte) '?');
+            }
+            drain();
+        } finally {
+            ByteBuffer released = buffer;
+            buffer = null;
+            released.clear();
+            POOL.offer(released);
+            channel.close();
+        }
+    }
+
+    /**
+     * 编码一个字符
+     */
+    private void encode(char c) throws IOException {
+        if (buffer.remaining() < 4) {
+            drain();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)))
+                        .put((byte) (0x80 | ((codePoint >> 12) & 0x3F)))
+                        .put((byte) (0x80 | ((codePoint >> 6) & 0x3F)))
+                        .put((byte) (0x80 | (codePoint & 0x3F)));
+                return;
+            }
+            // 前一个高代理不成对，当前字符最多再占 3 个字节
+            buffer.put((byte) '?');
+        }
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            // 低代理可能在下一次追加中
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)))
+                    .put((byte) (0x80 | ((c >> 6) & 0x3F)))
+                    .put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * 把缓冲区内容写入通道
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 检查是否已关闭
+     */
+    private ByteBuffer checkOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("sink is closed");
+        }
+        return buffer;
+    }
+}
@@ -1,5 +1,7 @@
 package cn.easygd.quest.engine.utils.markdown;
 
+import java.io.IOException;
+
 /**
  * @author VD
  */
@@ -26,4 +28,15 @@ public abstract class MarkdownWrapper {
      * @return markdown
      */
     public abstract String create();
+
+    /**
+     * write markdown , same content as {@link #create()} , which builds the string first. the markdown is always
+     * built whole in {@link #content} , writing saves at most the string copy , not the buffer
+     *
+     * @param out output , e.g. a file sink
+     * @throws IOException write fail
+     */
+    public void writeTo(Appendable out) throws IOException {
+        out.append(create());
+    }
 }
@@ -1,5 +1,7 @@
 package cn.easygd.quest.engine.utils.markdown;
 
+import java.io.IOException;
+
 /**
  * @author VD
  */
@@ -22,10 +24,30 @@ public class PrdMarkdownInfo extends MarkdownInfo {
      */
     @Override
     public String create() {
+        references();
+        return content.toString();
+    }
+
+    /**
+     * write markdown , the content built so far is appended in one go without the string copy of {@link #create()}.
+     * the whole document is still held in {@link #content} , it is not streamed section by section
+     *
+     * @param out output
+     * @throws IOException write fail
+     */
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+        references();
+        out.append(content);
+    }
+
+    /**
+     * official documents
+     */
+    private void references() {
         h2("官方文档")
                 .link("语法参考文档", "https://github.com/vdd3/quest/tree/master/engine/src/main/antlr4")
                 .link("Quest官方文档", "https://www.yuque.com/vd_developer/quest");
-        return content.toString();
     }
 
     /**
@@ -1,5 +1,7 @@
 package cn.easygd.quest.engine.utils.markdown;
 
+import java.io.IOException;
+
 /**
  * @author VD
  */
@@ -49,6 +51,18 @@ public class ProgramMarkdownInfo extends MarkdownInfo {
         return content.toString();
     }
 
+    /**
+     * write markdown , the content built so far is appended in one go without the string copy of {@link #create()}.
+     * the whole document is still held in {@link #content} , it is not streamed section by section
+     *
+     * @param out output
+     * @throws IOException write fail
+     */
+    @Override
+    public void writeTo(Appendable out) throws IOException {
+        out.append(content);
+    }
+
     /**
      * file suffix
      *
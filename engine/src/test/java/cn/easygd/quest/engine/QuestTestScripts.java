@@ -0,0 +1,296 @@
+package cn.easygd.quest.engine;
+
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * scripts for tests and benchmarks : the bundled warm up scripts , seeded random service scripts and deeply nested
+ * ones
+ *
+ * @author VD
+ */
+public final class QuestTestScripts {
+
+    /**
+     * bundled scripts , one of each kind
+     */
+    public static final String SERVICE = "quest/warmup/service.quest";
+
+    public static final String PRD = "quest/warmup/prd.quest";
+
+    public static final String ENTITY = "quest/warmup/entity.quest";
+
+    /**
+     * operators of the random expressions
+     */
+    private static final String[] OPERATORS = {
+            "*", "/", "%", "+", "-", "<", "<=", ">", ">=", "==", "!=", "&&", "||"
+    };
+
+    /**
+     * operands of the random expressions
+     */
+    private static final String[] OPERANDS = {
+            "a", "b", "count", "1", "2", "\"s\"", "x.y(a)", "f(a, b)"
+    };
+
+    private QuestTestScripts() {
+    }
+
+    /**
+     * read a bundled script
+     *
+     * @param resource class path resource
+     * @return script content
+     */
+    public static String read(String resource) {
+        try (InputStream in = QuestTestScripts.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("missing resource " + resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * random service scripts with condition heavy processes and a function module , the same seed gives the same
+     * scripts
+     *
+     * @param seed      seed
+     * @param count     scripts
+     * @param processes processes per script
+     * @return scripts
+     */
+    public static List<String> services(long seed, int count, int processes) {
+        Random random = new Random(seed);
+        List<String> scripts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder("@kind service;\n@business `biz").append(i).append("`;\n");
+            for (int p = 0; p < processes; p++) {
+                sb.append("process p").append(p).append(" {\n");
+                statements(sb, random, 2 + random.nextInt(6), 0);
+                sb.append("}\n");
+            }
+            sb.append("function {\n");
+            for (int f = 0; f < 2; f++) {
+                sb.append("    private int f").append(f).append("(int a, int b) {\n");
+                statements(sb, random, 1 + random.nextInt(3), 2);
+                sb.append("    }\n");
+            }
+            sb.append("}\n");
+            scripts.add(sb.toString());
+        }
+        return scripts;
+    }
+
+    /**
+     * service script with one process {@code p} nested {@code depth} levels deep
+     *
+     * @param shape {@code if} : nested ifs , {@code while} : alternating while / if-else , {@code chain} :
+     *              {@code a + a0 + a1 ...} , {@code paren} : nested parentheses , {@code ternary} : right nested
+     *              conditionals
+     * @param depth nesting depth
+     * @return script
+     */
+    public static String deep(String shape, int depth) {
+        StringBuilder sb = new StringBuilder("@kind service;\n@business `deep`;\nprocess p {\n");
+        switch (shape) {
+            case "if":
+                for (int i = 0; i < depth; i++) {
+                    sb.append("if (a > ").append(i).append(") {\n");
+                }
+                sb.append("v = 1;\n");
+                repeat(sb, "}\n", depth);
+                break;
+            case "while":
+                for (int i = 0; i < depth; i++) {
+                    sb.append(i % 2 == 0 ? "while (a) {\n" : "if (b) {\n} else {\n");
+                }
+                sb.append("v = 1;\n");
+                repeat(sb, "}\n", depth);
+                break;
+            case "chain":
+                sb.append("v = a");
+                for (int i = 0; i < depth; i++) {
+                    sb.append(" + a").append(i);
+                }
+                sb.append(";\n");
+                break;
+            case "paren":
+                sb.append("v = ");
+                repeat(sb, "(", depth);
+                sb.append("a");
+                repeat(sb, ")", depth);
+                sb.append(";\n");
+                break;
+            case "ternary":
+                sb.append("v = ");
+                for (int i = 0; i < depth; i++) {
+                    sb.append("a").append(i).append(" ? 1 : ");
+                }
+                sb.append("0;\n");
+                break;
+            default:
+                throw new IllegalArgumentException(shape);
+        }
+        return sb.append("}\n").toString();
+    }
+
+    /**
+     * parse a service script into its parse tree , on a thread with a large stack : the generated parser recurses
+     * per rule invocation
+     *
+     * @param script service script
+     * @return service script context
+     */
+    public static ParserRuleContext parseTree(String script) {
+        AtomicReference<ParserRuleContext> tree = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                QuestParser parser = QuestParserPool.acquire(script);
+                parser.removeErrorListeners();
+                KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+                ParserRuleContext ctx = QuestScriptParser.parse(parser, kind);
+                if (parser.getNumberOfSyntaxErrors() > 0) {
+                    throw new IllegalStateException(parser.getNumberOfSyntaxErrors() + " syntax errors");
+                }
+                tree.set(ctx);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "quest-parse", 1L << 30);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("parse failed", failure.get());
+        }
+        return tree.get();
+    }
+
+    /**
+     * parse a service script and build its module with a regular visitor
+     *
+     * @param script service script
+     * @return module
+     */
+    public static ServiceModule service(String script) {
+        QuestServiceVisitor visitor = new QuestServiceVisitor();
+        parseTree(script).accept(visitor);
+        return visitor.getModule();
+    }
+
+    /**
+     * biz module and the rendered processes / functions sorted by name , equal for modules with the same statements
+     *
+     * @param module service module
+     * @return rendered module
+     */
+    public static String render(ServiceModule module) {
+        StringBuilder sb = new StringBuilder(String.valueOf(module.getBizModule())).append('\n');
+        new TreeMap<>(module.getProcessStatementMap()).forEach((name, process) ->
+                sb.append(name).append('\n').append(process.buildContent()).append('\n'));
+        new TreeMap<>(module.getFunctionStatementMap()).forEach((name, function) ->
+                sb.append(name).append('\n').append(function.buildContent()).append('\n'));
+        return sb.toString();
+    }
+
+    private static void statements(StringBuilder sb, Random random, int count, int depth) {
+        for (int i = 0; i < count; i++) {
+            int kind = depth > 3 ? random.nextInt(4) : random.nextInt(7);
+            switch (kind) {
+                case 0:
+                    sb.append("int v").append(random.nextInt(100)).append(" = ")
+                            .append(expression(random, 3)).append(";\n");
+                    break;
+                case 1:
+                    sb.append("v = ").append(expression(random, 3)).append(";\n");
+                    break;
+                case 2:
+                    sb.append("return ").append(expression(random, 3)).append(";\n");
+                    break;
+                case 3:
+                    sb.append("用户服务.调用(").append(expression(random, 3)).append(");\n");
+                    break;
+                case 4:
+                    sb.append("if (").append(expression(random, 4)).append(") {\n");
+                    statements(sb, random, 1 + random.nextInt(3), depth + 1);
+                    if (random.nextBoolean()) {
+                        sb.append("} else {\n");
+                        statements(sb, random, 1 + random.nextInt(2), depth + 1);
+                    }
+                    sb.append("}\n");
+                    break;
+                case 5:
+                    sb.append("while (").append(expression(random, 4)).append(") {\n");
+                    statements(sb, random, 1 + random.nextInt(3), depth + 1);
+                    sb.append("}\n");
+                    break;
+                default:
+                    sb.append("for (Item it : items) {\n");
+                    statements(sb, random, 1 + random.nextInt(3), depth + 1);
+                    sb.append("}\n");
+                    break;
+            }
+        }
+    }
+
+    private static String expression(Random random, int depth) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            String operand = OPERANDS[random.nextInt(OPERANDS.length)];
+            switch (random.nextInt(5)) {
+                case 0:
+                    return "!" + operand;
+                case 1:
+                    return "(" + operand + ")";
+                default:
+                    return operand;
+            }
+        }
+        switch (random.nextInt(6)) {
+            case 0:
+                return expression(random, depth - 1) + " ? " + expression(random, depth - 1) + " : "
+                        + expression(random, depth - 1);
+            case 1:
+                return "(" + expression(random, depth - 1) + ")";
+            default:
+                return expression(random, depth - 1) + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " "
+                        + expression(random, depth - 1);
+        }
+    }
+
+    private static void repeat(StringBuilder sb, String text, int count) {
+        for (int i = 0; i < count; i++) {
+            sb.append(text);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package cn.easygd.quest.engine.core;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * allocation and time of building statements from ready parse trees with {@link QuestStatementBuilder}
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [scripts]
+ * [processes]}. the scripts are generated from a fixed seed ( {@link QuestTestScripts#services} ) and parsed once , the
+ * measured rounds only run the module visitors over the trees. allocation is read from
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} , so a HotSpot based JVM is needed.
+ * </p>
+ *
+ * @author VD
+ */
+public class StatementBuildBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int processes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        List<ParserRuleContext> trees = new ArrayList<>(count);
+        long chars = 0;
+        for (String script : QuestTestScripts.services(11L, count, processes)) {
+            trees.add(QuestTestScripts.parseTree(script));
+            chars += script.length();
+        }
+        System.out.printf("%d scripts , %.1f M chars%n", trees.size(), chars / 1e6);
+
+        measure("visitor", trees, false, pool -> new QuestServiceVisitor());
+        measure("compact", trees, false, pool -> new QuestServiceVisitor(true));
+        measure("symbol pool", trees, false, pool -> new QuestServiceVisitor(false, pool));
+        measure("hash consing", trees, true, pool -> new QuestServiceVisitor(false, pool));
+    }
+
+    /**
+     * @param hashConsing symbol pool shares equal expression subtrees
+     * @param visitors    visitor per script , the symbol pool is shared by the scripts of a round as in a parse run
+     */
+    private static void measure(String name, List<ParserRuleContext> trees, boolean hashConsing,
+                                Function<SymbolPool, QuestServiceVisitor> visitors) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long bestTime = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            SymbolPool pool = new SymbolPool(hashConsing);
+            long bytes = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            for (ParserRuleContext tree : trees) {
+                tree.accept(visitors.apply(pool));
+            }
+            long time = System.nanoTime() - start;
+            bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+            if (round >= WARM_UP_ROUNDS) {
+                bestTime = Math.min(bestTime, time);
+                bestBytes = Math.min(bestBytes, bytes);
+            }
+        }
+        System.out.printf("%-14s %8.1f ms %10.1f KB per script%n",
+                name, bestTime / 1e6, bestBytes / 1024.0 / trees.size());
+    }
+}
@@ -0,0 +1,124 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.utils.FileUtils;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * throughput of {@link QuestFastLexer} against the generated {@link QuestLexer} on a multi megabyte corpus
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [folder] [MB]}.
+ * the corpus is the {@code *.quest} files of the folder , or the bundled scripts , repeated up to the given size
+ * ( 8 MB by default ). both lexers read the same code point stream and every token is pulled up to EOF , the best
+ * of the measured rounds is reported.
+ * </p>
+ *
+ * @author VD
+ */
+public class QuestFastLexerBenchmark {
+
+    private static final String[] SCRIPTS = {
+            "quest/warmup/service.quest",
+            "quest/warmup/prd.quest",
+            "quest/warmup/entity.quest"
+    };
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        String corpus = corpus(args.length > 0 ? Paths.get(args[0]) : null, megabytes << 20);
+        CharStream input = CharStreams.fromString(corpus);
+        double utf8Megabytes = corpus.getBytes(StandardCharsets.UTF_8).length / (1024.0 * 1024.0);
+        System.out.printf("corpus: %.1f MB UTF-8 , %d chars%n", utf8Megabytes, corpus.length());
+
+        long generatedTokens = run("QuestLexer", input, utf8Megabytes, QuestLexer::new);
+        long fastTokens = run("QuestFastLexer", input, utf8Megabytes, QuestFastLexer::new);
+        if (generatedTokens != fastTokens) {
+            throw new IllegalStateException("token counts differ : " + generatedTokens + " / " + fastTokens);
+        }
+    }
+
+    /**
+     * lex the input in rounds and print the best one
+     *
+     * @return tokens per round
+     */
+    private static long run(String name, CharStream input, double utf8Megabytes,
+                            Function<CharStream, TokenSource> lexer) {
+        long tokens = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            input.seek(0);
+            TokenSource source = lexer.apply(input);
+            long start = System.nanoTime();
+            tokens = 0;
+            while (source.nextToken().getType() != Token.EOF) {
+                tokens++;
+            }
+            long nanos = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, nanos);
+            }
+        }
+        double seconds = best / 1e9;
+        System.out.printf("%-15s %8.1f ms %8.1f MB/s %10.0f tokens/s ( %d tokens )%n", name, best / 1e6,
+                utf8Megabytes / seconds, tokens / seconds, tokens);
+        return tokens;
+    }
+
+    /**
+     * scripts of the folder or the bundled ones , repeated up to the size
+     */
+    private static String corpus(Path directory, int size) throws IOException {
+        StringBuilder scripts = new StringBuilder();
+        if (directory != null) {
+            List<Path> files = FileUtils.collectFiles(directory, "*.quest", true);
+            for (Path file : files) {
+                scripts.append(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).append('\n');
+            }
+        } else {
+            for (String script : SCRIPTS) {
+                scripts.append(read(script)).append('\n');
+            }
+        }
+        if (scripts.length() == 0) {
+            throw new IllegalArgumentException("no script in " + directory);
+        }
+        StringBuilder corpus = new StringBuilder(size + scripts.length());
+        while (corpus.length() < size) {
+            corpus.append(scripts);
+        }
+        return corpus.toString();
+    }
+
+    private static String read(String resource) throws IOException {
+        try (InputStream in = QuestFastLexerBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("missing resource " + resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package cn.easygd.quest.engine.core.lexer;
+
+import cn.easygd.quest.engine.core.QuestLexer;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptValidator;
+import cn.easygd.quest.engine.core.parser.QuestValidationResult;
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * differential test of {@link QuestFastLexer} against the generated {@link QuestLexer} : same token types , text ,
+ * indexes , positions and recognition errors
+ *
+ * @author VD
+ */
+public class QuestFastLexerTest {
+
+    /**
+     * fragments the random inputs are made of , keywords and aliases , literals , operators , comments , chars that
+     * start no token
+     */
+    private static final String[] FRAGMENTS = {
+            " ", "\n", "\t", "\r\n", "if", "alt", "loop", "如果", "当", "是", "用户", "受保护的", "类", "a1", "_x",
+            "Integer", "Long", "kind", "类型", "类型x", "process", "逻辑", "本类", "this", "default", "默认",
+            "override", "重写",
+            "1", "12.5", "1.", "1e5", "1e+", "3.4E-2", "\"s\"", "\"a\\nb\"", "\"\\u12g\"", "\"unterminated", "\"\n\"",
+            "/* c */", "/*", "*/", "/**/", "/** d */", "// l\n", "/", "/=",
+            "+", "++", "+=", "-", "--", "-=", "*", "*=", "%", "=", "==", "!", "!=", "<", "<=", ">", ">=", "&", "&&",
+            "|", "||", "(", ")", "{", "}", "[", "]", ";", ":", ",", ".", "?", "@", "`",
+            "é", "#", "$", "\uD83D\uDE00"
+    };
+
+    /**
+     * bundled scripts
+     */
+    private static final String[] SCRIPTS = {
+            "quest/warmup/service.quest",
+            "quest/warmup/prd.quest",
+            "quest/warmup/entity.quest"
+    };
+
+    @Test
+    public void bundledScripts() throws IOException {
+        for (String script : SCRIPTS) {
+            assertSameTokens(read(script));
+        }
+    }
+
+    @Test
+    public void emptyDocCommentRunsToTheNextCommentEnd() {
+        // DOC_COMMENT '/**' .*? '*/' is longer than the BLOCK_COMMENT "/**/"
+        assertSameTokens("/**/=_x*=本类++/** d */");
+        assertSameTokens("/**/*/a");
+        assertSameTokens("/**/ a");
+        assertSameTokens("/***/ a */ b");
+    }
+
+    @Test
+    public void parserPoolSelectsTheFastLexer() throws IOException {
+        for (String script : SCRIPTS) {
+            QuestParser parser = QuestParserPool.acquire(CharStreams.fromString(read(script)), true);
+            assertTrue(parser.getTokenStream().getTokenSource() instanceof QuestFastLexer);
+
+            QuestValidationResult result = QuestScriptValidator.validate(CharStreams.fromString(read(script)), true);
+            assertTrue(script, result.isValid());
+        }
+        QuestParser parser = QuestParserPool.acquire(CharStreams.fromString(read(SCRIPTS[0])));
+        assertTrue(parser.getTokenStream().getTokenSource() instanceof QuestLexer);
+    }
+
+    @Test
+    public void randomFragmentMixes() {
+        Random random = new Random(42);
+        for (int n = 0; n < 50_000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int count = 1 + random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameTokens(sb.toString());
+        }
+    }
+
+    private static void assertSameTokens(String input) {
+        List<String> expectedErrors = new ArrayList<>();
+        QuestLexer generated = new QuestLexer(CharStreams.fromString(input));
+        generated.removeErrorListeners();
+        generated.addErrorListener(new ErrorRecorder(expectedErrors));
+
+        List<String> actualErrors = new ArrayList<>();
+        QuestFastLexer fast = new QuestFastLexer(CharStreams.fromString(input));
+        fast.removeErrorListeners();
+        fast.addErrorListener(new ErrorRecorder(actualErrors));
+
+        String message = "input : " + input.replace("\n", "\\n");
+        assertEquals(message, tokens(generated), tokens(fast));
+        assertEquals(message, expectedErrors, actualErrors);
+    }
+
+    /**
+     * every token up to EOF , one line each
+     */
+    private static List<String> tokens(TokenSource source) {
+        List<String> tokens = new ArrayList<>();
+        Token token;
+        do {
+            token = source.nextToken();
+            tokens.add(QuestLexer.VOCABULARY.getSymbolicName(token.getType()) + " '" + token.getText() + "' "
+                    + token.getStartIndex() + ".." + token.getStopIndex()
+                    + " @" + token.getLine() + ":" + token.getCharPositionInLine());
+        } while (token.getType() != Token.EOF);
+        return tokens;
+    }
+
+    private static String read(String resource) throws IOException {
+        try (InputStream in = QuestFastLexerTest.class.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(resource, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * records recognition errors with their position
+     */
+    private static class ErrorRecorder extends BaseErrorListener {
+
+        private final List<String> errors;
+
+        ErrorRecorder(List<String> errors) {
+            this.errors = errors;
+        }
+
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                int charPositionInLine, String msg, RecognitionException e) {
+            errors.add(line + ":" + charPositionInLine + " " + msg);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestParser;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import java.util.List;
+
+/**
+ * prediction cost of the precedence tiers of the expression grammar on condition heavy service scripts
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [scripts]
+ * [processes]}. the scripts are generated from a fixed seed ( {@link QuestTestScripts#services} ) : long {@code if} /
+ * {@code while} conditions mixing every operator tier , ternaries , casts like {@code (a) + b} and calls. the profile
+ * pass parses every script once in full LL and counts the decisions that needed full context and the ambiguities ,
+ * the timed passes parse all scripts through {@link QuestScriptParser} ( SLL first ) and in plain LL , best of the
+ * measured rounds.
+ * </p>
+ *
+ * @author VD
+ */
+public class ExpressionPredictionBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 3;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int processes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<String> scripts = QuestTestScripts.services(4L, count, processes);
+        long chars = scripts.stream().mapToLong(String::length).sum();
+        System.out.printf("%d scripts , %.1f M chars%n", scripts.size(), chars / 1e6);
+
+        long fullContext = 0;
+        long ambiguities = 0;
+        long contextSensitivities = 0;
+        long decisions = 0;
+        for (String script : scripts) {
+            QuestParser parser = QuestParserPool.acquire(script);
+            parser.removeErrorListeners();
+            parser.setProfile(true);
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.serviceScript();
+            if (parser.getNumberOfSyntaxErrors() > 0) {
+                throw new IllegalStateException("generated script does not parse");
+            }
+            for (DecisionInfo info : parser.getParseInfo().getDecisionInfo()) {
+                decisions += info.invocations;
+                fullContext += info.LL_Fallback;
+                ambiguities += info.ambiguities.size();
+                contextSensitivities += info.contextSensitivities.size();
+            }
+            parser.setProfile(false);
+        }
+        System.out.printf("decisions %d , full context ( LL ) %d , ambiguities %d , context sensitivities %d%n",
+                decisions, fullContext, ambiguities, contextSensitivities);
+
+        QuestScriptParser.resetStatistics();
+        time("SLL then LL", scripts, false);
+        System.out.printf("  scripts finished in SLL %d , fell back to LL %d%n",
+                QuestScriptParser.getSllCount(), QuestScriptParser.getFallbackCount());
+        time("LL only", scripts, true);
+    }
+
+    private static void time(String name, List<String> scripts, boolean llOnly) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String script : scripts) {
+                QuestParser parser = QuestParserPool.acquire(script);
+                parser.removeErrorListeners();
+                if (llOnly) {
+                    parser.serviceScript();
+                } else {
+                    QuestScriptParser.parse(parser, QuestParser::serviceScript);
+                }
+            }
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%-12s %8.1f ms%n", name, best / 1e6);
+    }
+}
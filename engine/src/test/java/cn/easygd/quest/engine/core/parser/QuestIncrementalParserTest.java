@@ -0,0 +1,130 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link QuestIncrementalParser} against full parses of the same scripts
+ *
+ * @author VD
+ */
+public class QuestIncrementalParserTest {
+
+    private String script;
+
+    private QuestIncrementalParser parser;
+
+    @Before
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("quest/warmup/service.quest")) {
+            assertNotNull(in);
+            script = new String(readAll(in), StandardCharsets.UTF_8);
+        }
+        parser = new QuestIncrementalParser();
+        assertNotNull(parser.parse(script));
+    }
+
+    @Test
+    public void editInBlockParsesOnlyTheBlock() {
+        String edited = script.replace("int count = 0;", "int count = 42;");
+
+        ServiceModule module = parser.update(edited);
+
+        assertEquals(1, parser.getBlockParseCount());
+        assertEquals(1, parser.getFullParseCount());
+        assertEquals(QuestTestScripts.render(new QuestIncrementalParser().parse(edited)), QuestTestScripts.render(module));
+    }
+
+    @Test
+    public void deletedClosingBraceOfFunctionModuleIsRejected() {
+        // the last function and the function module close on the same line
+        String base = replaceLast(script, "    }\n}\n", "    }}\n");
+        String edited = replaceLast(base, "    }}\n", "    }\n");
+
+        assertNotNull(parser.parse(base));
+        assertNull(new QuestIncrementalParser().parse(edited));
+        assertNull(parser.update(edited));
+        assertEquals(0, parser.getBlockParseCount());
+    }
+
+    @Test
+    public void deletedOpeningBraceOfFunctionModuleIsRejected() {
+        // the function module opens on the line of the first function
+        String base = script.replace("function {\n    private int", "function {private int");
+        String edited = base.replace("function {private int", "function private int");
+
+        assertNotNull(parser.parse(base));
+        assertNull(new QuestIncrementalParser().parse(edited));
+        assertNull(parser.update(edited));
+        assertEquals(0, parser.getBlockParseCount());
+    }
+
+    @Test
+    public void whitespaceBetweenBlocksNeedsNoParse() {
+        String edited = script.replace("\nfunction {", "\n\n  function {");
+
+        ServiceModule module = parser.update(edited);
+
+        assertEquals(1, parser.getFullParseCount());
+        assertEquals(0, parser.getBlockParseCount());
+        assertEquals(QuestTestScripts.render(new QuestIncrementalParser().parse(edited)), QuestTestScripts.render(module));
+    }
+
+    @Test
+    public void whitespaceSplittingAKeywordIsRejected() {
+        String edited = script.replace("function {", "func tion {");
+
+        assertNull(new QuestIncrementalParser().parse(edited));
+        assertNull(parser.update(edited));
+        assertEquals(2, parser.getFullParseCount());
+    }
+
+    @Test
+    public void lineCommentAfterABlockIsRejected() {
+        // the second process starts on the line where the first one ends
+        String base = script.replace("    return total;\n}\n\n", "    return total;\n} ");
+        String edited = base.replace("    return total;\n} ", "    return total;\n}// ");
+
+        assertNotNull(parser.parse(base));
+        assertNull(new QuestIncrementalParser().parse(edited));
+        assertNull(parser.update(edited));
+        assertEquals(3, parser.getFullParseCount());
+    }
+
+    @Test
+    public void rejectedUpdateKeepsTheLastGoodScript() {
+        String broken = script.replace("function {\n    private", "function \n    private");
+        String edited = script.replace("return a + b * c % d;", "return a;");
+
+        assertNull(parser.update(broken));
+        ServiceModule module = parser.update(edited);
+
+        assertEquals(QuestTestScripts.render(new QuestIncrementalParser().parse(edited)), QuestTestScripts.render(module));
+    }
+
+    private static String replaceLast(String text, String target, String replacement) {
+        int index = text.lastIndexOf(target);
+        assertEquals(text.length() - target.length(), index);
+        return text.substring(0, index) + replacement;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = in.read(buffer)) > 0; ) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
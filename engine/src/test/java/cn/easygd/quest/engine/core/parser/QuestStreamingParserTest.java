@@ -0,0 +1,94 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link QuestStreamingParser} against full parses of the same scripts
+ *
+ * @author VD
+ */
+public class QuestStreamingParserTest {
+
+    @Test
+    public void bundledServiceScript() {
+        String script = QuestTestScripts.read(QuestTestScripts.SERVICE);
+
+        assertSameAsFullParse(script);
+    }
+
+    @Test
+    public void generatedServiceScripts() {
+        for (String script : QuestTestScripts.services(7L, 20, 10)) {
+            assertSameAsFullParse(script);
+        }
+    }
+
+    @Test
+    public void otherKindsBuildNoServiceModule() {
+        SyntaxErrorCollector errors = new SyntaxErrorCollector("prd");
+
+        assertNull(stream(QuestTestScripts.read(QuestTestScripts.PRD), errors));
+        assertNull(stream(QuestTestScripts.read(QuestTestScripts.ENTITY), errors));
+        assertNull(stream("process p {\n}\n", errors));
+        assertFalse(errors.hasErrors());
+    }
+
+    @Test
+    public void brokenProcessIsLeftOut() {
+        String script = "@kind service;\n@business `biz`;\nprocess a {\nv = (1;\n}\nprocess b {\nv = 1;\n}\n";
+        SyntaxErrorCollector errors = new SyntaxErrorCollector("broken");
+
+        ServiceModule module = stream(script, errors);
+
+        assertTrue(errors.hasErrors());
+        assertNotNull(module);
+        assertEquals("[b]", module.getProcessStatementMap().keySet().toString());
+    }
+
+    @Test
+    public void fileKeepsItsSource() throws IOException {
+        String script = QuestTestScripts.read(QuestTestScripts.SERVICE);
+        Path file = Files.createTempFile("stream", ".quest");
+        try {
+            Files.write(file, script.getBytes(StandardCharsets.UTF_8));
+
+            ServiceModule module = QuestStreamingParser.parseServiceModule(file, new SyntaxErrorCollector("file"));
+
+            assertNotNull(module);
+            assertEquals(QuestTestScripts.render(QuestTestScripts.service(script)), QuestTestScripts.render(module));
+            assertEquals(script, module.getScriptSource().getText());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void assertSameAsFullParse(String script) {
+        SyntaxErrorCollector errors = new SyntaxErrorCollector("stream");
+        ServiceModule streamed = stream(script, errors);
+        ServiceModule full = QuestTestScripts.service(script);
+
+        assertFalse(errors.getErrors().toString(), errors.hasErrors());
+        assertNotNull(streamed);
+        assertEquals(QuestTestScripts.render(full), QuestTestScripts.render(streamed));
+        assertEquals(full.getFingerprint(), streamed.getFingerprint());
+    }
+
+    private static ServiceModule stream(String script, SyntaxErrorCollector errors) {
+        return QuestStreamingParser.parseServiceModule(
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)), errors);
+    }
+}
@@ -0,0 +1,154 @@
+package cn.easygd.quest.engine.core.parser;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.service.AssignmentExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExprStrCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExpressionCodeStatement;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * interning and hit counting of {@link SymbolPool}
+ *
+ * @author VD
+ */
+public class SymbolPoolTest {
+
+    @Test
+    public void internReturnsTheFirstInstance() {
+        SymbolPool pool = new SymbolPool();
+        String first = new String("订单");
+        String second = new String("订单");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame(first, pool.intern(new String("订单")));
+
+        assertEquals(1, pool.size());
+        assertEquals(2, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(2.0 / 3, pool.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void nullAndLongTextsAreNotPooled() {
+        SymbolPool pool = new SymbolPool();
+        String longText = new String(new char[SymbolPool.MAX_SYMBOL_LENGTH + 1]).replace('\0', 'a');
+
+        assertNull(pool.intern((String) null));
+        assertSame(longText, pool.intern(longText));
+        assertNotSame(longText, pool.intern(new String(longText)));
+
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getHits() + pool.getMisses());
+        assertEquals(0.0, pool.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void stripedPoolUnderContention() throws Exception {
+        int threads = 8;
+        int symbols = 5_000;
+        int rounds = 4;
+        SymbolPool pool = new SymbolPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                results.add(executor.submit(() -> {
+                    String[] interned = new String[symbols];
+                    start.await();
+                    for (int round = 0; round < rounds; round++) {
+                        // every thread walks the symbols from another offset , a fresh string on every lookup
+                        for (int i = 0; i < symbols; i++) {
+                            int symbol = (i + offset * symbols / threads) % symbols;
+                            String pooled = pool.intern(new String("symbol" + symbol));
+                            if (interned[symbol] == null) {
+                                interned[symbol] = pooled;
+                            } else if (interned[symbol] != pooled) {
+                                throw new AssertionError("symbol" + symbol + " interned twice");
+                            }
+                        }
+                    }
+                    return interned;
+                }));
+            }
+            start.countDown();
+
+            String[] expected = results.get(0).get(1, TimeUnit.MINUTES);
+            for (Future<String[]> result : results) {
+                String[] interned = result.get(1, TimeUnit.MINUTES);
+                for (int i = 0; i < symbols; i++) {
+                    assertSame(expected[i], interned[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long lookups = (long) threads * symbols * rounds;
+        assertEquals(symbols, pool.size());
+        assertEquals(symbols, pool.getMisses());
+        assertEquals(lookups - symbols, pool.getHits());
+        assertEquals((double) (lookups - symbols) / lookups, pool.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void hashConsingSharesEqualExpressions() {
+        String script = "@kind service;\n@business `biz`;\n"
+                + "process a {\nv = f(a, b) + count * 2;\n}\n"
+                + "process b {\nw = f(a, b) + count * 2;\n}\n"
+                + "process c {\nw = f(a, b) + count * 3;\n}\n";
+        SymbolPool pool = new SymbolPool(true);
+        QuestServiceVisitor visitor = new QuestServiceVisitor(false, pool);
+        QuestTestScripts.parseTree(script).accept(visitor);
+        ServiceModule module = visitor.getModule();
+
+        ExpressionCodeStatement a = value(module, "a");
+        ExpressionCodeStatement b = value(module, "b");
+        ExpressionCodeStatement c = value(module, "c");
+
+        assertSame(a, b);
+        assertNotSame(a, c);
+        assertEquals(a.buildContent(), b.buildContent());
+        assertTrue(pool.getExpressionHits() > 0);
+        assertEquals(pool.expressionSize(), pool.getExpressionMisses());
+    }
+
+    @Test
+    public void hashConsingOffKeepsExpressions() {
+        SymbolPool pool = new SymbolPool(false);
+        String script = "@kind service;\n@business `biz`;\nprocess a {\nv = f(a, b);\n}\nprocess b {\nw = f(a, b);\n}\n";
+        QuestServiceVisitor visitor = new QuestServiceVisitor(false, pool);
+        QuestTestScripts.parseTree(script).accept(visitor);
+
+        assertNotSame(value(visitor.getModule(), "a"), value(visitor.getModule(), "b"));
+        assertEquals(0, pool.expressionSize());
+        assertEquals(0, pool.getExpressionHits());
+    }
+
+    /**
+     * right hand side of the only assignment of a process
+     */
+    private static ExpressionCodeStatement value(ServiceModule module, String process) {
+        ExprStrCodeStatement statement = (ExprStrCodeStatement) module.getProcessStatementMap().get(process)
+                .getContent().get(0);
+        return ((AssignmentExprCodeStatement) statement.getExpr()).getExpr();
+    }
+}
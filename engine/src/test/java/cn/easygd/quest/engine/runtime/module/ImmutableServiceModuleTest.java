@@ -0,0 +1,95 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.statement.immutable.ImmutableStatement;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ImmutableServiceModule} against the module it was copied from , read by one and by many threads
+ *
+ * @author VD
+ */
+public class ImmutableServiceModuleTest {
+
+    @Test
+    public void copyRendersLikeTheSource() {
+        for (String script : QuestTestScripts.services(17L, 10, 10)) {
+            ServiceModule module = QuestTestScripts.service(script);
+            ImmutableServiceModule frozen = ImmutableServiceModule.copyOf(module);
+
+            assertEquals(QuestTestScripts.render(module), QuestTestScripts.render(frozen));
+            assertEquals(module.getBizModule(), frozen.getBizModule());
+            assertEquals(module.getFingerprint(), frozen.getFingerprint());
+            frozen.getProcessStatementMap().values().forEach(process ->
+                    assertTrue(process instanceof ImmutableStatement));
+        }
+    }
+
+    @Test
+    public void copyOfAnImmutableModuleIsTheModule() {
+        ImmutableServiceModule frozen = ImmutableServiceModule.copyOf(
+                QuestTestScripts.service(QuestTestScripts.read(QuestTestScripts.SERVICE)));
+
+        assertSame(frozen, ImmutableServiceModule.copyOf(frozen));
+        assertUnsupported(() -> frozen.setBizModule("x"));
+        assertUnsupported(() -> frozen.putProcessStatement("x", null));
+        assertUnsupported(() -> frozen.getFunctionStatementMap().clear());
+    }
+
+    @Test
+    public void sharedModuleRendersTheSameOnEveryThread() throws Exception {
+        int threads = 8;
+        int rounds = 20;
+        ServiceModule module = QuestTestScripts.service(QuestTestScripts.services(17L, 1, 60).get(0));
+        String expected = QuestTestScripts.render(module);
+        ImmutableServiceModule frozen = ImmutableServiceModule.copyOf(module);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    // first renderings race to memoise the statement lists , later ones read the memo
+                    List<String> rendered = new ArrayList<>(rounds);
+                    for (int round = 0; round < rounds; round++) {
+                        rendered.add(QuestTestScripts.render(frozen));
+                    }
+                    return rendered;
+                }));
+            }
+            start.countDown();
+
+            for (Future<List<String>> result : results) {
+                for (String rendered : result.get(1, TimeUnit.MINUTES)) {
+                    assertEquals(expected, rendered);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertUnsupported(Runnable change) {
+        try {
+            change.run();
+            fail("immutable module accepted a change");
+        } catch (UnsupportedOperationException expected) {
+            // immutable
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.core.QuestStatementListener;
+import cn.easygd.quest.engine.core.QuestStatementVisitor;
+import cn.easygd.quest.engine.core.QuestVisitorManager;
+import cn.easygd.quest.engine.core.enums.KindType;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.core.parser.SymbolPool;
+import cn.easygd.quest.engine.utils.ScriptKindHelper;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * fingerprints of prd / entity modules , built by the visitor and by the parse listener
+ *
+ * @author VD
+ */
+public class ModuleFingerprintTest {
+
+    @Test
+    public void prdFingerprintIgnoresLayout() {
+        String script = QuestTestScripts.read(QuestTestScripts.PRD);
+        String layout = "// prd\n" + script.replace("\n    ", "\n\t/* item */ ").replace("}\n\n", "}\n");
+
+        assertSameFingerprint(script, layout);
+    }
+
+    @Test
+    public void prdFingerprintFollowsTokens() {
+        String script = QuestTestScripts.read(QuestTestScripts.PRD);
+
+        assertOtherFingerprint(script, script.replace("`订单查询`", "`订单统计`"));
+        assertOtherFingerprint(script, script.replace("    3\n", "    4\n"));
+    }
+
+    @Test
+    public void entityFingerprintIgnoresLayout() {
+        String script = QuestTestScripts.read(QuestTestScripts.ENTITY);
+        String layout = script.replace("\n    ", "\n").replace("{\n", "{ /** body */ ")
+                .replace("enum Status", "// status\nenum Status");
+
+        assertSameFingerprint(script, layout);
+    }
+
+    @Test
+    public void entityFingerprintFollowsTokens() {
+        String script = QuestTestScripts.read(QuestTestScripts.ENTITY);
+
+        assertOtherFingerprint(script, script.replace("MAX = 10", "MAX = 11"));
+        assertOtherFingerprint(script, script.replace("private String name", "protected String name"));
+    }
+
+    private static void assertSameFingerprint(String script, String other) {
+        long fingerprint = visitorFingerprint(script);
+        assertNotEquals(0L, fingerprint);
+        assertEquals(fingerprint, listenerFingerprint(script));
+        assertEquals(fingerprint, visitorFingerprint(other));
+        assertEquals(fingerprint, listenerFingerprint(other));
+    }
+
+    private static void assertOtherFingerprint(String script, String other) {
+        assertNotEquals(script, other);
+        assertNotEquals(visitorFingerprint(script), visitorFingerprint(other));
+        assertNotEquals(listenerFingerprint(script), listenerFingerprint(other));
+    }
+
+    private static long visitorFingerprint(String script) {
+        ParserRuleContext ctx = QuestTestScripts.parseTree(script);
+        KindType kind = ctx instanceof QuestParser.PrdScriptContext ? KindType.PRD : KindType.ENTITY;
+        QuestStatementVisitor<? extends QuestModule> visitor =
+                QuestVisitorManager.findVisitor(kind, false, false, new SymbolPool(1));
+        ctx.accept(visitor);
+        return visitor.getModule().getFingerprint();
+    }
+
+    private static long listenerFingerprint(String script) {
+        QuestParser parser = QuestParserPool.acquire(script);
+        parser.removeErrorListeners();
+        KindType kind = ScriptKindHelper.sniffScriptKind(parser.getTokenStream());
+        QuestStatementListener<? extends QuestModule> listener =
+                QuestVisitorManager.findListener(kind, false, new SymbolPool(1));
+        listener.attach(parser);
+        QuestScriptParser.parse(parser, kind);
+        assertEquals(0, parser.getNumberOfSyntaxErrors());
+        return listener.getModule().getFingerprint();
+    }
+}
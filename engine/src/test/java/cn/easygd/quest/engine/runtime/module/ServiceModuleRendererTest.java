@@ -0,0 +1,106 @@
+package cn.easygd.quest.engine.runtime.module;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.statement.CodeFormat;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.utils.Utf8FileSink;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link ServiceModuleRenderer} on the calling thread and on a pool , the outputs must not differ by a byte
+ *
+ * @author VD
+ */
+public class ServiceModuleRendererTest {
+
+    private static ForkJoinPool pool;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void parallelOutputIsTheSequentialOutput() throws Exception {
+        ServiceModuleRenderer sequential = new ServiceModuleRenderer();
+        ServiceModuleRenderer parallel = new ServiceModuleRenderer(CodeFormat.DEFAULT, pool);
+        int index = 0;
+        for (String script : QuestTestScripts.services(25L, 10, 40)) {
+            ServiceModule module = QuestTestScripts.service(script);
+            Path expected = folder.getRoot().toPath().resolve("sequential" + index + ".code");
+            Path actual = folder.getRoot().toPath().resolve("parallel" + index + ".code");
+            index++;
+            try (Utf8FileSink sink = Utf8FileSink.open(expected)) {
+                sequential.render(module, sink);
+            }
+            try (Utf8FileSink sink = Utf8FileSink.open(actual)) {
+                parallel.render(module, sink);
+            }
+
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+            assertEquals(sorted(module), sequential.render(module));
+            assertEquals(sequential.render(module), parallel.render(module));
+        }
+    }
+
+    @Test
+    public void nullNameIsRenderedLast() {
+        ServiceModule module = QuestTestScripts.service(QuestTestScripts.services(25L, 1, 5).get(0));
+        // a copy of a block that sorts neither first nor last , the output tells where the null name went
+        module.putProcessStatement(null, module.getProcessStatementMap().get("p1"));
+        String expected = sorted(module);
+
+        assertEquals(expected, new ServiceModuleRenderer().render(module));
+        assertEquals(expected, new ServiceModuleRenderer(CodeFormat.DEFAULT, pool).render(module));
+    }
+
+    /**
+     * processes by name , then functions by name , a null name last , as the renderer promises
+     */
+    private static String sorted(ServiceModule module) {
+        List<CodeStatement> blocks = new ArrayList<>();
+        addSorted(module.getProcessStatementMap(), blocks);
+        addSorted(module.getFunctionStatementMap(), blocks);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < blocks.size(); i++) {
+            sb.append(i > 0 ? "\n\n" : "").append(blocks.get(i).buildContent());
+        }
+        return blocks.isEmpty() ? "" : sb.append('\n').toString();
+    }
+
+    private static void addSorted(Map<String, ? extends CodeStatement> statements, List<CodeStatement> blocks) {
+        Map<String, CodeStatement> named = new TreeMap<>();
+        statements.forEach((name, statement) -> {
+            if (name != null) {
+                named.put(name, statement);
+            }
+        });
+        blocks.addAll(named.values());
+        if (statements.containsKey(null)) {
+            blocks.add(statements.get(null));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package cn.easygd.quest.engine.runtime.module.binary;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.core.parser.QuestParserPool;
+import cn.easygd.quest.engine.core.parser.QuestScriptParser;
+import cn.easygd.quest.engine.core.QuestParser;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * loading modules from the binary format against parsing their scripts again
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [scripts]
+ * [processes]}. the scripts are generated from a fixed seed ( {@link QuestTestScripts#services} ). the rounds write
+ * all modules into one stream , read them back , and parse + build the scripts , best of the measured rounds.
+ * </p>
+ *
+ * @author VD
+ */
+public class ModuleBinaryBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int processes = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        List<String> scripts = QuestTestScripts.services(19L, count, processes);
+        List<ServiceModule> modules = new ArrayList<>(count);
+        long chars = 0;
+        for (String script : scripts) {
+            modules.add(QuestTestScripts.service(script));
+            chars += script.length();
+        }
+
+        long bestWrite = Long.MAX_VALUE;
+        long bestRead = Long.MAX_VALUE;
+        long bestParse = Long.MAX_VALUE;
+        byte[] bytes = null;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ModuleBinaryWriter writer = new ModuleBinaryWriter(out)) {
+                for (ServiceModule module : modules) {
+                    writer.write(module);
+                }
+            }
+            bytes = out.toByteArray();
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int read = 0;
+            try (ModuleBinaryReader reader = new ModuleBinaryReader(new ByteArrayInputStream(bytes))) {
+                for (QuestModule module; (module = reader.read()) != null; ) {
+                    read++;
+                }
+            }
+            long load = System.nanoTime() - start;
+            if (read != modules.size()) {
+                throw new IllegalStateException(read + " modules read , " + modules.size() + " written");
+            }
+
+            start = System.nanoTime();
+            for (String script : scripts) {
+                QuestParser parser = QuestParserPool.acquire(script);
+                parser.removeErrorListeners();
+                QuestServiceVisitor visitor = new QuestServiceVisitor();
+                QuestScriptParser.parse(parser, QuestParser::serviceScript).accept(visitor);
+            }
+            long parse = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                bestWrite = Math.min(bestWrite, write);
+                bestRead = Math.min(bestRead, load);
+                bestParse = Math.min(bestParse, parse);
+            }
+        }
+        System.out.printf("%d modules , %.1f M chars of script , %.1f MB binary%n",
+                modules.size(), chars / 1e6, bytes.length / 1e6);
+        System.out.printf("write          %8.1f ms%n", bestWrite / 1e6);
+        System.out.printf("read           %8.1f ms%n", bestRead / 1e6);
+        System.out.printf("parse + build  %8.1f ms%n", bestParse / 1e6);
+    }
+}
@@ -0,0 +1,179 @@
+package cn.easygd.quest.engine.runtime.module.binary;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.enums.StatementType;
+import cn.easygd.quest.engine.runtime.module.EntityModule;
+import cn.easygd.quest.engine.runtime.module.PrdModule;
+import cn.easygd.quest.engine.runtime.module.QuestModule;
+import cn.easygd.quest.engine.runtime.module.ScriptSource;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link ModuleBinaryWriter} / {@link ModuleBinaryReader} round trips , and corrupt input failing with
+ * {@link IOException} only
+ *
+ * @author VD
+ */
+public class ModuleBinaryTest {
+
+    @Test
+    public void roundTrip() throws IOException {
+        List<QuestModule> modules = new ArrayList<>();
+        for (String script : QuestTestScripts.services(19L, 10, 10)) {
+            ServiceModule module = QuestTestScripts.service(script);
+            module.setScriptSource(ScriptSource.of(script));
+            modules.add(module);
+        }
+        ServiceModule bundled = QuestTestScripts.service(QuestTestScripts.read(QuestTestScripts.SERVICE));
+        bundled.setScriptSource(ScriptSource.of(Paths.get("quest", "service.quest"), 0, 41));
+        modules.add(bundled);
+        modules.add(new PrdModule());
+        modules.add(new EntityModule());
+
+        List<QuestModule> read = readAll(write(modules));
+
+        assertEquals(modules.size(), read.size());
+        for (int i = 0; i < modules.size(); i++) {
+            QuestModule expected = modules.get(i);
+            QuestModule actual = read.get(i);
+            assertEquals(expected.getClass(), actual.getClass());
+            if (expected instanceof ServiceModule) {
+                ServiceModule expectedService = (ServiceModule) expected;
+                ServiceModule actualService = (ServiceModule) actual;
+                assertEquals(QuestTestScripts.render(expectedService), QuestTestScripts.render(actualService));
+                assertEquals(expectedService.getFingerprint(), actualService.getFingerprint());
+                ScriptSource source = expected.getScriptSource();
+                assertEquals(source.getPath(), actual.getScriptSource().getPath());
+                assertEquals(source.getStartIndex(), actual.getScriptSource().getStartIndex());
+                assertEquals(source.getStopIndex(), actual.getScriptSource().getStopIndex());
+                if (source.getPath() == null) {
+                    assertEquals(source.getText(), actual.getScriptSource().getText());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everyTruncationFailsWithIOException() throws IOException {
+        ServiceModule service = QuestTestScripts.service(QuestTestScripts.read(QuestTestScripts.SERVICE));
+        byte[] bytes = write(Arrays.asList(service, new PrdModule()));
+        // cutting right after the header or between two modules leaves a valid stream
+        int header = write(new ArrayList<>()).length;
+        int firstModule = write(Arrays.asList(service)).length;
+
+        for (int length = 0; length < bytes.length; length++) {
+            try {
+                int modules = readAll(Arrays.copyOf(bytes, length)).size();
+                assertTrue("truncated at " + length + " was read", length == header || length == firstModule);
+                assertEquals(length == header ? 0 : 1, modules);
+            } catch (IOException expected) {
+                assertTrue("valid prefix " + length + " was rejected", length != header && length != firstModule);
+            } catch (RuntimeException e) {
+                throw new AssertionError("truncated at " + length, e);
+            }
+        }
+    }
+
+    @Test
+    public void flippedBytesFailWithIOException() throws IOException {
+        byte[] bytes = write(Arrays.asList(
+                QuestTestScripts.service(QuestTestScripts.services(19L, 1, 5).get(0)),
+                QuestTestScripts.service(QuestTestScripts.read(QuestTestScripts.SERVICE))));
+        Random random = new Random(19L);
+        for (int i = 0; i < 20_000; i++) {
+            byte[] corrupt = bytes.clone();
+            for (int flips = 1 + random.nextInt(3); flips > 0; flips--) {
+                corrupt[4 + random.nextInt(corrupt.length - 4)] = (byte) random.nextInt(256);
+            }
+            try {
+                readAll(corrupt);
+            } catch (IOException expected) {
+                // rejected
+            } catch (RuntimeException | OutOfMemoryError e) {
+                throw new AssertionError("corrupt stream " + i, e);
+            }
+        }
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void negativeVarintIsRejected() throws IOException {
+        // process count with the sign bit set
+        readAll(stream(ModuleBinaryFormat.SERVICE, ModuleBinaryFormat.SOURCE_NONE, ModuleBinaryFormat.STRING_NULL,
+                0xFF, 0xFF, 0xFF, 0xFF, 0x0F));
+    }
+
+    @Test(expected = EOFException.class)
+    public void forgedStringLengthOnlyReadsTheInput() throws IOException {
+        // an inline biz name claiming 1 GB
+        readAll(stream(ModuleBinaryFormat.SERVICE, ModuleBinaryFormat.SOURCE_NONE, ModuleBinaryFormat.STRING_INLINE,
+                0x80, 0x80, 0x80, 0x80, 0x04, 'a', 'b'));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void functionInPlaceOfAProcessIsRejected() throws IOException {
+        readAll(stream(ModuleBinaryFormat.SERVICE, ModuleBinaryFormat.SOURCE_NONE, ModuleBinaryFormat.STRING_NULL,
+                1, StatementType.FUNCTION.ordinal() + 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void missingChildrenAreRejected() throws IOException {
+        // an if without its condition and blocks
+        readAll(stream(ModuleBinaryFormat.SERVICE, ModuleBinaryFormat.SOURCE_NONE, ModuleBinaryFormat.STRING_NULL,
+                1, StatementType.PROCESS.ordinal() + 1, 1, ModuleBinaryFormat.STRING_NULL,
+                StatementType.IF.ordinal() + 1, 0));
+    }
+
+    @Test
+    public void emptyStreamHasNoModules() throws IOException {
+        assertNull(new ModuleBinaryReader(new ByteArrayInputStream(stream())).read());
+    }
+
+    /**
+     * header of the current version followed by the given bytes
+     */
+    private static byte[] stream(int... body) {
+        byte[] bytes = Arrays.copyOf(ModuleBinaryFormat.MAGIC, ModuleBinaryFormat.MAGIC.length + 1 + body.length);
+        bytes[ModuleBinaryFormat.MAGIC.length] = ModuleBinaryFormat.VERSION;
+        for (int i = 0; i < body.length; i++) {
+            bytes[ModuleBinaryFormat.MAGIC.length + 1 + i] = (byte) body[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] write(List<? extends QuestModule> modules) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ModuleBinaryWriter writer = new ModuleBinaryWriter(out)) {
+            for (QuestModule module : modules) {
+                writer.write(module);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<QuestModule> readAll(byte[] bytes) throws IOException {
+        List<QuestModule> modules = new ArrayList<>();
+        try (ModuleBinaryReader reader = new ModuleBinaryReader(new ByteArrayInputStream(bytes))) {
+            for (QuestModule module; (module = reader.read()) != null; ) {
+                modules.add(module);
+            }
+        }
+        return modules;
+    }
+}
@@ -0,0 +1,72 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import org.antlr.v4.runtime.ParserRuleContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * time of building statements from ready parse trees and of emitting them , on scripts of everyday depth
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [scripts]
+ * [processes]}. the scripts are generated from a fixed seed ( {@link QuestTestScripts#services} ) and parsed once.
+ * building and emitting run on explicit work stacks instead of the java stack , this shows what that costs where the
+ * nesting is shallow. see {@code DeepNestingTest} for the deep end.
+ * </p>
+ *
+ * @author VD
+ */
+public class BuildEmitBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int processes = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        List<ParserRuleContext> trees = new ArrayList<>(count);
+        long chars = 0;
+        for (String script : QuestTestScripts.services(12L, count, processes)) {
+            trees.add(QuestTestScripts.parseTree(script));
+            chars += script.length();
+        }
+        System.out.printf("%d scripts , %.1f M chars%n", trees.size(), chars / 1e6);
+
+        long bestBuild = Long.MAX_VALUE;
+        long bestEmit = Long.MAX_VALUE;
+        long emitted = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + ROUNDS; round++) {
+            List<ServiceModule> modules = new ArrayList<>(trees.size());
+            long start = System.nanoTime();
+            for (ParserRuleContext tree : trees) {
+                QuestServiceVisitor visitor = new QuestServiceVisitor();
+                tree.accept(visitor);
+                modules.add(visitor.getModule());
+            }
+            long build = System.nanoTime() - start;
+
+            emitted = 0;
+            start = System.nanoTime();
+            for (ServiceModule module : modules) {
+                for (CodeStatement process : module.getProcessStatementMap().values()) {
+                    emitted += process.buildContent().length();
+                }
+                for (CodeStatement function : module.getFunctionStatementMap().values()) {
+                    emitted += function.buildContent().length();
+                }
+            }
+            long emit = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                bestBuild = Math.min(bestBuild, build);
+                bestEmit = Math.min(bestEmit, emit);
+            }
+        }
+        System.out.printf("build %8.1f ms%n", bestBuild / 1e6);
+        System.out.printf("emit  %8.1f ms , %.1f M chars%n", bestEmit / 1e6, emitted / 1e6);
+    }
+}
@@ -0,0 +1,173 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.runtime.statement.service.AssignmentExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.BinaryExprCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.BlockCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ExprStrCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.IfCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.WhileCodeStatement;
+
+import java.util.List;
+
+/**
+ * chars copied and time of rendering deeply nested statements , by the {@link CodeWriter} against nested strings
+ *
+ * <p>
+ * not a unit test , run its main method on the test classpath with the optional arguments {@code [shape]
+ * [max depth]} , shapes as in {@link QuestTestScripts#deep} , {@code if} , {@code while} or {@code chain}. the
+ * nested strings renderer is the way statements were rendered before the writer : every statement returns a string
+ * that its parent copies into its own , so a char at depth d is copied d times and the chars copied grow with the
+ * square of the depth. the writer copies every char into the sink once. both lay the code out without indentation ,
+ * indented output grows with the square of the depth by itself.
+ * </p>
+ *
+ * @author VD
+ */
+public class CodeWriterBenchmark {
+
+    private static final CodeFormat FLAT = CodeFormat.of(0, CodeFormat.BraceStyle.END_OF_LINE);
+
+    private static final int ROUNDS = 7;
+
+    /**
+     * chars copied by the nested strings renderer
+     */
+    private static long copied;
+
+    public static void main(String[] args) throws Exception {
+        String[] shapes = args.length > 0 ? new String[]{args[0]} : new String[]{"if", "while", "chain"};
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : 8000;
+        // the nested strings renderer recurses per level
+        Thread thread = new Thread(null, () -> run(shapes, maxDepth), "code-writer-benchmark", 1L << 30);
+        thread.start();
+        thread.join();
+    }
+
+    private static void run(String[] shapes, int maxDepth) {
+        for (String shape : shapes) {
+            for (int depth = 500; depth <= maxDepth; depth *= 2) {
+                CodeStatement process = QuestTestScripts.service(QuestTestScripts.deep(shape, depth))
+                        .getProcessStatementMap().get("p");
+
+                String expected = null;
+                long nestedCopied = 0;
+                long nestedTime = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    copied = 0;
+                    long start = System.nanoTime();
+                    expected = nested(process);
+                    nestedTime = Math.min(nestedTime, System.nanoTime() - start);
+                    nestedCopied = copied;
+                }
+
+                String output = null;
+                long writerCopied = 0;
+                long writerTime = Long.MAX_VALUE;
+                for (int round = 0; round < ROUNDS; round++) {
+                    CountingBuilder sink = new CountingBuilder();
+                    long start = System.nanoTime();
+                    process.emit(new CodeWriter(sink, FLAT));
+                    writerTime = Math.min(writerTime, System.nanoTime() - start);
+                    writerCopied = sink.appended;
+                    output = sink.toString();
+                }
+                if (!output.equals(expected)) {
+                    throw new IllegalStateException(shape + " depth " + depth + " : renderings differ");
+                }
+
+                System.out.printf("%-5s depth %5d , %8d chars | nested strings %,14d copied ( %6.1f x ) %9.2f ms"
+                                + " | code writer %,10d copied ( %.1f x ) %7.2f ms%n",
+                        shape, depth, output.length(), nestedCopied, nestedCopied / (double) output.length(),
+                        nestedTime / 1e6, writerCopied, writerCopied / (double) output.length(), writerTime / 1e6);
+            }
+        }
+    }
+
+    /**
+     * render a statement into a string of its own , from the strings of its children
+     */
+    private static String nested(CodeStatement statement) {
+        String text;
+        if (statement instanceof IfCodeStatement) {
+            IfCodeStatement ifStatement = (IfCodeStatement) statement;
+            text = "if (" + nested(ifStatement.getCondition()) + ") " + nested(ifStatement.getBlock());
+            if (ifStatement.getElseBlock() != null) {
+                text = text + " else " + nested(ifStatement.getElseBlock());
+            }
+        } else if (statement instanceof WhileCodeStatement) {
+            WhileCodeStatement whileStatement = (WhileCodeStatement) statement;
+            text = "while (" + nested(whileStatement.getCondition()) + ") " + nested(whileStatement.getBlock());
+        } else if (statement instanceof BlockCodeStatement) {
+            String content = lines((BlockCodeStatement) statement);
+            text = content.isEmpty() ? "{\n}" : "{\n" + content + "\n}";
+        } else if (statement instanceof CollectCodeStatement) {
+            text = lines((CollectCodeStatement) statement);
+        } else if (statement instanceof ExprStrCodeStatement) {
+            text = nested(((ExprStrCodeStatement) statement).getExpr()) + ";";
+        } else if (statement instanceof AssignmentExprCodeStatement) {
+            AssignmentExprCodeStatement assignment = (AssignmentExprCodeStatement) statement;
+            text = assignment.getVariable() + " " + assignment.getAssignmentOperator() + " "
+                    + nested(assignment.getExpr());
+        } else if (statement instanceof BinaryExprCodeStatement) {
+            BinaryExprCodeStatement binary = (BinaryExprCodeStatement) statement;
+            text = nested(binary.getLeftExpr()) + " " + binary.getBinaryOperator() + " "
+                    + nested(binary.getRightExpr());
+        } else {
+            // leaves , as flat as the writer lays them out
+            StringBuilder sb = new StringBuilder();
+            statement.emit(new CodeWriter(sb, FLAT));
+            text = sb.toString();
+        }
+        copied += text.length();
+        return text;
+    }
+
+    private static String lines(CollectCodeStatement collect) {
+        List<CodeStatement> children = collect.getContent();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            sb.append(nested(children.get(i)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * string builder sink counting the chars appended
+     */
+    private static final class CountingBuilder implements Appendable {
+
+        private final StringBuilder sb = new StringBuilder();
+
+        private long appended;
+
+        @Override
+        public Appendable append(CharSequence text) {
+            appended += text.length();
+            sb.append(text);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence text, int start, int end) {
+            appended += end - start;
+            sb.append(text, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            appended++;
+            sb.append(c);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
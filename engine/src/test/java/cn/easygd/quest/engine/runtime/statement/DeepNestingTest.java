@@ -0,0 +1,188 @@
+package cn.easygd.quest.engine.runtime.statement;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * building and emitting statement trees 10k levels deep on a 1 MB thread stack , the parse itself runs on a large
+ * stack since the generated parser recurses per rule
+ *
+ * <p>
+ * nested blocks render to hundreds of MB of indentation , so the output is compared by a digest of the text the
+ * writer produces against one of the text generated for the shape.
+ * </p>
+ *
+ * @author VD
+ */
+public class DeepNestingTest {
+
+    private static final int DEPTH = 10_000;
+
+    /**
+     * the default thread stack of HotSpot on 64 bit linux
+     */
+    private static final long STACK_SIZE = 1L << 20;
+
+    @Test
+    public void nestedIfs() {
+        Digest expected = new Digest();
+        for (int i = 0; i < DEPTH; i++) {
+            expected.line(i, "if (a > " + i + ") {");
+        }
+        expected.line(DEPTH, "v = 1;");
+        closeBlocks(expected);
+
+        assertEmits(expected, "if");
+    }
+
+    @Test
+    public void nestedWhileAndIfElse() {
+        Digest expected = new Digest();
+        for (int i = 0; i < DEPTH; i++) {
+            if (i % 2 == 0) {
+                expected.line(i, "while (a) {");
+            } else {
+                expected.line(i, "if (b) {");
+                expected.line(i, "} else {");
+            }
+        }
+        expected.line(DEPTH, "v = 1;");
+        closeBlocks(expected);
+
+        assertEmits(expected, "while");
+    }
+
+    @Test
+    public void operatorChain() {
+        StringBuilder sb = new StringBuilder("v = a");
+        for (int i = 0; i < DEPTH; i++) {
+            sb.append(" + a").append(i);
+        }
+        Digest expected = new Digest();
+        expected.line(0, sb.append(';').toString());
+
+        assertEmits(expected, "chain");
+    }
+
+    @Test
+    public void nestedParentheses() {
+        StringBuilder sb = new StringBuilder("v = ");
+        for (int i = 0; i < DEPTH; i++) {
+            sb.append('(');
+        }
+        sb.append('a');
+        for (int i = 0; i < DEPTH; i++) {
+            sb.append(')');
+        }
+        Digest expected = new Digest();
+        expected.line(0, sb.append(';').toString());
+
+        assertEmits(expected, "paren");
+    }
+
+    @Test
+    public void nestedTernaries() {
+        StringBuilder sb = new StringBuilder("v = ");
+        for (int i = 0; i < DEPTH; i++) {
+            sb.append('a').append(i).append(" ? 1 : ");
+        }
+        Digest expected = new Digest();
+        expected.line(0, sb.append("0;").toString());
+
+        assertEmits(expected, "ternary");
+    }
+
+    private static void closeBlocks(Digest expected) {
+        for (int i = DEPTH - 1; i >= 0; i--) {
+            expected.line(i, "}");
+        }
+    }
+
+    /**
+     * build the module and emit process {@code p} on a small stack
+     */
+    private static void assertEmits(Digest expected, String shape) {
+        ParserRuleContext tree = QuestTestScripts.parseTree(QuestTestScripts.deep(shape, DEPTH));
+        Digest actual = new Digest();
+        runOnSmallStack(() -> {
+            QuestServiceVisitor visitor = new QuestServiceVisitor();
+            tree.accept(visitor);
+            ServiceModule module = visitor.getModule();
+            module.getProcessStatementMap().get("p").emit(new CodeWriter(actual));
+        });
+
+        assertEquals(expected.length, actual.length);
+        assertEquals(expected.hash, actual.hash);
+    }
+
+    private static void runOnSmallStack(Runnable task) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "quest-emit", STACK_SIZE);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("build or emit failed", failure.get());
+        }
+    }
+
+    /**
+     * length and polynomial hash of the text appended
+     */
+    private static class Digest implements Appendable {
+
+        private long length;
+
+        private long hash;
+
+        /**
+         * a line of the expected text , indented by {@code depth} levels of {@link CodeFormat#DEFAULT}
+         */
+        void line(int depth, String text) {
+            if (length > 0) {
+                append('\n');
+            }
+            for (int i = 0; i < depth * CodeFormat.DEFAULT.getIndentWidth(); i++) {
+                append(' ');
+            }
+            append(text);
+        }
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            hash = hash * 31 + c;
+            length++;
+            return this;
+        }
+    }
+}
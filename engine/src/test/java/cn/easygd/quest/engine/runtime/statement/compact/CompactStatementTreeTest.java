@@ -0,0 +1,142 @@
+package cn.easygd.quest.engine.runtime.statement.compact;
+
+import cn.easygd.quest.engine.QuestTestScripts;
+import cn.easygd.quest.engine.core.QuestServiceVisitor;
+import cn.easygd.quest.engine.runtime.module.ServiceModule;
+import cn.easygd.quest.engine.runtime.statement.CodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.FunctionCodeStatement;
+import cn.easygd.quest.engine.runtime.statement.service.ProcessCodeStatement;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * read only views of a {@link CompactStatementTree} against the regular statements built from the same parse tree
+ *
+ * <p>
+ * every public getter of the regular statement classes is called on both sides , statements are compared node by
+ * node and every other value by {@link Object#equals(Object)}.
+ * </p>
+ *
+ * @author VD
+ */
+public class CompactStatementTreeTest {
+
+    @Test
+    public void bundledServiceScript() {
+        assertSameStatements(QuestTestScripts.read(QuestTestScripts.SERVICE));
+    }
+
+    @Test
+    public void generatedServiceScripts() {
+        for (String script : QuestTestScripts.services(13L, 20, 10)) {
+            assertSameStatements(script);
+        }
+    }
+
+    @Test
+    public void viewsAreReadOnly() {
+        ServiceModule module = build(QuestTestScripts.parseTree(QuestTestScripts.read(QuestTestScripts.SERVICE)),
+                true);
+        ProcessCodeStatement process = module.getProcessStatementMap().values().iterator().next();
+        FunctionCodeStatement function = module.getFunctionStatementMap().values().iterator().next();
+
+        assertReadOnly(() -> process.setName("x"));
+        assertReadOnly(() -> process.add(process));
+        assertReadOnly(() -> process.setFingerprint(1L));
+        assertReadOnly(() -> function.setName("x"));
+        assertReadOnly(() -> function.setParameters("int a"));
+    }
+
+    private static void assertSameStatements(String script) {
+        ParserRuleContext tree = QuestTestScripts.parseTree(script);
+        ServiceModule regular = build(tree, false);
+        ServiceModule compact = build(tree, true);
+
+        assertEquals(regular.getProcessStatementMap().keySet(), compact.getProcessStatementMap().keySet());
+        assertEquals(regular.getFunctionStatementMap().keySet(), compact.getFunctionStatementMap().keySet());
+        regular.getProcessStatementMap().forEach((name, process) -> {
+            ProcessCodeStatement view = compact.getProcessStatementMap().get(name);
+            assertNotSame(process.getClass(), view.getClass());
+            assertSameNode(name, process, view);
+            assertEquals(process.buildContent(), view.buildContent());
+        });
+        regular.getFunctionStatementMap().forEach((name, function) -> {
+            FunctionCodeStatement view = compact.getFunctionStatementMap().get(name);
+            assertSameNode(name, function, view);
+            assertEquals(function.buildContent(), view.buildContent());
+        });
+        assertEquals(regular.getFingerprint(), compact.getFingerprint());
+    }
+
+    /**
+     * compare the getters of a regular statement with the ones of its view , recursively
+     */
+    private static void assertSameNode(String path, Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            assertNull(path, expected);
+            assertNull(path, actual);
+            return;
+        }
+        if (expected instanceof List) {
+            List<?> expectedList = (List<?>) expected;
+            List<?> actualList = (List<?>) actual;
+            assertEquals(path + ".size", expectedList.size(), actualList.size());
+            for (int i = 0; i < expectedList.size(); i++) {
+                assertSameNode(path + "[" + i + "]", expectedList.get(i), actualList.get(i));
+            }
+            return;
+        }
+        if (!(expected instanceof CodeStatement)) {
+            assertEquals(path, expected, actual);
+            return;
+        }
+        CodeStatement statement = (CodeStatement) expected;
+        assertEquals(path + ".type", statement.type(), ((CodeStatement) actual).type());
+        assertTrue(path + " : " + actual.getClass() + " is no " + expected.getClass(),
+                expected.getClass().isInstance(actual));
+        for (Method getter : expected.getClass().getMethods()) {
+            if (isGetter(getter)) {
+                assertSameNode(path + "." + getter.getName(), invoke(getter, expected), invoke(getter, actual));
+            }
+        }
+    }
+
+    private static boolean isGetter(Method method) {
+        return method.getName().startsWith("get") && method.getParameterCount() == 0
+                && !Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+    }
+
+    private static Object invoke(Method getter, Object target) {
+        try {
+            return getter.invoke(target);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new AssertionError(getter + " failed on " + target.getClass(), e);
+        }
+    }
+
+    private static void assertReadOnly(Runnable setter) {
+        try {
+            setter.run();
+            fail("view accepted a change");
+        } catch (UnsupportedOperationException expected) {
+            // read only
+        }
+    }
+
+    private static ServiceModule build(ParserRuleContext tree, boolean compact) {
+        QuestServiceVisitor visitor = new QuestServiceVisitor(compact);
+        tree.accept(visitor);
+        return visitor.getModule();
+    }
+}